@@ -0,0 +1,158 @@
+package com.example.app.config;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Concurrency limit that adapts to latency, after the gradient limiter in Netflix's
+ * concurrency-limits library.
+ * <p>
+ * Latencies are averaged over short windows and compared with a slowly moving baseline.
+ * While a window stays within {@link #TOLERANCE} of the baseline the limit grows by
+ * about its square root; as latency climbs past that the limit is scaled down by
+ * baseline / latency, at most halving it per window. A window in which a request
+ * failed (an exception or a 5xx) cuts the limit by {@link #BACKOFF} instead, and a
+ * window that never used half the limit says nothing about it and leaves it alone.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    // Latency may rise this far above the baseline before the limit comes down, so
+    // ordinary jitter does not shrink it.
+    static final double TOLERANCE = 1.5;
+
+    static final double BACKOFF = 0.9;
+
+    static final long WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    static final int WINDOW_MIN_SAMPLES = 10;
+
+    // Weight of a new window in the limit and in the baseline latency.
+    private static final double SMOOTHING = 0.2;
+
+    private static final double BASELINE_WEIGHT = 1.0 / 60;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final LongSupplier nanoClock;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile int limit;
+
+    // Window state, guarded by this.
+    private long windowStart;
+
+    private long windowLatencySum;
+
+    private int windowSamples;
+
+    private int windowMaxInFlight;
+
+    private boolean windowFailed;
+
+    private double baselineNanos;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit) {
+        this(initialLimit, minLimit, maxLimit, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, LongSupplier nanoClock) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Need 1 <= min-limit <= max-limit, got " + minLimit + " and " + maxLimit);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.nanoClock = nanoClock;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.windowStart = nanoClock.getAsLong();
+    }
+
+    /**
+     * Takes a slot if fewer than {@link #getLimit()} requests are in flight. A caller that
+     * gets one must hand it back with {@link #release}.
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Hands back a slot and records how long the request held it.
+     *
+     * @param failed whether the request failed in a way that suggests overload
+     */
+    public void release(long latencyNanos, boolean failed) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        record(latencyNanos, failed, inFlightBefore);
+    }
+
+    /**
+     * Hands back a slot without recording a sample, for requests whose duration says
+     * nothing about load.
+     */
+    public void releaseWithoutSample() {
+        inFlight.decrementAndGet();
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void record(long latencyNanos, boolean failed, int inFlightBefore) {
+        windowLatencySum += latencyNanos;
+        windowSamples++;
+        windowMaxInFlight = Math.max(windowMaxInFlight, inFlightBefore);
+        windowFailed |= failed;
+        long now = nanoClock.getAsLong();
+        if (now - windowStart < WINDOW_NANOS || windowSamples < WINDOW_MIN_SAMPLES) {
+            return;
+        }
+        limit = nextLimit(windowLatencySum / (double) windowSamples);
+        windowStart = now;
+        windowLatencySum = 0;
+        windowSamples = 0;
+        windowMaxInFlight = 0;
+        windowFailed = false;
+    }
+
+    private int nextLimit(double latencyNanos) {
+        int current = limit;
+        if (windowFailed) {
+            return clamp(current * BACKOFF);
+        }
+        if (baselineNanos == 0) {
+            baselineNanos = latencyNanos;
+        } else {
+            baselineNanos += (latencyNanos - baselineNanos) * BASELINE_WEIGHT;
+            // Let the baseline come down quickly once a slow period is over, or the
+            // next one would not be noticed until latency doubled again.
+            if (baselineNanos > 2 * latencyNanos) {
+                baselineNanos = 0.95 * baselineNanos;
+            }
+        }
+        if (windowMaxInFlight < current / 2) {
+            return current;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * baselineNanos / latencyNanos));
+        double target = current * gradient + Math.sqrt(current);
+        return clamp(current * (1 - SMOOTHING) + target * SMOOTHING);
+    }
+
+    private int clamp(double value) {
+        return (int) Math.max(minLimit, Math.min(maxLimit, Math.round(value)));
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.app.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Admission control for the item API. Reads ({@code GET} and {@code HEAD}, and handlers
+ * marked {@link ReadOnlyRequest}) and writes (everything else) each have an
+ * {@link AdaptiveConcurrencyLimit}; a request that finds
+ * its limit reached is answered {@code 503} with {@code Retry-After} straight away
+ * instead of queueing for a database connection behind the requests already running.
+ * <p>
+ * The current limits, requests in flight and rejections are published as
+ * {@code item.concurrency.limit}, {@code item.concurrency.in-flight} and
+ * {@code item.concurrency.rejected}, tagged with {@code type} (read or write).
+ */
+@Component
+@ConditionalOnProperty(name = "item.concurrency.enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitInterceptor implements AsyncHandlerInterceptor, MeterBinder {
+
+    private static final String ADMITTED = ConcurrencyLimitInterceptor.class.getName() + ".admitted";
+
+    private final Map<String, AdaptiveConcurrencyLimit> limits;
+
+    private final String retryAfterSeconds;
+
+    private volatile Map<String, Counter> rejections = Map.of();
+
+    public ConcurrencyLimitInterceptor(
+            @Value("${item.concurrency.read.initial-limit:20}") int readInitialLimit,
+            @Value("${item.concurrency.read.min-limit:4}") int readMinLimit,
+            @Value("${item.concurrency.read.max-limit:200}") int readMaxLimit,
+            @Value("${item.concurrency.write.initial-limit:10}") int writeInitialLimit,
+            @Value("${item.concurrency.write.min-limit:1}") int writeMinLimit,
+            @Value("${item.concurrency.write.max-limit:50}") int writeMaxLimit,
+            @Value("${item.concurrency.retry-after:1s}") Duration retryAfter) {
+        this.limits = Map.of(
+                "read", new AdaptiveConcurrencyLimit(readInitialLimit, readMinLimit, readMaxLimit),
+                "write", new AdaptiveConcurrencyLimit(writeInitialLimit, writeMinLimit, writeMaxLimit));
+        this.retryAfterSeconds = String.valueOf(Math.max(1, retryAfter.toSeconds()));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Map<String, Counter> counters = new HashMap<>();
+        limits.forEach((type, limit) -> {
+            Gauge.builder("item.concurrency.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+                    .description("Current adaptive concurrency limit")
+                    .tag("type", type)
+                    .register(registry);
+            Gauge.builder("item.concurrency.in-flight", limit, AdaptiveConcurrencyLimit::getInFlight)
+                    .description("Requests holding a concurrency slot")
+                    .tag("type", type)
+                    .register(registry);
+            counters.put(type, Counter.builder("item.concurrency.rejected")
+                    .description("Requests turned away with 503 because the concurrency limit was reached")
+                    .tag("type", type)
+                    .register(registry));
+        });
+        rejections = Map.copyOf(counters);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String type = type(request, handler);
+        AdaptiveConcurrencyLimit limit = limits.get(type);
+        if (!limit.tryAcquire()) {
+            Counter rejected = rejections.get(type);
+            if (rejected != null) {
+                rejected.increment();
+            }
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+            return false;
+        }
+        request.setAttribute(ADMITTED, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+            Object handler) {
+        // How long an async response stays open is no measure of load; let the slot go.
+        if (request.getAttribute(ADMITTED) != null) {
+            request.removeAttribute(ADMITTED);
+            limits.get(type(request, handler)).releaseWithoutSample();
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+            Exception ex) {
+        if (!(request.getAttribute(ADMITTED) instanceof Long admitted)) {
+            return;
+        }
+        request.removeAttribute(ADMITTED);
+        boolean failed = ex != null || response.getStatus() >= 500;
+        limits.get(type(request, handler)).release(System.nanoTime() - admitted, failed);
+    }
+
+    AdaptiveConcurrencyLimit limit(String type) {
+        return limits.get(type);
+    }
+
+    private static String type(HttpServletRequest request, Object handler) {
+        String method = request.getMethod();
+        boolean read = HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method)
+                || (handler instanceof HandlerMethod handlerMethod && handlerMethod.hasMethodAnnotation(ReadOnlyRequest.class));
+        return read ? "read" : "write";
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.app.config;
 
+import com.example.core.dto.ItemView;
 import com.example.core.entity.Item;
 import com.example.core.service.ItemService;
 import lombok.RequiredArgsConstructor;
@@ -8,6 +9,8 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
 
+import java.util.Set;
+
 @Configuration
 @RequiredArgsConstructor
 public class DataLoader {
@@ -19,7 +22,7 @@ public class DataLoader {
     public CommandLineRunner loadData() {
         return args -> {
             // Check if we already have data
-            if (itemService.getAllItems().isEmpty()) {
+            if (itemService.getItemPage(null, 1, Set.of(ItemView.Field.ID)).items().isEmpty()) {
                 System.out.println("Loading sample data...");
                 
                 itemService.saveItem(new Item(null, "Laptop", "High-performance laptop", 1299.99));
@@ -2,7 +2,11 @@ package com.example.app.config;
 
 import java.util.List;
 
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -14,6 +18,14 @@ import io.swagger.v3.oas.models.servers.Server;
 @Configuration
 public class OpenApiConfig {
 
+    private static final String SPRINGDOC_PACKAGE = "org.springdoc.";
+
+    // The Swagger UI beans stay eager: its resource handlers are registered at startup
+    // from settings these beans fill in when they are created.
+    private static final List<String> SWAGGER_UI_SOURCES = List.of(
+            "org.springdoc.webmvc.ui.",
+            "org.springdoc.core.configuration.SpringDocUIConfiguration");
+
     @Value("${server.servlet.context-path:}")
     private String contextPath;
 
@@ -30,4 +42,28 @@ public class OpenApiConfig {
                         new Server().url("http://localhost:8080" + contextPath)
                                 .description("Local Development Server")));
     }
-}
\ No newline at end of file
+
+    /**
+     * Defers springdoc's API description beans until {@code /api-docs} is first requested
+     * (directly or by Swagger UI), enabled with {@code item.startup.lazy-springdoc=true}.
+     * Beans that other beans need at startup are still created then.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "item.startup.lazy-springdoc", havingValue = "true")
+    public static BeanFactoryPostProcessor lazySpringdocPostProcessor() {
+        return beanFactory -> {
+            for (String name : beanFactory.getBeanDefinitionNames()) {
+                BeanDefinition definition = beanFactory.getBeanDefinition(name);
+                String source = definition.getBeanClassName();
+                if (definition instanceof AnnotatedBeanDefinition annotated
+                        && annotated.getFactoryMethodMetadata() != null) {
+                    source = annotated.getFactoryMethodMetadata().getDeclaringClassName();
+                }
+                if (source != null && source.startsWith(SPRINGDOC_PACKAGE)
+                        && SWAGGER_UI_SOURCES.stream().noneMatch(source::startsWith)) {
+                    definition.setLazyInit(true);
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.app.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a handler method that only reads although it is not mapped to {@code GET}, such
+ * as a lookup whose ids travel in a {@code POST} body. {@link ConcurrencyLimitInterceptor}
+ * counts its requests against the read limit.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ReadOnlyRequest {
+}
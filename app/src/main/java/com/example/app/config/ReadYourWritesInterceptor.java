@@ -0,0 +1,81 @@
+package com.example.app.config;
+
+import com.example.core.config.ReadYourWrites;
+import com.example.core.config.ReadYourWritesTracker;
+import com.example.core.config.ReplicaDataSourceConfig;
+import com.example.core.event.ItemChangeEvent;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.util.WebUtils;
+
+/**
+ * Carries read-your-writes across requests with replicas configured. After a request
+ * writes, the response sets a cookie with the time until which the client's reads
+ * should stay on the primary; requests that send it back are pinned to the primary
+ * until then.
+ */
+@Component
+@ConditionalOnExpression(ReplicaDataSourceConfig.REPLICAS_CONFIGURED)
+@RequiredArgsConstructor
+public class ReadYourWritesInterceptor implements AsyncHandlerInterceptor {
+
+    public static final String COOKIE_NAME = "item-primary-until";
+
+    private static final String COOKIE_SET = ReadYourWritesInterceptor.class.getName() + ".cookieSet";
+
+    private final ReadYourWritesTracker tracker;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Cookie cookie = WebUtils.getCookie(request, COOKIE_NAME);
+        if (cookie != null) {
+            try {
+                // Never honour a pin longer than this instance would have set.
+                long now = System.currentTimeMillis();
+                ReadYourWrites.pinToPrimaryUntil(Math.min(Long.parseLong(cookie.getValue()), now + tracker.windowMillis()));
+            } catch (NumberFormatException e) {
+                // Ignore a mangled cookie.
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+            Object handler) {
+        ReadYourWrites.clear();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+            Exception ex) {
+        ReadYourWrites.clear();
+    }
+
+    @TransactionalEventListener
+    public void onItemChanged(ItemChangeEvent event) {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return;
+        }
+        HttpServletRequest request = attributes.getRequest();
+        HttpServletResponse response = attributes.getResponse();
+        long until = ReadYourWrites.pinnedUntil();
+        if (response == null || response.isCommitted() || until == 0 || request.getAttribute(COOKIE_SET) != null) {
+            return;
+        }
+        Cookie cookie = new Cookie(COOKIE_NAME, String.valueOf(until));
+        cookie.setPath("/");
+        cookie.setHttpOnly(true);
+        cookie.setMaxAge((int) Math.max(1, (tracker.windowMillis() + 999) / 1000));
+        response.addCookie(cookie);
+        request.setAttribute(COOKIE_SET, Boolean.TRUE);
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.app.config;
+
+import com.example.core.metrics.JdbcMetrics;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Records the JDBC statements executed and rows read per request as
+ * {@code http.server.requests.jdbc.statements} and {@code http.server.requests.jdbc.rows},
+ * tagged like {@code http.server.requests} with the method and URI template.
+ * <p>
+ * Only work done on the request thread is counted; async responses such as
+ * {@code GET /api/items/stream} are not recorded.
+ */
+@Component
+@ConditionalOnProperty(name = "item.metrics.jdbc.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+public class RequestSqlMetricsInterceptor implements AsyncHandlerInterceptor, MeterBinder {
+
+    private final JdbcMetrics jdbcMetrics;
+
+    private volatile MeterRegistry registry;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        jdbcMetrics.startCounting();
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+            Object handler) {
+        jdbcMetrics.stopCounting();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+            Exception ex) {
+        JdbcMetrics.Counts counts = jdbcMetrics.stopCounting();
+        MeterRegistry meterRegistry = registry;
+        if (counts == null || meterRegistry == null) {
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        summary(meterRegistry, "http.server.requests.jdbc.statements", "JDBC statements executed per request",
+                request.getMethod(), uri).record(counts.statements());
+        summary(meterRegistry, "http.server.requests.jdbc.rows", "JDBC rows read per request",
+                request.getMethod(), uri).record(counts.rows());
+    }
+
+    private static DistributionSummary summary(MeterRegistry registry, String name, String description,
+            String method, String uri) {
+        return DistributionSummary.builder(name)
+                .description(description)
+                .tag("method", method)
+                .tag("uri", uri)
+                .register(registry);
+    }
+}
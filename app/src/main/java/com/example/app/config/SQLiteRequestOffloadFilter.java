@@ -0,0 +1,108 @@
+package com.example.app.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the rest of the request on a fixed pool of platform threads. Used in
+ * virtual-thread mode on SQLite, whose JDBC driver makes every native call inside a
+ * {@code synchronized} method: a virtual thread blocked in one, on disk I/O or on
+ * SQLite's busy handler, pins its carrier, and a handful of them stall every other
+ * virtual thread. The request thread parks on the result instead, which does not pin.
+ * <p>
+ * The pool has as many threads as the SQLite pools have connections, so it adds no
+ * queueing the connection pools would not. Requests beyond that wait in arrival order in
+ * a queue of {@code sqlite.request-queue-size}; once it is full a request is answered
+ * {@code 503} with {@code Retry-After} without waiting. Admission control runs on the
+ * pool thread, so it only sees requests that got past the queue.
+ * <p>
+ * Actuator endpoints and the change streams stay on the request thread: they do not
+ * wait for the database behind the queued requests, and the streams would otherwise
+ * hold a pool thread for as long as they stay open.
+ */
+public class SQLiteRequestOffloadFilter extends OncePerRequestFilter implements AutoCloseable {
+
+    private final ThreadPoolExecutor executor;
+
+    private final String retryAfterSeconds;
+
+    public SQLiteRequestOffloadFilter(int threads, int queueSize, Duration retryAfter) {
+        AtomicInteger count = new AtomicInteger();
+        this.retryAfterSeconds = String.valueOf(Math.max(1, retryAfter.toSeconds()));
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "sqlite-request-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return path.startsWith("/actuator/") || path.equals("/api/items/changes") || path.equals("/api/items/stream");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Future<Void> result;
+        try {
+            result = executor.submit(() -> {
+                chain.doFilter(request, response);
+                return null;
+            });
+        } catch (RejectedExecutionException e) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+            return;
+        }
+        try {
+            result.get();
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServletException("Interrupted while waiting for the request to finish", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof ServletException servlet) {
+                throw servlet;
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new ServletException(cause);
+        }
+    }
+
+    int queued() {
+        return executor.getQueue().size();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.app.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+
+/**
+ * Training run for the class data sharing archive built into the Docker image, enabled
+ * with {@code item.startup.training-run=true}. Once the application is ready it sends
+ * one request to each of {@code item.startup.training-paths}, so the classes that
+ * serve the first requests are archived along with the startup classes, and then
+ * shuts the application down.
+ * <p>
+ * Checked when the event arrives rather than with a bean condition, which AOT
+ * processing would fix at build time.
+ */
+@Slf4j
+@Component
+public class StartupTrainingRun {
+
+    @Value("${item.startup.training-run:false}")
+    private boolean enabled;
+
+    @Value("${item.startup.training-paths:/actuator/health}")
+    private List<String> paths;
+
+    @EventListener
+    public void onReady(ApplicationReadyEvent event) {
+        if (!enabled) {
+            return;
+        }
+        ConfigurableApplicationContext context = event.getApplicationContext();
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        HttpClient client = HttpClient.newHttpClient();
+        for (String path : paths) {
+            try {
+                HttpResponse<Void> response = client.send(
+                        HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build(),
+                        HttpResponse.BodyHandlers.discarding());
+                log.info("Training request {} returned {}", path, response.statusCode());
+            } catch (IOException e) {
+                log.warn("Training request {} failed: {}", path, e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        System.exit(SpringApplication.exit(context));
+    }
+}
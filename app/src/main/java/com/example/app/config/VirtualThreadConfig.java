@@ -0,0 +1,80 @@
+package com.example.app.config;
+
+import com.example.core.config.ItemShards;
+import com.example.core.config.SQLiteConfig;
+import org.apache.coyote.ProtocolHandler;
+import org.apache.tomcat.util.threads.VirtualThreadExecutor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.time.Duration;
+
+/**
+ * Opt-in virtual-thread request handling, enabled with
+ * {@code spring.threads.virtual.enabled=true} (the property Spring Boot 3.2 uses for
+ * the same setup, so this class can go once we upgrade). Requires Java 21.
+ * <p>
+ * Tomcat runs every request on a new virtual thread instead of its bounded worker
+ * pool. A request blocked on JDBC then parks a virtual thread rather than holding a
+ * platform thread; concurrency towards the database is bounded by the connection pools
+ * alone. Async requests such as {@code GET /api/items/stream} run on virtual threads too.
+ * <p>
+ * The SQLite driver pins virtual threads, so on SQLite the request is handed to a
+ * bounded platform pool by {@link SQLiteRequestOffloadFilter} and async requests keep
+ * Spring Boot's platform-thread task executor.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    // Matches SQLiteConfig's write pool: the transaction plus the id allocation.
+    private static final int SQLITE_WRITE_CONNECTIONS = 2;
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(new VirtualThreadExecutor("tomcat-handler-"));
+    }
+
+    @Configuration
+    @ConditionalOnExpression("!(" + SQLiteConfig.SQLITE_URL + ")")
+    static class VirtualTaskExecution {
+
+        @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+        public AsyncTaskExecutor applicationTaskExecutor() {
+            return new TaskExecutorAdapter(new VirtualThreadExecutor("task-"));
+        }
+    }
+
+    @Configuration
+    @ConditionalOnExpression(SQLiteConfig.SQLITE_URL)
+    static class SQLiteOffload {
+
+        @Bean(destroyMethod = "close")
+        public SQLiteRequestOffloadFilter sqliteRequestOffloadFilter(
+                @Value("${sqlite.read-pool-size:4}") int readPoolSize,
+                @Value("${" + ItemShards.COUNT_PROPERTY + ":1}") int shardCount,
+                @Value("${sqlite.request-queue-size:100}") int queueSize,
+                @Value("${item.concurrency.retry-after:1s}") Duration retryAfter) {
+            return new SQLiteRequestOffloadFilter((readPoolSize + SQLITE_WRITE_CONNECTIONS) * shardCount, queueSize,
+                    retryAfter);
+        }
+
+        @Bean
+        public FilterRegistrationBean<SQLiteRequestOffloadFilter> sqliteRequestOffloadFilterRegistration(
+                SQLiteRequestOffloadFilter filter) {
+            FilterRegistrationBean<SQLiteRequestOffloadFilter> registration = new FilterRegistrationBean<>(filter);
+            // First, so everything that binds state to the thread runs on the pool thread.
+            registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+            return registration;
+        }
+    }
+}
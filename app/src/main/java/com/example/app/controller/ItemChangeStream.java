@@ -0,0 +1,269 @@
+package com.example.app.controller;
+
+import com.example.core.dto.ItemChange;
+import com.example.core.dto.ItemChangeBatch;
+import com.example.core.event.ItemChangeLog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fans the {@link ItemChangeLog} out to Server-Sent Events subscribers.
+ * <p>
+ * Each subscriber keeps its own position in the log. An append only schedules a drain
+ * for each subscriber that is not already draining; the drain runs on a separate thread
+ * and sends everything from the subscriber's position onwards. A slow client therefore
+ * only holds up its own drain, and once the log has moved on past its position it is
+ * sent a {@code resync} event and disconnected.
+ * <p>
+ * Drains run on {@code item.changes.sender-threads} threads. A send that takes longer
+ * than {@code item.changes.send-timeout}, because the client stopped reading, marks the
+ * subscriber stalled: it is dropped and gets no further drains, and the pool gets an
+ * extra thread for as long as the send stays blocked, so the other subscribers keep
+ * their threads. The servlet API offers no way to abort the write; it fails once the
+ * connector's write timeout ({@code server.tomcat.connection-timeout}) expires, and the
+ * stream is then closed.
+ */
+@Slf4j
+@Component
+public class ItemChangeStream implements MeterBinder {
+
+    public static final String RESYNC_EVENT = "resync";
+
+    private static final int BATCH_SIZE = 256;
+
+    // Send start markers; System.nanoTime() returning either is not a practical concern.
+    private static final long IDLE = Long.MIN_VALUE;
+
+    private static final long STALLED = Long.MAX_VALUE;
+
+    private final ItemChangeLog changeLog;
+
+    private final long timeoutMillis;
+
+    private final long sendTimeoutNanos;
+
+    private final int senderThreads;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    // Holds at most one drain per subscriber.
+    private final ThreadPoolExecutor senders;
+
+    private final ScheduledExecutorService watchdog;
+
+    // Drains blocked in a send to a dropped subscriber, each of which has a stand-in thread.
+    private int blockedDrains;
+
+    private volatile Counter resyncs;
+
+    private volatile Counter stalls;
+
+    public ItemChangeStream(ItemChangeLog changeLog,
+            @Value("${item.changes.stream-timeout:30m}") Duration timeout,
+            @Value("${item.changes.sender-threads:4}") int senderThreads,
+            @Value("${item.changes.send-timeout:10s}") Duration sendTimeout) {
+        this.changeLog = changeLog;
+        this.timeoutMillis = timeout.toMillis();
+        this.sendTimeoutNanos = sendTimeout.toNanos();
+        this.senderThreads = senderThreads;
+        AtomicInteger threads = new AtomicInteger();
+        this.senders = new ThreadPoolExecutor(senderThreads, senderThreads, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "item-changes-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "item-changes-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long checkMillis = Math.max(1, sendTimeout.toMillis() / 2);
+        watchdog.scheduleWithFixedDelay(this::dropStalled, checkMillis, checkMillis, TimeUnit.MILLISECONDS);
+        changeLog.addListener(() -> subscribers.forEach(Subscriber::schedule));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("item.changes.subscribers", subscribers, Set::size)
+                .description("Open item change streams")
+                .register(registry);
+        resyncs = Counter.builder("item.changes.resyncs")
+                .description("Change streams closed because the client fell behind the change log")
+                .register(registry);
+        stalls = Counter.builder("item.changes.stalls")
+                .description("Change streams dropped because a send took longer than the send timeout")
+                .register(registry);
+    }
+
+    /**
+     * Opens a stream of the changes after {@code since}, or of new changes only when
+     * {@code since} is {@code null}.
+     */
+    public SseEmitter subscribe(Long since) {
+        return subscribe(since, new SseEmitter(timeoutMillis));
+    }
+
+    SseEmitter subscribe(Long since, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(emitter, since == null ? changeLog.latest() : since);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        subscriber.schedule();
+        return emitter;
+    }
+
+    @PreDestroy
+    public void close() {
+        watchdog.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        senders.shutdownNow();
+    }
+
+    void dropStalled() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            long started = subscriber.sendStarted.get();
+            if (started != IDLE && started != STALLED && now - started > sendTimeoutNanos
+                    && subscriber.sendStarted.compareAndSet(started, STALLED)) {
+                subscribers.remove(subscriber);
+                if (stalls != null) {
+                    stalls.increment();
+                }
+                log.debug("Dropped an item change stream whose send took longer than {} ms",
+                        TimeUnit.NANOSECONDS.toMillis(sendTimeoutNanos));
+                resizeSenders(1);
+            }
+        }
+    }
+
+    /**
+     * Gives the pool a thread for each drain blocked on a dropped subscriber, up to
+     * twice its configured size.
+     */
+    private synchronized void resizeSenders(int change) {
+        blockedDrains += change;
+        int size = senderThreads + Math.min(blockedDrains, senderThreads);
+        if (size > senders.getMaximumPoolSize()) {
+            senders.setMaximumPoolSize(size);
+            senders.setCorePoolSize(size);
+        } else if (size < senders.getMaximumPoolSize()) {
+            senders.setCorePoolSize(size);
+            senders.setMaximumPoolSize(size);
+        }
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        // When the send in progress started, IDLE between sends, STALLED once dropped.
+        private final AtomicLong sendStarted = new AtomicLong(IDLE);
+
+        // Only touched by the drain, which never runs twice at once.
+        private long position;
+
+        Subscriber(SseEmitter emitter, long position) {
+            this.emitter = emitter;
+            this.position = position;
+        }
+
+        void schedule() {
+            if (sendStarted.get() != STALLED && scheduled.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                while (true) {
+                    ItemChangeBatch batch = changeLog.read(position, BATCH_SIZE);
+                    if (batch.resyncRequired()) {
+                        resync(batch.latest());
+                        return;
+                    }
+                    if (batch.changes().isEmpty()) {
+                        break;
+                    }
+                    for (ItemChange change : batch.changes()) {
+                        if (!send(SseEmitter.event()
+                                .id(String.valueOf(change.seq()))
+                                .name(change.type().name().toLowerCase(Locale.ROOT))
+                                .data(change))) {
+                            // Dropped while the client was not reading; it resumes on reconnect.
+                            emitter.complete();
+                            return;
+                        }
+                        position = change.seq();
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                // The client went away; the emitter's callbacks drop the subscriber.
+                log.debug("Item change stream closed: {}", e.getMessage());
+                subscribers.remove(this);
+                return;
+            } finally {
+                if (sendStarted.get() == STALLED) {
+                    resizeSenders(-1);
+                }
+                scheduled.set(false);
+            }
+            // An append that landed after the last read but before the flag was cleared
+            // found the drain still scheduled and did not start another one.
+            ItemChangeBatch pending = changeLog.read(position, 1);
+            if (pending.resyncRequired() || !pending.changes().isEmpty()) {
+                schedule();
+            }
+        }
+
+        /**
+         * Sends the event, returning {@code false} if the subscriber was dropped as
+         * stalled while it was being sent.
+         */
+        private boolean send(SseEmitter.SseEventBuilder event) throws IOException {
+            long started = System.nanoTime();
+            sendStarted.set(started);
+            try {
+                emitter.send(event);
+            } finally {
+                // Fails if the watchdog has marked the subscriber stalled meanwhile.
+                sendStarted.compareAndSet(started, IDLE);
+            }
+            return sendStarted.get() != STALLED;
+        }
+
+        private void resync(long latest) throws IOException {
+            subscribers.remove(this);
+            if (resyncs != null) {
+                resyncs.increment();
+            }
+            send(SseEmitter.event().name(RESYNC_EVENT).data(Map.of("latest", latest)));
+            emitter.complete();
+        }
+    }
+}
@@ -1,16 +1,56 @@
 package com.example.app.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.accept.ContentNegotiationManager;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.example.app.config.ReadOnlyRequest;
+import com.example.core.dto.ItemBatchResult;
+import com.example.core.dto.ItemChange;
+import com.example.core.dto.ItemIngestStatus;
+import com.example.core.dto.ItemLookup;
+import com.example.core.dto.ItemPage;
+import com.example.core.dto.ItemPatch;
+import com.example.core.dto.ItemStats;
+import com.example.core.dto.ItemView;
 import com.example.core.entity.Item;
+import com.example.core.service.ItemBatchService;
+import com.example.core.service.ItemIngestService;
+import com.example.core.service.ItemLookupService;
 import com.example.core.service.ItemService;
+import com.example.core.stats.ItemStatistics;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -24,75 +64,322 @@ import lombok.RequiredArgsConstructor;
 @Tag(name = "Item API", description = "Operations for managing items")
 public class ItemController {
 
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
     private final ItemService itemService;
 
-    @Operation(summary = "Get all items", description = "Retrieves a list of all items")
+    private final ItemBatchService itemBatchService;
+
+    private final ItemLookupService itemLookupService;
+
+    private final ItemChangeStream itemChangeStream;
+
+    private final ObjectProvider<ItemIngestService> itemIngestService;
+
+    private final ObjectProvider<ItemStatistics> itemStatistics;
+
+    private final ObjectMapper objectMapper;
+
+    private final ContentNegotiationManager contentNegotiationManager;
+
+    // If-Match value that can never equal an item version.
+    private static final long NO_MATCH = -1;
+
+    // RFC 7240 preference for an empty success response.
+    private static final String RETURN_MINIMAL = "return=minimal";
+
+    private static final MediaType APPLICATION_SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    // The formats an item is written in, in the order Spring picks them when Accept allows several.
+    private static final List<MediaType> ITEM_FORMATS = List.of(MediaType.APPLICATION_JSON, APPLICATION_SMILE,
+            MediaType.APPLICATION_CBOR);
+
+    // Entity tag suffixes of the binary formats; a JSON tag is the bare version.
+    private static final Set<String> ETAG_SUFFIXES = Set.of("", "-smile", "-cbor");
+
+    @Operation(summary = "Get all items", description = "Retrieves a list of all items ordered by ID")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Successfully retrieved items", content = @Content(mediaType = "application/json", schema = @Schema(implementation = Item.class)))
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved items", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ItemView.class))),
+            @ApiResponse(responseCode = "304", description = "No item changed since the ETag in If-None-Match", content = @Content),
+            @ApiResponse(responseCode = "400", description = "Unknown field", content = @Content)
     })
     @GetMapping
-    public ResponseEntity<List<Item>> getAllItems() {
-        return ResponseEntity.ok(itemService.getAllItems());
+    public ResponseEntity<List<ItemView>> getAllItems(
+            @Parameter(description = "Fields to include, comma-separated from id, name, description, price and version; the id is always included. Defaults to all") @RequestParam(required = false) List<String> fields,
+            WebRequest request) {
+        return collection(request, fields, itemService::getAllItems);
+    }
+
+    @Operation(summary = "Get a page of items", description = "Retrieves items ordered by ID, starting after the given cursor")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the page", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ItemPage.class))),
+            @ApiResponse(responseCode = "304", description = "No item changed since the ETag in If-None-Match", content = @Content),
+            @ApiResponse(responseCode = "400", description = "Unknown field", content = @Content)
+    })
+    @GetMapping("/page")
+    public ResponseEntity<ItemPage> getItemPage(
+            @Parameter(description = "ID of the last item of the previous page") @RequestParam(required = false) Long after,
+            @Parameter(description = "Maximum number of items to return (capped at " + ItemService.MAX_PAGE_SIZE + ")") @RequestParam(defaultValue = "100") int limit,
+            @Parameter(description = "Fields to include, comma-separated from id, name, description, price and version; the id is always included. Defaults to all") @RequestParam(required = false) List<String> fields,
+            WebRequest request) {
+        return collection(request, fields, selected -> itemService.getItemPage(after, limit, selected));
+    }
+
+    @Operation(summary = "Stream all items", description = "Streams every item as newline-delimited JSON, one item per line")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully streamed items", content = @Content(mediaType = APPLICATION_NDJSON_VALUE, schema = @Schema(implementation = Item.class)))
+    })
+    @GetMapping(value = "/stream", produces = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamItems() {
+        ObjectWriter writer = objectMapper.writerFor(Item.class)
+                .without(SerializationFeature.INDENT_OUTPUT)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.setRootValueSeparator(null);
+                itemService.streamAllItems(item -> {
+                    try {
+                        writer.writeValue(generator, item);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE))
+                .body(body);
+    }
+
+    @Operation(summary = "Stream item changes", description = "Streams committed item changes as Server-Sent Events named created, updated, patched or deleted, "
+            + "each with its sequence number as the event ID. Resumes after the given sequence number or Last-Event-ID. "
+            + "A client that falls too far behind receives a resync event with the latest sequence number and is disconnected; it should reload the items and resume from there.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Stream of item changes", content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE, schema = @Schema(implementation = ItemChange.class)))
+    })
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(
+            @Parameter(description = "Sequence number of the last change already seen; omit to receive only new changes") @RequestParam(required = false) Long since,
+            @Parameter(description = "Set by EventSource clients when reconnecting; takes precedence over since") @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return itemChangeStream.subscribe(lastEventId != null ? lastEventId : since);
     }
 
     @Operation(summary = "Get item by ID", description = "Retrieves an item by its ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully retrieved the item", content = @Content(mediaType = "application/json", schema = @Schema(implementation = Item.class))),
+            @ApiResponse(responseCode = "304", description = "Item unchanged since the ETag in If-None-Match", content = @Content),
             @ApiResponse(responseCode = "404", description = "Item not found", content = @Content)
     })
     @GetMapping("/{id}")
     public ResponseEntity<Item> getItemById(
-            @Parameter(description = "ID of the item to retrieve", required = true) @PathVariable Long id) {
+            @Parameter(description = "ID of the item to retrieve", required = true) @PathVariable Long id,
+            NativeWebRequest request) {
+        // Spring answers If-None-Match with 304 from the ETag; served from the item cache,
+        // a match costs neither a query nor serialization.
         return itemService.getItemById(id)
-                .map(ResponseEntity::ok)
+                .map(item -> ResponseEntity.ok().eTag(eTag(item.getVersion(), request)).varyBy(HttpHeaders.ACCEPT)
+                        .body(item))
                 .orElse(ResponseEntity.notFound().build());
     }
 
-    @Operation(summary = "Search items by name", description = "Retrieves items containing the specified name")
+    @Operation(summary = "Get items by IDs", description = "Retrieves up to " + ItemService.MAX_PAGE_SIZE + " items in one request, in the order requested, and lists the IDs that matched no item")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Successfully retrieved items", content = @Content(mediaType = "application/json", schema = @Schema(implementation = Item.class)))
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the items", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ItemLookup.class))),
+            @ApiResponse(responseCode = "400", description = "More than " + ItemService.MAX_PAGE_SIZE + " IDs", content = @Content)
+    })
+    @GetMapping("/lookup")
+    public ResponseEntity<ItemLookup> getItemsById(
+            @Parameter(description = "IDs of the items to retrieve, comma-separated; duplicates are returned once", required = true) @RequestParam List<Long> ids) {
+        return lookup(ids);
+    }
+
+    @Operation(summary = "Get items by IDs from a list", description = "As GET /api/items/lookup, for ID lists too long for a query string")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the items", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ItemLookup.class))),
+            @ApiResponse(responseCode = "400", description = "More than " + ItemService.MAX_PAGE_SIZE + " IDs", content = @Content)
+    })
+    @PostMapping(value = "/lookup", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @ReadOnlyRequest
+    public ResponseEntity<ItemLookup> lookupItems(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "IDs of the items to retrieve", required = true, content = @Content(array = @ArraySchema(schema = @Schema(implementation = Long.class)))) @RequestBody List<Long> ids) {
+        return lookup(ids);
+    }
+
+    @Operation(summary = "Search items by name", description = "Retrieves items whose name contains the specified text, best matches first")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved items", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ItemView.class))),
+            @ApiResponse(responseCode = "304", description = "No item changed since the ETag in If-None-Match", content = @Content),
+            @ApiResponse(responseCode = "400", description = "Unknown field", content = @Content)
     })
     @GetMapping("/search")
-    public ResponseEntity<List<Item>> searchItems(
-            @Parameter(description = "Name to search for", required = true) @RequestParam String name) {
-        return ResponseEntity.ok(itemService.searchItemsByName(name));
+    public ResponseEntity<List<ItemView>> searchItems(
+            @Parameter(description = "Name to search for", required = true) @RequestParam String name,
+            @Parameter(description = "Only match names that start with the search text") @RequestParam(defaultValue = "false") boolean prefix,
+            @Parameter(description = "Maximum number of items to return (capped at " + ItemService.MAX_PAGE_SIZE + ")") @RequestParam(defaultValue = "100") int limit,
+            @Parameter(description = "Fields to include, comma-separated from id, name, description, price and version; the id is always included. Defaults to all") @RequestParam(required = false) List<String> fields,
+            WebRequest request) {
+        return collection(request, fields, selected -> itemService.searchItemsByName(name, prefix, limit, selected));
     }
 
-    @Operation(summary = "Find items under price", description = "Retrieves items with price less than or equal to the specified value")
+    @Operation(summary = "Find items by price", description = "Retrieves items priced within the given range, sorted by price")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Successfully retrieved items", content = @Content(mediaType = "application/json", schema = @Schema(implementation = Item.class)))
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved items", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ItemView.class))),
+            @ApiResponse(responseCode = "304", description = "No item changed since the ETag in If-None-Match", content = @Content),
+            @ApiResponse(responseCode = "400", description = "Unknown field", content = @Content)
     })
     @GetMapping("/price")
-    public ResponseEntity<List<Item>> findItemsUnderPrice(
-            @Parameter(description = "Maximum price", required = true) @RequestParam Double maxPrice) {
-        return ResponseEntity.ok(itemService.findItemsUnderPrice(maxPrice));
+    public ResponseEntity<List<ItemView>> findItemsByPrice(
+            @Parameter(description = "Minimum price (inclusive)") @RequestParam(required = false) Double minPrice,
+            @Parameter(description = "Maximum price (inclusive)") @RequestParam(required = false) Double maxPrice,
+            @Parameter(description = "Sort order by price", schema = @Schema(allowableValues = { "asc", "desc" })) @RequestParam(defaultValue = "asc") String sort,
+            @Parameter(description = "Maximum number of items to return (capped at " + ItemService.MAX_PAGE_SIZE + ")") @RequestParam(defaultValue = "100") int limit,
+            @Parameter(description = "Fields to include, comma-separated from id, name, description, price and version; the id is always included. Defaults to all") @RequestParam(required = false) List<String> fields,
+            WebRequest request) {
+        return collection(request, fields,
+                selected -> itemService.findItemsByPrice(minPrice, maxPrice, "desc".equalsIgnoreCase(sort), limit, selected));
     }
 
-    @Operation(summary = "Create a new item", description = "Creates a new item")
+    @Operation(summary = "Get catalogue statistics", description = "Item count, price range, average price and a price histogram, maintained in memory as items are written")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "201", description = "Item successfully created", content = @Content(mediaType = "application/json", schema = @Schema(implementation = Item.class)))
+            @ApiResponse(responseCode = "200", description = "Current statistics", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ItemStats.class))),
+            @ApiResponse(responseCode = "404", description = "Statistics are disabled", content = @Content),
+            @ApiResponse(responseCode = "503", description = "Statistics still loading; retry after the Retry-After header", content = @Content)
+    })
+    @GetMapping("/stats")
+    public ResponseEntity<ItemStats> getStats() {
+        ItemStatistics statistics = itemStatistics.getIfAvailable();
+        if (statistics == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return statistics.snapshot()
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build());
+    }
+
+    @Operation(summary = "Create a new item", description = "Creates a new item. With write-behind ingestion enabled, queues it instead and answers 202 with a tracking ID")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Item successfully created", content = @Content(mediaType = "application/json", schema = @Schema(implementation = Item.class))),
+            @ApiResponse(responseCode = "202", description = "Item queued for ingestion; the Location header points at its status", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ItemIngestStatus.class))),
+            @ApiResponse(responseCode = "503", description = "Ingest queue full; retry after the Retry-After header", content = @Content)
     })
     @PostMapping
-    public ResponseEntity<Item> createItem(
+    public ResponseEntity<?> createItem(
             @Parameter(description = "Item to create", required = true) @RequestBody Item item) {
-        return ResponseEntity.status(HttpStatus.CREATED).body(itemService.saveItem(item));
+        ItemIngestService ingest = itemIngestService.getIfAvailable();
+        if (ingest == null) {
+            return ResponseEntity.status(HttpStatus.CREATED).body(itemService.saveItem(item));
+        }
+        try {
+            ItemIngestStatus status = ingest.submit(item);
+            return ResponseEntity.accepted().location(URI.create("/api/items/ingest/" + status.id())).body(status);
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+        }
+    }
+
+    @Operation(summary = "Get ingestion status", description = "Reports whether an item accepted for write-behind ingestion is still queued, committed (with its item ID) or failed")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Status of the ingested item", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ItemIngestStatus.class))),
+            @ApiResponse(responseCode = "404", description = "Unknown or expired tracking ID, or ingestion is disabled", content = @Content)
+    })
+    @GetMapping("/ingest/{trackingId}")
+    public ResponseEntity<ItemIngestStatus> getIngestStatus(
+            @Parameter(description = "Tracking ID returned when the item was accepted", required = true) @PathVariable String trackingId) {
+        ItemIngestService ingest = itemIngestService.getIfAvailable();
+        if (ingest == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.of(ingest.status(trackingId));
     }
 
-    @Operation(summary = "Update an existing item", description = "Updates an item by its ID")
+    @Operation(summary = "Create items in bulk", description = "Creates items from a JSON array or newline-delimited JSON, committing them in chunks")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Per-chunk results; a failed chunk does not roll back earlier chunks", content = @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = ItemBatchResult.class))))
+    })
+    @PostMapping(value = "/batch", consumes = { MediaType.APPLICATION_JSON_VALUE, APPLICATION_NDJSON_VALUE })
+    public ResponseEntity<List<ItemBatchResult>> createItems(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Items to create", required = true, content = @Content(array = @ArraySchema(schema = @Schema(implementation = Item.class)))) InputStream body) throws IOException {
+        try (MappingIterator<Item> items = objectMapper.readerFor(Item.class).readValues(body)) {
+            return ResponseEntity.ok(itemBatchService.createItems(items));
+        }
+    }
+
+    @Operation(summary = "Update items in bulk", description = "Updates items by ID from a JSON array or newline-delimited JSON, committing them in chunks")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Per-chunk results, including IDs that matched no item", content = @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = ItemBatchResult.class))))
+    })
+    @PutMapping(value = "/batch", consumes = { MediaType.APPLICATION_JSON_VALUE, APPLICATION_NDJSON_VALUE })
+    public ResponseEntity<List<ItemBatchResult>> updateItems(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Items to update, each with its ID", required = true, content = @Content(array = @ArraySchema(schema = @Schema(implementation = Item.class)))) InputStream body) throws IOException {
+        try (MappingIterator<Item> items = objectMapper.readerFor(Item.class).readValues(body)) {
+            return ResponseEntity.ok(itemBatchService.updateItems(items));
+        }
+    }
+
+    @Operation(summary = "Delete items in bulk", description = "Deletes items by ID from a JSON array or newline-delimited JSON of IDs, committing them in chunks")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Per-chunk results with the number of deleted items", content = @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = ItemBatchResult.class))))
+    })
+    @DeleteMapping(value = "/batch", consumes = { MediaType.APPLICATION_JSON_VALUE, APPLICATION_NDJSON_VALUE })
+    public ResponseEntity<List<ItemBatchResult>> deleteItems(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "IDs of the items to delete", required = true, content = @Content(array = @ArraySchema(schema = @Schema(implementation = Long.class)))) InputStream body) throws IOException {
+        try (MappingIterator<Long> ids = objectMapper.readerFor(Long.class).readValues(body)) {
+            return ResponseEntity.ok(itemBatchService.deleteItems(ids));
+        }
+    }
+
+    @Operation(summary = "Update an existing item", description = "Replaces the name, description and price of an item by its ID in a single statement; with If-Match, only if the item still has that ETag")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Item successfully updated", content = @Content(mediaType = "application/json", schema = @Schema(implementation = Item.class))),
-            @ApiResponse(responseCode = "404", description = "Item not found", content = @Content)
+            @ApiResponse(responseCode = "204", description = "Item successfully updated and Prefer: return=minimal was sent; the ETag header carries the new version"),
+            @ApiResponse(responseCode = "404", description = "Item not found", content = @Content),
+            @ApiResponse(responseCode = "412", description = "Item changed since the ETag in If-Match", content = @Content)
     })
     @PutMapping("/{id}")
     public ResponseEntity<Item> updateItem(
             @Parameter(description = "ID of the item to update", required = true) @PathVariable Long id,
-            @Parameter(description = "Updated item details", required = true) @RequestBody Item item) {
-        return itemService.getItemById(id)
-                .map(existingItem -> {
-                    item.setId(id);
-                    return ResponseEntity.ok(itemService.saveItem(item));
-                })
-                .orElse(ResponseEntity.notFound().build());
+            @Parameter(description = "Updated item details", required = true) @RequestBody Item item,
+            @Parameter(description = "ETag the item must still have") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @Parameter(description = "return=minimal to answer 204 without a body") @RequestHeader(value = "Prefer", required = false) String prefer,
+            NativeWebRequest request) {
+        try {
+            return itemService.updateItem(id, item, expectedVersion(id, ifMatch))
+                    .map(updated -> prefersMinimal(prefer)
+                            ? ResponseEntity.noContent().eTag(eTag(updated.getVersion(), request))
+                                    .header("Preference-Applied", RETURN_MINIMAL).<Item>build()
+                            : ResponseEntity.ok().eTag(eTag(updated.getVersion(), request)).varyBy(HttpHeaders.ACCEPT)
+                                    .body(updated))
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
+    }
+
+    @Operation(summary = "Partially update an item", description = "Sets only the fields present in the body, leaving the others unchanged; with If-Match, only if the item still has that ETag")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Item successfully updated; the ETag header carries the new version"),
+            @ApiResponse(responseCode = "400", description = "The body sets no field", content = @Content),
+            @ApiResponse(responseCode = "404", description = "Item not found", content = @Content),
+            @ApiResponse(responseCode = "412", description = "Item changed since the ETag in If-Match", content = @Content)
+    })
+    @PatchMapping(value = "/{id}", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Void> patchItem(
+            @Parameter(description = "ID of the item to update", required = true) @PathVariable Long id,
+            @Parameter(description = "Fields to change; absent or null fields are left as they are", required = true) @RequestBody ItemPatch patch,
+            @Parameter(description = "ETag the item must still have") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            NativeWebRequest request) {
+        if (patch.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return itemService.patchItem(id, patch, expectedVersion(id, ifMatch))
+                    .map(version -> ResponseEntity.noContent().eTag(eTag(version, request)).varyBy(HttpHeaders.ACCEPT)
+                            .<Void>build())
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
     }
 
     @Operation(summary = "Delete an item", description = "Deletes an item by its ID")
@@ -103,10 +390,120 @@ public class ItemController {
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteItem(
             @Parameter(description = "ID of the item to delete", required = true) @PathVariable Long id) {
-        if (itemService.getItemById(id).isPresent()) {
-            itemService.deleteItem(id);
+        if (itemService.deleteItem(id) > 0) {
             return ResponseEntity.noContent().build();
         }
         return ResponseEntity.notFound().build();
     }
-}
\ No newline at end of file
+
+    private ResponseEntity<ItemLookup> lookup(List<Long> ids) {
+        if (ids.size() > ItemService.MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(itemLookupService.getItemsById(ids));
+    }
+
+    /**
+     * Answers 400 for an unknown field name, and 304 if the client's ETag still matches
+     * the item change count, without loading the collection. The count is read before
+     * the body, so a write that lands in between leaves the ETag older than the body
+     * rather than newer. The ETag is weak because the same count stands for every
+     * format, field selection and content coding of the collection; Tomcat also leaves
+     * responses with a strong ETag uncompressed.
+     */
+    private <T> ResponseEntity<T> collection(WebRequest request, List<String> fieldNames,
+            Function<Set<ItemView.Field>, T> body) {
+        Set<ItemView.Field> fields;
+        try {
+            fields = fieldNames == null ? ItemView.Field.ALL : ItemView.Field.parse(fieldNames);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        String eTag = "W/\"" + itemService.getChangeCount() + "\"";
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(body.apply(fields));
+    }
+
+    // A strong ETag promises identical bytes, so the version's tag names the format the
+    // request negotiates: the bare version for JSON, suffixed for Smile and CBOR.
+    private String eTag(long version, NativeWebRequest request) {
+        String suffix = switch (negotiatedFormat(request).getSubtype()) {
+            case "x-jackson-smile" -> "-smile";
+            case "cbor" -> "-cbor";
+            default -> "";
+        };
+        return "\"" + version + suffix + "\"";
+    }
+
+    // The item format Spring's content negotiation will pick for the request's Accept.
+    private MediaType negotiatedFormat(NativeWebRequest request) {
+        List<MediaType> accepted;
+        try {
+            accepted = contentNegotiationManager.resolveMediaTypes(request);
+        } catch (HttpMediaTypeNotAcceptableException e) {
+            return MediaType.APPLICATION_JSON;
+        }
+        List<MediaType> compatible = new ArrayList<>();
+        for (MediaType acceptable : accepted) {
+            for (MediaType format : ITEM_FORMATS) {
+                if (acceptable.isCompatibleWith(format)) {
+                    compatible.add(format.copyQualityValue(acceptable));
+                }
+            }
+        }
+        MimeTypeUtils.sortBySpecificity(compatible);
+        return compatible.isEmpty() ? MediaType.APPLICATION_JSON : compatible.get(0);
+    }
+
+    // Whether any of the comma-separated preferences in Prefer asks for return=minimal.
+    private static boolean prefersMinimal(String prefer) {
+        if (prefer == null) {
+            return false;
+        }
+        for (String preference : prefer.split(",")) {
+            if (preference.trim().equalsIgnoreCase(RETURN_MINIMAL)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // The version the update must find, or null for an unconditional one. Only strong
+    // tags count. When If-Match lists several versions, the item's current version is
+    // read first and expected if it is among them; the update still checks it.
+    private Long expectedVersion(Long id, String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        Set<Long> versions = new HashSet<>();
+        for (String tag : ifMatch.split(",")) {
+            Long version = taggedVersion(tag.trim());
+            if (version != null) {
+                versions.add(version);
+            }
+        }
+        if (versions.size() <= 1) {
+            return versions.isEmpty() ? NO_MATCH : versions.iterator().next();
+        }
+        return itemService.getVersion(id).filter(versions::contains).orElse(NO_MATCH);
+    }
+
+    // The item version a strong entity tag names, or null for weak and malformed tags.
+    private static Long taggedVersion(String tag) {
+        if (tag.length() < 2 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            return null;
+        }
+        String value = tag.substring(1, tag.length() - 1);
+        int dash = value.indexOf('-');
+        if (dash >= 0 && !ETAG_SUFFIXES.contains(value.substring(dash))) {
+            return null;
+        }
+        try {
+            return Long.parseLong(dash < 0 ? value : value.substring(0, dash));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.app.controller;
+
+import com.example.core.service.ItemIngestService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code itemIngest} in {@code /actuator/health}: down once the write-behind writer has
+ * stopped, since the instance then refuses every {@code POST /api/items} and needs a
+ * restart. Reports the queue depth either way.
+ */
+@Component
+@ConditionalOnProperty(name = "item.ingest.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class ItemIngestHealthIndicator implements HealthIndicator {
+
+    private final ItemIngestService itemIngestService;
+
+    @Override
+    public Health health() {
+        Health.Builder health = itemIngestService.writerFailure()
+                .map(failure -> Health.down().withDetail("error", failure.toString()))
+                .orElseGet(Health::up);
+        return health.withDetail("accepting", itemIngestService.isAccepting())
+                .withDetail("queueDepth", itemIngestService.queueDepth())
+                .build();
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.app.controller;
+
+import com.example.core.dto.ItemSnapshot;
+import com.example.core.snapshot.ItemSnapshotImportException;
+import com.example.core.snapshot.ItemSnapshotService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.util.List;
+
+/**
+ * {@code /actuator/itemsnapshots}: binary snapshots of the item table kept on the
+ * server, for backups and for seeding new environments.
+ * <ul>
+ * <li>{@code GET /actuator/itemsnapshots} lists them</li>
+ * <li>{@code GET /actuator/itemsnapshots/{name}} downloads one</li>
+ * <li>{@code POST /actuator/itemsnapshots/{name}} with {@code {"operation": "export"}}
+ * writes the items to it, with {@code {"operation": "import"}} inserts its items</li>
+ * <li>{@code DELETE /actuator/itemsnapshots/{name}} removes one</li>
+ * </ul>
+ */
+@Component
+@WebEndpoint(id = "itemsnapshots")
+@RequiredArgsConstructor
+public class ItemSnapshotEndpoint {
+
+    private static final int STATUS_CONFLICT = 409;
+
+    private static final int STATUS_INTERNAL_SERVER_ERROR = 500;
+
+    private final ItemSnapshotService itemSnapshotService;
+
+    @ReadOperation
+    public List<ItemSnapshot> snapshots() throws IOException {
+        return itemSnapshotService.list();
+    }
+
+    @ReadOperation(produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public WebEndpointResponse<Resource> download(@Selector String name) {
+        try {
+            return itemSnapshotService.find(name)
+                    .map(file -> new WebEndpointResponse<Resource>(new FileSystemResource(file)))
+                    .orElseGet(() -> new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND));
+        } catch (IllegalArgumentException e) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+    }
+
+    @WriteOperation
+    public WebEndpointResponse<Object> run(@Selector String name, String operation) throws IOException {
+        try {
+            ItemSnapshot snapshot = switch (operation) {
+                case "export" -> itemSnapshotService.export(name);
+                case "import" -> itemSnapshotService.importSnapshot(name);
+                default -> throw new IllegalArgumentException("Operation must be export or import");
+            };
+            return new WebEndpointResponse<>(snapshot);
+        } catch (NoSuchFileException e) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        } catch (IllegalArgumentException e) {
+            return new WebEndpointResponse<>(e.getMessage(), WebEndpointResponse.STATUS_BAD_REQUEST);
+        } catch (IllegalStateException e) {
+            return new WebEndpointResponse<>(e.getMessage(), STATUS_CONFLICT);
+        } catch (ItemSnapshotImportException e) {
+            return new WebEndpointResponse<>(e.getMessage(), STATUS_INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @DeleteOperation
+    public WebEndpointResponse<Void> delete(@Selector String name) throws IOException {
+        try {
+            boolean deleted = itemSnapshotService.delete(name);
+            return new WebEndpointResponse<>(deleted ? WebEndpointResponse.STATUS_NO_CONTENT
+                    : WebEndpointResponse.STATUS_NOT_FOUND);
+        } catch (IllegalArgumentException e) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.app.controller;
+
+import com.example.core.metrics.StatementProfiler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * {@code /actuator/statements}: the SQL statements the application spent most time in,
+ * grouped by fingerprint, from the {@link StatementProfiler}.
+ * <ul>
+ * <li>{@code GET /actuator/statements?limit={n}&sort={total|max}} lists the top {@code n}
+ * (default 10) by total time or by slowest single execution</li>
+ * <li>{@code DELETE /actuator/statements} starts over, unless
+ * {@code item.metrics.jdbc.statements-reset-enabled=false} (as in prod, where the
+ * actuator endpoints are not authenticated)</li>
+ * </ul>
+ */
+@Component
+@Endpoint(id = "statements")
+public class StatementProfileEndpoint {
+
+    private static final int DEFAULT_LIMIT = 10;
+
+    private static final int STATUS_FORBIDDEN = 403;
+
+    private final StatementProfiler statementProfiler;
+
+    private final boolean resetEnabled;
+
+    public StatementProfileEndpoint(StatementProfiler statementProfiler,
+            @Value("${item.metrics.jdbc.statements-reset-enabled:true}") boolean resetEnabled) {
+        this.statementProfiler = statementProfiler;
+        this.resetEnabled = resetEnabled;
+    }
+
+    @ReadOperation
+    public WebEndpointResponse<List<StatementProfiler.Summary>> slowest(@Nullable Integer limit,
+            @Nullable String sort) {
+        boolean byMax = "max".equals(sort);
+        if ((sort != null && !byMax && !"total".equals(sort)) || (limit != null && limit < 1)) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+        return new WebEndpointResponse<>(statementProfiler.slowest(limit == null ? DEFAULT_LIMIT : limit, byMax));
+    }
+
+    @DeleteOperation
+    public WebEndpointResponse<Void> reset() {
+        if (!resetEnabled) {
+            return new WebEndpointResponse<>(STATUS_FORBIDDEN);
+        }
+        statementProfiler.reset();
+        return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NO_CONTENT);
+    }
+}
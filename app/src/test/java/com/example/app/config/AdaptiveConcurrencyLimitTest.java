@@ -0,0 +1,128 @@
+package com.example.app.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdaptiveConcurrencyLimitTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void tryAcquire_AtLimit_ShouldRejectUntilReleased() {
+        // Arrange
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 10, clock::get);
+        assertTrue(limit.tryAcquire());
+        assertTrue(limit.tryAcquire());
+
+        // Act
+        boolean overLimit = limit.tryAcquire();
+        limit.release(millis(10), false);
+        boolean afterRelease = limit.tryAcquire();
+
+        // Assert
+        assertFalse(overLimit);
+        assertTrue(afterRelease);
+        assertEquals(2, limit.getInFlight());
+    }
+
+    @Test
+    void release_WithSteadyLatencyAtFullUse_ShouldRaiseLimit() {
+        // Arrange
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 1, 200, clock::get);
+
+        // Act
+        for (int i = 0; i < 10; i++) {
+            fullWindow(limit, 10, false);
+        }
+
+        // Assert
+        assertTrue(limit.getLimit() > 20, "limit was " + limit.getLimit());
+    }
+
+    @Test
+    void release_WhenLatencyRises_ShouldLowerLimit() {
+        // Arrange
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 1, 200, clock::get);
+        for (int i = 0; i < 5; i++) {
+            fullWindow(limit, 10, false);
+        }
+        int before = limit.getLimit();
+
+        // Act
+        for (int i = 0; i < 5; i++) {
+            fullWindow(limit, 60, false);
+        }
+
+        // Assert
+        assertTrue(limit.getLimit() < before, "limit went from " + before + " to " + limit.getLimit());
+    }
+
+    @Test
+    void release_WhenRequestsFail_ShouldBackOff() {
+        // Arrange
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 1, 200, clock::get);
+
+        // Act
+        fullWindow(limit, 10, true);
+
+        // Assert
+        assertEquals(18, limit.getLimit());
+    }
+
+    @Test
+    void release_WhenLittleOfLimitIsUsed_ShouldKeepLimit() {
+        // Arrange
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(40, 1, 200, clock::get);
+
+        // Act: one request at a time, slow or fast
+        for (int i = 0; i < 5; i++) {
+            clock.addAndGet(AdaptiveConcurrencyLimit.WINDOW_NANOS);
+            for (int j = 0; j < AdaptiveConcurrencyLimit.WINDOW_MIN_SAMPLES; j++) {
+                assertTrue(limit.tryAcquire());
+                limit.release(millis(i % 2 == 0 ? 10 : 100), false);
+            }
+        }
+
+        // Assert
+        assertEquals(40, limit.getLimit());
+    }
+
+    @Test
+    void release_ShouldStayWithinMinAndMax() {
+        // Arrange
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 15, 25, clock::get);
+
+        // Act
+        for (int i = 0; i < 20; i++) {
+            fullWindow(limit, 10, false);
+        }
+        int raised = limit.getLimit();
+        for (int i = 0; i < 20; i++) {
+            fullWindow(limit, 10, true);
+        }
+
+        // Assert
+        assertEquals(25, raised);
+        assertEquals(15, limit.getLimit());
+    }
+
+    // Fills the limit, then completes every request after the window has elapsed.
+    private void fullWindow(AdaptiveConcurrencyLimit limit, long latencyMillis, boolean failed) {
+        int admitted = 0;
+        while (limit.tryAcquire()) {
+            admitted++;
+        }
+        clock.addAndGet(AdaptiveConcurrencyLimit.WINDOW_NANOS);
+        for (int i = 0; i < admitted; i++) {
+            limit.release(millis(latencyMillis), failed && i == 0);
+        }
+    }
+
+    private static long millis(long millis) {
+        return TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.app.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrencyLimitInterceptorTest {
+
+    private ConcurrencyLimitInterceptor interceptor;
+
+    private MeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        // One read and one write at a time.
+        interceptor = new ConcurrencyLimitInterceptor(1, 1, 1, 1, 1, 1, Duration.ofSeconds(2));
+        registry = new SimpleMeterRegistry();
+        interceptor.bindTo(registry);
+    }
+
+    @Test
+    void preHandle_OverLimit_ShouldAnswer503WithRetryAfter() {
+        // Arrange
+        assertTrue(interceptor.preHandle(request("GET"), new MockHttpServletResponse(), null));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        boolean admitted = interceptor.preHandle(request("GET"), response, null);
+
+        // Assert
+        assertFalse(admitted);
+        assertEquals(503, response.getStatus());
+        assertEquals("2", response.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(1.0, registry.get("item.concurrency.rejected").tag("type", "read").counter().count());
+        assertEquals(1.0, registry.get("item.concurrency.limit").tag("type", "read").gauge().value());
+    }
+
+    @Test
+    void preHandle_WithReadsAtLimit_ShouldStillAdmitWrites() {
+        // Arrange
+        assertTrue(interceptor.preHandle(request("GET"), new MockHttpServletResponse(), null));
+
+        // Act
+        boolean admitted = interceptor.preHandle(request("DELETE"), new MockHttpServletResponse(), null);
+
+        // Assert
+        assertTrue(admitted);
+        assertEquals(1, interceptor.limit("write").getInFlight());
+    }
+
+    @Test
+    void afterCompletion_ShouldReleaseSlot() {
+        // Arrange
+        MockHttpServletRequest request = request("PUT");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertTrue(interceptor.preHandle(request, response, null));
+
+        // Act
+        interceptor.afterCompletion(request, response, null, null);
+
+        // Assert
+        assertEquals(0, interceptor.limit("write").getInFlight());
+        assertTrue(interceptor.preHandle(request("POST"), new MockHttpServletResponse(), null));
+    }
+
+    @Test
+    void preHandle_ReadOnlyPost_ShouldTakeReadSlot() throws NoSuchMethodException {
+        // Arrange
+        assertTrue(interceptor.preHandle(request("DELETE"), new MockHttpServletResponse(), null));
+        HandlerMethod lookup = new HandlerMethod(new Handlers(), Handlers.class.getMethod("lookup"));
+        MockHttpServletRequest request = request("POST");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        boolean admitted = interceptor.preHandle(request, response, lookup);
+
+        // Assert
+        assertTrue(admitted);
+        assertEquals(1, interceptor.limit("read").getInFlight());
+        interceptor.afterCompletion(request, response, lookup, null);
+        assertEquals(0, interceptor.limit("read").getInFlight());
+        assertEquals(1, interceptor.limit("write").getInFlight());
+    }
+
+    private static MockHttpServletRequest request(String method) {
+        return new MockHttpServletRequest(method, "/api/items");
+    }
+
+    static class Handlers {
+
+        @ReadOnlyRequest
+        public void lookup() {
+        }
+    }
+}
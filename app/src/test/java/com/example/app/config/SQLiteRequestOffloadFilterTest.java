@@ -0,0 +1,115 @@
+package com.example.app.config;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SQLiteRequestOffloadFilterTest {
+
+    private final SQLiteRequestOffloadFilter filter = new SQLiteRequestOffloadFilter(1, 1, Duration.ofSeconds(2));
+
+    @AfterEach
+    void tearDown() {
+        filter.close();
+    }
+
+    @Test
+    void doFilter_ShouldRunChainOnPoolThread() throws Exception {
+        // Arrange
+        AtomicReference<String> thread = new AtomicReference<>();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = (req, res) -> {
+            thread.set(Thread.currentThread().getName());
+            ((MockHttpServletResponse) res).setStatus(201);
+        };
+
+        // Act
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/items"), response, chain);
+
+        // Assert
+        assertEquals("sqlite-request-1", thread.get());
+        assertEquals(201, response.getStatus());
+    }
+
+    @Test
+    void doFilter_WhenChainThrows_ShouldRethrowOnRequestThread() {
+        // Arrange
+        FilterChain chain = (req, res) -> {
+            throw new IOException("client went away");
+        };
+
+        // Act & Assert
+        IOException thrown = assertThrows(IOException.class, () -> filter.doFilter(
+                new MockHttpServletRequest("GET", "/api/items"), new MockHttpServletResponse(), chain));
+        assertEquals("client went away", thrown.getMessage());
+    }
+
+    @Test
+    void doFilter_WhenQueueFull_ShouldAnswerServiceUnavailable() throws Exception {
+        // Arrange
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain blocking = (req, res) -> {
+            running.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        ExecutorService clients = Executors.newFixedThreadPool(2);
+        try {
+            // One request holds the only pool thread, the next one the only queue slot.
+            clients.submit(() -> {
+                filter.doFilter(new MockHttpServletRequest("GET", "/api/items"), new MockHttpServletResponse(), blocking);
+                return null;
+            });
+            assertTrue(running.await(5, TimeUnit.SECONDS));
+            clients.submit(() -> {
+                filter.doFilter(new MockHttpServletRequest("GET", "/api/items"), new MockHttpServletResponse(), blocking);
+                return null;
+            });
+            while (filter.queued() == 0) {
+                Thread.sleep(10);
+            }
+            MockHttpServletResponse response = new MockHttpServletResponse();
+
+            // Act
+            filter.doFilter(new MockHttpServletRequest("GET", "/api/items"), response, blocking);
+
+            // Assert
+            assertEquals(503, response.getStatus());
+            assertEquals("2", response.getHeader("Retry-After"));
+        } finally {
+            release.countDown();
+            clients.shutdown();
+        }
+    }
+
+    @Test
+    void doFilter_ForActuatorAndStreams_ShouldStayOnRequestThread() throws Exception {
+        // Arrange
+        AtomicReference<String> thread = new AtomicReference<>();
+        FilterChain chain = (req, res) -> thread.set(Thread.currentThread().getName());
+
+        for (String path : new String[] { "/actuator/health", "/api/items/changes", "/api/items/stream" }) {
+            // Act
+            filter.doFilter(new MockHttpServletRequest("GET", path), new MockHttpServletResponse(), chain);
+
+            // Assert
+            assertEquals(Thread.currentThread().getName(), thread.get(), path);
+        }
+    }
+}
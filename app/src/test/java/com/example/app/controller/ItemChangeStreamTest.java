@@ -0,0 +1,110 @@
+package com.example.app.controller;
+
+import com.example.core.entity.Item;
+import com.example.core.event.ItemChangeEvent;
+import com.example.core.event.ItemChangeLog;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ItemChangeStreamTest {
+
+    private final ItemChangeLog changeLog = new ItemChangeLog(16);
+
+    // One sender thread, so a blocked send would hold up every other stream.
+    private final ItemChangeStream stream = new ItemChangeStream(changeLog, Duration.ofMinutes(1), 1,
+            Duration.ofMillis(50));
+
+    @AfterEach
+    void tearDown() {
+        stream.close();
+    }
+
+    @Test
+    void subscribe_ShouldSendChangesAfterSince() throws Exception {
+        // Arrange
+        long since = changeLog.latest();
+        changeLog.append(ItemChangeEvent.created(new Item(1L, "First", "", 1.0)));
+        RecordingEmitter emitter = new RecordingEmitter(null);
+
+        // Act
+        stream.subscribe(since, emitter);
+        changeLog.append(ItemChangeEvent.deleted(1L));
+
+        // Assert
+        assertTrue(emitter.awaitSent(2));
+    }
+
+    @Test
+    void dropStalled_WhenSendBlocks_ShouldDropClientAndKeepServingOthers() throws Exception {
+        // Arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        stream.bindTo(registry);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter stalled = new RecordingEmitter(release);
+        RecordingEmitter reading = new RecordingEmitter(null);
+        long since = changeLog.latest();
+        stream.subscribe(null, stalled);
+        changeLog.append(ItemChangeEvent.created(new Item(1L, "First", "", 1.0)));
+        assertTrue(stalled.awaitSent(1));
+
+        // Act
+        stream.subscribe(since, reading);
+
+        // Assert
+        assertTrue(reading.awaitSent(1));
+        assertEquals(1.0, registry.counter("item.changes.stalls").count());
+        release.countDown();
+        assertTrue(stalled.completed.await(5, TimeUnit.SECONDS));
+        changeLog.append(ItemChangeEvent.deleted(1L));
+        assertTrue(reading.awaitSent(2));
+        assertEquals(1, stalled.sent.get());
+    }
+
+    private static final class RecordingEmitter extends SseEmitter {
+
+        private final CountDownLatch release;
+
+        private final AtomicInteger sent = new AtomicInteger();
+
+        private final CountDownLatch completed = new CountDownLatch(1);
+
+        RecordingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            sent.incrementAndGet();
+            if (release != null) {
+                try {
+                    // Stands in for a client that stopped reading.
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed.countDown();
+        }
+
+        boolean awaitSent(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (sent.get() < count && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            return sent.get() >= count;
+        }
+    }
+}
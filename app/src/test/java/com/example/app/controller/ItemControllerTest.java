@@ -1,26 +1,60 @@
 package com.example.app.controller;
 
+import com.example.app.config.JacksonConfig;
+import com.example.core.dto.ItemBatchResult;
+import com.example.core.dto.ItemLookup;
+import com.example.core.dto.ItemPage;
+import com.example.core.dto.ItemPatch;
+import com.example.core.dto.ItemStats;
+import com.example.core.dto.ItemView;
 import com.example.core.entity.Item;
+import com.example.core.service.ItemBatchService;
+import com.example.core.service.ItemLookupService;
 import com.example.core.service.ItemService;
+import com.example.core.stats.ItemStatistics;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.flyway.FlywayAutoConfiguration;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(ItemController.class)
+@Import(JacksonConfig.class)
+// The core beans run against a real SQLite database, whose schema comes from the migrations.
+@ImportAutoConfiguration(FlywayAutoConfiguration.class)
 public class ItemControllerTest {
 
     @Autowired
@@ -32,19 +66,37 @@ public class ItemControllerTest {
     @MockBean
     private ItemService itemService;
 
+    @MockBean
+    private ItemBatchService itemBatchService;
+
+    @MockBean
+    private ItemLookupService itemLookupService;
+
+    @MockBean
+    private ItemChangeStream itemChangeStream;
+
+    @MockBean
+    private ItemStatistics itemStatistics;
+
+    private static final Set<ItemView.Field> ALL = ItemView.Field.ALL;
+
     private Item item1;
     private Item item2;
+    private ItemView view1;
+    private ItemView view2;
 
     @BeforeEach
     void setUp() {
         item1 = new Item(1L, "Test Item 1", "Description 1", 10.0);
         item2 = new Item(2L, "Test Item 2", "Description 2", 20.0);
+        view1 = new ItemView(1L, "Test Item 1", "Description 1", 10.0, 0L);
+        view2 = new ItemView(2L, "Test Item 2", "Description 2", 20.0, 0L);
     }
 
     @Test
     void getAllItems_ShouldReturnAllItems() throws Exception {
         // Arrange
-        when(itemService.getAllItems()).thenReturn(Arrays.asList(item1, item2));
+        when(itemService.getAllItems(ALL)).thenReturn(Arrays.asList(view1, view2));
 
         // Act & Assert
         mockMvc.perform(get("/api/items"))
@@ -53,7 +105,152 @@ public class ItemControllerTest {
                 .andExpect(jsonPath("$[0].name", is("Test Item 1")))
                 .andExpect(jsonPath("$[1].name", is("Test Item 2")));
 
-        verify(itemService, times(1)).getAllItems();
+        verify(itemService, times(1)).getAllItems(ALL);
+    }
+
+    @Test
+    void getAllItems_WithSmileAccept_ShouldReturnSmile() throws Exception {
+        // Arrange
+        when(itemService.getAllItems(ALL)).thenReturn(Arrays.asList(view1, view2));
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/api/items").accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-jackson-smile"))
+                .andReturn();
+
+        // Assert
+        JsonNode items = new SmileMapper().readTree(result.getResponse().getContentAsByteArray());
+        assertEquals(2, items.size());
+        assertEquals("Test Item 2", items.get(1).get("name").asText());
+    }
+
+    @Test
+    void getItemPage_WithCborAccept_ShouldReturnCborWithoutNullItemFields() throws Exception {
+        // Arrange
+        ItemView undescribed = new ItemView(1L, "Test Item 1", null, 10.0, 0L);
+        when(itemService.getItemPage(null, 100, ALL)).thenReturn(new ItemPage(List.of(undescribed), null));
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/api/items/page").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn();
+
+        // Assert
+        JsonNode page = new CBORMapper().readTree(result.getResponse().getContentAsByteArray());
+        assertEquals(1L, page.get("items").get(0).get("id").asLong());
+        assertEquals(10.0, page.get("items").get(0).get("price").asDouble());
+        assertFalse(page.get("items").get(0).has("description"));
+        assertTrue(page.get("nextCursor").isNull());
+    }
+
+    @Test
+    void getAllItems_WithCurrentETag_ShouldReturnNotModifiedWithoutLoadingItems() throws Exception {
+        // Arrange
+        when(itemService.getChangeCount()).thenReturn(42L);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/items").header(HttpHeaders.IF_NONE_MATCH, "\"42\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"42\""))
+                .andExpect(content().string(""));
+
+        verify(itemService, never()).getAllItems(any());
+    }
+
+    @Test
+    void getAllItems_WithStaleETag_ShouldReturnItemsAndCurrentETag() throws Exception {
+        // Arrange
+        when(itemService.getChangeCount()).thenReturn(43L);
+        when(itemService.getAllItems(ALL)).thenReturn(List.of(view1));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/items").header(HttpHeaders.IF_NONE_MATCH, "\"42\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"43\""))
+                .andExpect(header().string(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT)))
+                .andExpect(jsonPath("$", hasSize(1)));
+    }
+
+    @Test
+    void getItemPage_ShouldReturnItemsAndNextCursor() throws Exception {
+        // Arrange
+        when(itemService.getItemPage(1L, 2, ALL)).thenReturn(new ItemPage(List.of(view2), 2L));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/items/page").param("after", "1").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].id", is(2)))
+                .andExpect(jsonPath("$.nextCursor", is(2)));
+
+        verify(itemService, times(1)).getItemPage(1L, 2, ALL);
+    }
+
+    @Test
+    void getItemPage_WithoutCursor_ShouldUseDefaults() throws Exception {
+        // Arrange
+        when(itemService.getItemPage(null, 100, ALL)).thenReturn(new ItemPage(List.of(view1, view2), null));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/items/page"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(2)))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        verify(itemService, times(1)).getItemPage(null, 100, ALL);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void streamItems_ShouldWriteOneJsonObjectPerLine() throws Exception {
+        // Arrange
+        doAnswer(invocation -> {
+            Consumer<Item> consumer = invocation.getArgument(0);
+            consumer.accept(item1);
+            consumer.accept(item2);
+            return null;
+        }).when(itemService).streamAllItems(any(Consumer.class));
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/api/items/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(ItemController.APPLICATION_NDJSON_VALUE))
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("Test Item 1", objectMapper.readValue(lines[0], Item.class).getName());
+        assertEquals("Test Item 2", objectMapper.readValue(lines[1], Item.class).getName());
+    }
+
+    @Test
+    void streamChanges_ShouldResumeAfterSince() throws Exception {
+        // Arrange
+        when(itemChangeStream.subscribe(41L)).thenReturn(new SseEmitter());
+
+        // Act & Assert
+        mockMvc.perform(get("/api/items/changes").param("since", "41"))
+                .andExpect(request().asyncStarted());
+
+        verify(itemChangeStream, times(1)).subscribe(41L);
+    }
+
+    @Test
+    void streamChanges_WithLastEventId_ShouldPreferIt() throws Exception {
+        // Arrange
+        when(itemChangeStream.subscribe(50L)).thenReturn(new SseEmitter());
+
+        // Act & Assert
+        mockMvc.perform(get("/api/items/changes").param("since", "41").header("Last-Event-ID", "50"))
+                .andExpect(request().asyncStarted());
+
+        verify(itemChangeStream, times(1)).subscribe(50L);
     }
 
     @Test
@@ -72,6 +269,74 @@ public class ItemControllerTest {
         verify(itemService, times(1)).getItemById(1L);
     }
 
+    @Test
+    void getItemById_ShouldReturnVersionAsETag() throws Exception {
+        // Arrange
+        item1.setVersion(3);
+        when(itemService.getItemById(1L)).thenReturn(Optional.of(item1));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/items/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(jsonPath("$.version", is(3)));
+    }
+
+    @Test
+    void getItemById_WithCurrentETag_ShouldReturnNotModified() throws Exception {
+        // Arrange
+        item1.setVersion(3);
+        when(itemService.getItemById(1L)).thenReturn(Optional.of(item1));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/items/1").header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void getItemById_WithSmileAccept_ShouldTagSmileRepresentation() throws Exception {
+        // Arrange
+        item1.setVersion(3);
+        when(itemService.getItemById(1L)).thenReturn(Optional.of(item1));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/items/1").accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3-smile\""))
+                .andExpect(content().contentType("application/x-jackson-smile"));
+    }
+
+    @Test
+    void getItemById_WithJsonETagAndCborAccept_ShouldReturnItem() throws Exception {
+        // Arrange
+        item1.setVersion(3);
+        when(itemService.getItemById(1L)).thenReturn(Optional.of(item1));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/items/1").accept(MediaType.APPLICATION_CBOR)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3-cbor\""))
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR));
+    }
+
+    @Test
+    void updateItem_WithIfMatchOfBinaryFormat_ShouldCompareVersion() throws Exception {
+        // Arrange
+        Item updatedItem = new Item(1L, "Updated Item", "Updated Description", 15.0);
+        when(itemService.updateItem(eq(1L), any(Item.class), eq(4L)))
+                .thenReturn(Optional.of(new Item(1L, "Updated Item", "Updated Description", 15.0, 5L)));
+
+        // Act & Assert
+        mockMvc.perform(put("/api/items/1")
+                .header(HttpHeaders.IF_MATCH, "\"4-cbor\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updatedItem)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"5\""));
+    }
+
     @Test
     void getItemById_WithNonExistingId_ShouldReturnNotFound() throws Exception {
         // Arrange
@@ -84,6 +349,142 @@ public class ItemControllerTest {
         verify(itemService, times(1)).getItemById(99L);
     }
 
+    @Test
+    void getItemsById_ShouldReturnItemsAndMissingIds() throws Exception {
+        // Arrange
+        when(itemLookupService.getItemsById(List.of(2L, 99L, 1L)))
+                .thenReturn(new ItemLookup(List.of(item2, item1), List.of(99L)));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/items/lookup").param("ids", "2,99,1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].id", contains(2, 1)))
+                .andExpect(jsonPath("$.missingIds", contains(99)));
+    }
+
+    @Test
+    void lookupItems_WithTooManyIds_ShouldReturnBadRequest() throws Exception {
+        // Arrange
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= ItemService.MAX_PAGE_SIZE + 1; id++) {
+            ids.add(id);
+        }
+
+        // Act & Assert
+        mockMvc.perform(post("/api/items/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(ids)))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(itemLookupService);
+    }
+
+    @Test
+    void getStats_ShouldReturnSnapshot() throws Exception {
+        // Arrange
+        when(itemStatistics.snapshot()).thenReturn(Optional.of(new ItemStats(2, 2, 10.0, 20.0, 15.0,
+                List.of(new ItemStats.Bucket(null, 15.0, 1), new ItemStats.Bucket(15.0, null, 1)), Instant.now())));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/items/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count", is(2)))
+                .andExpect(jsonPath("$.averagePrice", is(15.0)))
+                .andExpect(jsonPath("$.priceBuckets[*].count", contains(1, 1)));
+    }
+
+    @Test
+    void getStats_BeforeFirstLoad_ShouldReturnServiceUnavailable() throws Exception {
+        // Arrange
+        when(itemStatistics.snapshot()).thenReturn(Optional.empty());
+
+        // Act & Assert
+        mockMvc.perform(get("/api/items/stats"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+    }
+
+    @Test
+    void searchItems_ShouldUseDefaultModeAndLimit() throws Exception {
+        // Arrange
+        when(itemService.searchItemsByName("Test", false, 100, ALL)).thenReturn(Arrays.asList(view1, view2));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/items/search").param("name", "Test"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].name", is("Test Item 1")));
+
+        verify(itemService, times(1)).searchItemsByName("Test", false, 100, ALL);
+    }
+
+    @Test
+    void searchItems_WithPrefixAndLimit_ShouldPassThem() throws Exception {
+        // Arrange
+        when(itemService.searchItemsByName("Test", true, 1, ALL)).thenReturn(List.of(view1));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/items/search").param("name", "Test").param("prefix", "true").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)));
+
+        verify(itemService, times(1)).searchItemsByName("Test", true, 1, ALL);
+    }
+
+    @Test
+    void findItemsByPrice_ShouldUseDefaults() throws Exception {
+        // Arrange
+        when(itemService.findItemsByPrice(null, 15.0, false, 100, ALL)).thenReturn(List.of(view1));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/items/price").param("maxPrice", "15.0"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].price", is(10.0)));
+
+        verify(itemService, times(1)).findItemsByPrice(null, 15.0, false, 100, ALL);
+    }
+
+    @Test
+    void findItemsByPrice_WithRangeSortAndLimit_ShouldPassThem() throws Exception {
+        // Arrange
+        when(itemService.findItemsByPrice(5.0, 25.0, true, 2, ALL)).thenReturn(List.of(view2, view1));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/items/price")
+                .param("minPrice", "5").param("maxPrice", "25").param("sort", "DESC").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(2)))
+                .andExpect(jsonPath("$[1].id", is(1)));
+    }
+
+    @Test
+    void findItemsByPrice_WithFields_ShouldOmitOtherFields() throws Exception {
+        // Arrange
+        Set<ItemView.Field> fields = Set.of(ItemView.Field.ID, ItemView.Field.NAME, ItemView.Field.PRICE);
+        when(itemService.findItemsByPrice(null, null, false, 100, fields))
+                .thenReturn(List.of(new ItemView(1L, "Test Item 1", null, 10.0, null)));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/items/price").param("fields", "name,Price"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(1)))
+                .andExpect(jsonPath("$[0].name", is("Test Item 1")))
+                .andExpect(jsonPath("$[0].description").doesNotExist())
+                .andExpect(jsonPath("$[0].version").doesNotExist());
+
+        verify(itemService, times(1)).findItemsByPrice(null, null, false, 100, fields);
+    }
+
+    @Test
+    void getAllItems_WithUnknownField_ShouldReturnBadRequest() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/items").param("fields", "name,colour"))
+                .andExpect(status().isBadRequest());
+
+        verify(itemService, never()).getAllItems(any());
+    }
+
     @Test
     void createItem_ShouldReturnCreatedItem() throws Exception {
         // Arrange
@@ -105,69 +506,275 @@ public class ItemControllerTest {
         verify(itemService, times(1)).saveItem(any(Item.class));
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void createItems_WithJsonArray_ShouldReturnChunkResults() throws Exception {
+        // Arrange
+        List<String> received = new ArrayList<>();
+        when(itemBatchService.createItems(any(Iterator.class))).thenAnswer(invocation -> {
+            Iterator<Item> items = invocation.getArgument(0);
+            items.forEachRemaining(item -> received.add(item.getName()));
+            return List.of(ItemBatchResult.committed(0, 2, 2, List.of(1L, 2L), List.of()));
+        });
+
+        // Act & Assert
+        mockMvc.perform(post("/api/items/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(item1, item2))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].committed", is(true)))
+                .andExpect(jsonPath("$[0].affected", is(2)))
+                .andExpect(jsonPath("$[0].ids", contains(1, 2)));
+
+        assertEquals(List.of("Test Item 1", "Test Item 2"), received);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void createItems_WithNdjson_ShouldReadEveryLine() throws Exception {
+        // Arrange
+        List<String> received = new ArrayList<>();
+        when(itemBatchService.createItems(any(Iterator.class))).thenAnswer(invocation -> {
+            Iterator<Item> items = invocation.getArgument(0);
+            items.forEachRemaining(item -> received.add(item.getName()));
+            return List.of(ItemBatchResult.committed(0, 2, 2, List.of(1L, 2L), List.of()));
+        });
+        String body = objectMapper.writeValueAsString(item1) + "\n" + objectMapper.writeValueAsString(item2) + "\n";
+
+        // Act & Assert
+        mockMvc.perform(post("/api/items/batch")
+                .contentType(ItemController.APPLICATION_NDJSON_VALUE)
+                .content(body))
+                .andExpect(status().isOk());
+
+        assertEquals(List.of("Test Item 1", "Test Item 2"), received);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void updateItems_ShouldReturnMissingIds() throws Exception {
+        // Arrange
+        when(itemBatchService.updateItems(any(Iterator.class)))
+                .thenReturn(List.of(ItemBatchResult.committed(0, 2, 1, List.of(1L), List.of(2L))));
+
+        // Act & Assert
+        mockMvc.perform(put("/api/items/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(item1, item2))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].missingIds", contains(2)));
+
+        verify(itemService, never()).saveItem(any(Item.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void deleteItems_ShouldReadIds() throws Exception {
+        // Arrange
+        List<Long> received = new ArrayList<>();
+        when(itemBatchService.deleteItems(any(Iterator.class))).thenAnswer(invocation -> {
+            Iterator<Long> ids = invocation.getArgument(0);
+            ids.forEachRemaining(received::add);
+            return List.of(ItemBatchResult.committed(0, 2, 2, received, null));
+        });
+
+        // Act & Assert
+        mockMvc.perform(delete("/api/items/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[1, 2]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].affected", is(2)));
+
+        assertEquals(List.of(1L, 2L), received);
+        verify(itemService, never()).deleteItem(anyLong());
+    }
+
     @Test
     void updateItem_WithExistingId_ShouldReturnUpdatedItem() throws Exception {
         // Arrange
         Item updatedItem = new Item(1L, "Updated Item", "Updated Description", 15.0);
+        when(itemService.updateItem(eq(1L), any(Item.class), isNull()))
+                .thenReturn(Optional.of(new Item(1L, "Updated Item", "Updated Description", 15.0, 3L)));
 
-        when(itemService.getItemById(1L)).thenReturn(Optional.of(item1));
-        when(itemService.saveItem(any(Item.class))).thenReturn(updatedItem);
+        // Act & Assert
+        mockMvc.perform(put("/api/items/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updatedItem)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(jsonPath("$.name").value("Updated Item"))
+                .andExpect(jsonPath("$.version").value(3));
+
+        verify(itemService, times(1)).updateItem(eq(1L), any(Item.class), isNull());
+        verify(itemService, never()).getItemById(anyLong());
+    }
+
+    @Test
+    void updateItem_WithPreferReturnMinimal_ShouldReturnNoContent() throws Exception {
+        // Arrange
+        Item updatedItem = new Item(1L, "Updated Item", "Updated Description", 15.0);
+        when(itemService.updateItem(eq(1L), any(Item.class), eq(4L)))
+                .thenReturn(Optional.of(new Item(1L, "Updated Item", "Updated Description", 15.0, 5L)));
+
+        // Act & Assert
+        mockMvc.perform(put("/api/items/1")
+                .header(HttpHeaders.IF_MATCH, "\"4\"")
+                .header("Prefer", "respond-async, return=minimal")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updatedItem)))
+                .andExpect(status().isNoContent())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"5\""))
+                .andExpect(header().string("Preference-Applied", "return=minimal"))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void updateItem_WithStaleIfMatch_ShouldReturnPreconditionFailed() throws Exception {
+        // Arrange
+        Item updatedItem = new Item(1L, "Updated Item", "Updated Description", 15.0);
+        when(itemService.updateItem(eq(1L), any(Item.class), eq(4L)))
+                .thenThrow(new OptimisticLockingFailureException("stale"));
 
         // Act & Assert
         mockMvc.perform(put("/api/items/1")
+                .header(HttpHeaders.IF_MATCH, "\"4\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updatedItem)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void updateItem_WithWeakIfMatch_ShouldNeverMatch() throws Exception {
+        // Arrange
+        Item updatedItem = new Item(1L, "Updated Item", "Updated Description", 15.0);
+        when(itemService.updateItem(eq(1L), any(Item.class), eq(-1L)))
+                .thenThrow(new OptimisticLockingFailureException("stale"));
+
+        // Act & Assert
+        mockMvc.perform(put("/api/items/1")
+                .header(HttpHeaders.IF_MATCH, "W/\"4\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updatedItem)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void updateItem_WithIfMatchList_ShouldMatchAnyListedVersion() throws Exception {
+        // Arrange
+        Item updatedItem = new Item(1L, "Updated Item", "Updated Description", 15.0);
+        when(itemService.getVersion(1L)).thenReturn(Optional.of(7L));
+        when(itemService.updateItem(eq(1L), any(Item.class), eq(7L)))
+                .thenReturn(Optional.of(new Item(1L, "Updated Item", "Updated Description", 15.0, 8L)));
+
+        // Act & Assert
+        mockMvc.perform(put("/api/items/1")
+                .header(HttpHeaders.IF_MATCH, "\"3\", W/\"5\", \"7\"")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(updatedItem)))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.id", is(1)))
-                .andExpect(jsonPath("$.name", is("Updated Item")))
-                .andExpect(jsonPath("$.description", is("Updated Description")))
-                .andExpect(jsonPath("$.price", is(15.0)));
+                .andExpect(header().string(HttpHeaders.ETAG, "\"8\""));
+    }
 
-        verify(itemService, times(1)).getItemById(1L);
-        verify(itemService, times(1)).saveItem(any(Item.class));
+    @Test
+    void patchItem_WithIfMatchListWithoutCurrentVersion_ShouldReturnPreconditionFailed() throws Exception {
+        // Arrange
+        when(itemService.getVersion(1L)).thenReturn(Optional.of(9L));
+        when(itemService.patchItem(1L, new ItemPatch(null, null, 12.5), -1L))
+                .thenThrow(new OptimisticLockingFailureException("stale"));
+
+        // Act & Assert
+        mockMvc.perform(patch("/api/items/1")
+                .header(HttpHeaders.IF_MATCH, "\"3\", \"7\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"price\": 12.5}"))
+                .andExpect(status().isPreconditionFailed());
     }
 
     @Test
     void updateItem_WithNonExistingId_ShouldReturnNotFound() throws Exception {
         // Arrange
         Item updatedItem = new Item(99L, "Updated Item", "Updated Description", 15.0);
-
-        when(itemService.getItemById(99L)).thenReturn(Optional.empty());
+        when(itemService.updateItem(eq(99L), any(Item.class), isNull())).thenReturn(Optional.empty());
 
         // Act & Assert
         mockMvc.perform(put("/api/items/99")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(updatedItem)))
                 .andExpect(status().isNotFound());
+    }
 
-        verify(itemService, times(1)).getItemById(99L);
-        verify(itemService, never()).saveItem(any(Item.class));
+    @Test
+    void patchItem_ShouldPassOnlyPresentFields() throws Exception {
+        // Arrange
+        when(itemService.patchItem(1L, new ItemPatch(null, null, 12.5), null)).thenReturn(Optional.of(2L));
+
+        // Act & Assert
+        mockMvc.perform(patch("/api/items/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"price\": 12.5}"))
+                .andExpect(status().isNoContent())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""));
+
+        verify(itemService, times(1)).patchItem(1L, new ItemPatch(null, null, 12.5), null);
+    }
+
+    @Test
+    void patchItem_WithMergePatchBody_ShouldReturnUnsupportedMediaType() throws Exception {
+        // Act & Assert
+        mockMvc.perform(patch("/api/items/1")
+                .contentType("application/merge-patch+json")
+                .content("{\"description\": null}"))
+                .andExpect(status().isUnsupportedMediaType());
+
+        verify(itemService, never()).patchItem(anyLong(), any(ItemPatch.class), any());
+    }
+
+    @Test
+    void patchItem_WithEmptyBody_ShouldReturnBadRequest() throws Exception {
+        // Act & Assert
+        mockMvc.perform(patch("/api/items/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{}"))
+                .andExpect(status().isBadRequest());
+
+        verify(itemService, never()).patchItem(anyLong(), any(ItemPatch.class), any());
+    }
+
+    @Test
+    void patchItem_WithNonExistingId_ShouldReturnNotFound() throws Exception {
+        // Arrange
+        when(itemService.patchItem(99L, new ItemPatch("Renamed", null, null), null)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        mockMvc.perform(patch("/api/items/99")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\": \"Renamed\"}"))
+                .andExpect(status().isNotFound());
     }
 
     @Test
     void deleteItem_WithExistingId_ShouldReturnNoContent() throws Exception {
         // Arrange
-        when(itemService.getItemById(1L)).thenReturn(Optional.of(item1));
-        doNothing().when(itemService).deleteItem(1L);
+        when(itemService.deleteItem(1L)).thenReturn(1);
 
         // Act & Assert
         mockMvc.perform(delete("/api/items/1"))
                 .andExpect(status().isNoContent());
 
-        verify(itemService, times(1)).getItemById(1L);
         verify(itemService, times(1)).deleteItem(1L);
+        verify(itemService, never()).getItemById(anyLong());
     }
 
     @Test
     void deleteItem_WithNonExistingId_ShouldReturnNotFound() throws Exception {
         // Arrange
-        when(itemService.getItemById(99L)).thenReturn(Optional.empty());
+        when(itemService.deleteItem(99L)).thenReturn(0);
 
         // Act & Assert
         mockMvc.perform(delete("/api/items/99"))
                 .andExpect(status().isNotFound());
 
-        verify(itemService, times(1)).getItemById(99L);
-        verify(itemService, never()).deleteItem(anyLong());
+        verify(itemService, times(1)).deleteItem(99L);
     }
-}
\ No newline at end of file
+}
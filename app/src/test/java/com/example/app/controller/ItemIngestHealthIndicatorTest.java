@@ -0,0 +1,54 @@
+package com.example.app.controller;
+
+import com.example.core.service.ItemIngestService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ItemIngestHealthIndicatorTest {
+
+    @Mock
+    private ItemIngestService itemIngestService;
+
+    @InjectMocks
+    private ItemIngestHealthIndicator healthIndicator;
+
+    @Test
+    void health_WhileWriterRuns_ShouldBeUp() {
+        // Arrange
+        when(itemIngestService.writerFailure()).thenReturn(Optional.empty());
+        when(itemIngestService.isAccepting()).thenReturn(true);
+        when(itemIngestService.queueDepth()).thenReturn(3);
+
+        // Act
+        Health health = healthIndicator.health();
+
+        // Assert
+        assertEquals(Status.UP, health.getStatus());
+        assertEquals(3, health.getDetails().get("queueDepth"));
+    }
+
+    @Test
+    void health_AfterWriterStopped_ShouldBeDown() {
+        // Arrange
+        when(itemIngestService.writerFailure()).thenReturn(Optional.of(new OutOfMemoryError("Java heap space")));
+
+        // Act
+        Health health = healthIndicator.health();
+
+        // Assert
+        assertEquals(Status.DOWN, health.getStatus());
+        assertEquals("java.lang.OutOfMemoryError: Java heap space", health.getDetails().get("error"));
+        assertEquals(false, health.getDetails().get("accepting"));
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.app.controller;
+
+import com.example.core.dto.ItemSnapshot;
+import com.example.core.snapshot.ItemSnapshotImportException;
+import com.example.core.snapshot.ItemSnapshotService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+
+import java.nio.file.NoSuchFileException;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ItemSnapshotEndpointTest {
+
+    @Mock
+    private ItemSnapshotService itemSnapshotService;
+
+    @InjectMocks
+    private ItemSnapshotEndpoint endpoint;
+
+    @Test
+    void run_Export_ShouldAnswerSnapshot() throws Exception {
+        // Arrange
+        ItemSnapshot snapshot = new ItemSnapshot("nightly", 3, 7, 200, "0000abcd", Instant.now());
+        when(itemSnapshotService.export("nightly")).thenReturn(snapshot);
+
+        // Act
+        WebEndpointResponse<Object> response = endpoint.run("nightly", "export");
+
+        // Assert
+        assertEquals(200, response.getStatus());
+        assertEquals(snapshot, response.getBody());
+    }
+
+    @Test
+    void run_WithUnknownOperation_ShouldAnswer400() throws Exception {
+        // Act
+        WebEndpointResponse<Object> response = endpoint.run("nightly", "restore");
+
+        // Assert
+        assertEquals(400, response.getStatus());
+        verifyNoInteractions(itemSnapshotService);
+    }
+
+    @Test
+    void run_ImportOfMissingSnapshot_ShouldAnswer404() throws Exception {
+        // Arrange
+        when(itemSnapshotService.importSnapshot("missing")).thenThrow(new NoSuchFileException("missing"));
+
+        // Act & Assert
+        assertEquals(404, endpoint.run("missing", "import").getStatus());
+    }
+
+    @Test
+    void run_ImportIntoNonEmptyCatalogue_ShouldAnswer409() throws Exception {
+        // Arrange
+        when(itemSnapshotService.importSnapshot("nightly"))
+                .thenThrow(new IllegalStateException("Snapshots can only be imported while there are no items"));
+
+        // Act
+        WebEndpointResponse<Object> response = endpoint.run("nightly", "import");
+
+        // Assert
+        assertEquals(409, response.getStatus());
+        assertEquals("Snapshots can only be imported while there are no items", response.getBody());
+    }
+
+    @Test
+    void run_ImportThatFailedPartWay_ShouldAnswer500WithProgress() throws Exception {
+        // Arrange
+        ItemSnapshotImportException failure = new ItemSnapshotImportException("nightly", 20000, true,
+                new IllegalStateException("disk full"));
+        when(itemSnapshotService.importSnapshot("nightly")).thenThrow(failure);
+
+        // Act
+        WebEndpointResponse<Object> response = endpoint.run("nightly", "import");
+
+        // Assert
+        assertEquals(500, response.getStatus());
+        assertEquals("Importing snapshot nightly failed after 20000 items were committed; "
+                + "they were deleted again, so the import can be retried", response.getBody());
+    }
+
+    @Test
+    void download_WithUnknownName_ShouldAnswer404() {
+        // Arrange
+        when(itemSnapshotService.find("missing")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertEquals(404, endpoint.download("missing").getStatus());
+    }
+
+    @Test
+    void delete_WithInvalidName_ShouldAnswer400() throws Exception {
+        // Arrange
+        when(itemSnapshotService.delete("../x")).thenThrow(new IllegalArgumentException("bad name"));
+
+        // Act & Assert
+        assertEquals(400, endpoint.delete("../x").getStatus());
+    }
+}
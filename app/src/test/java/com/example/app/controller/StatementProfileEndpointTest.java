@@ -0,0 +1,60 @@
+package com.example.app.controller;
+
+import com.example.core.metrics.StatementProfiler;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class StatementProfileEndpointTest {
+
+    @Mock
+    private StatementProfiler statementProfiler;
+
+    @Test
+    void slowest_ShouldDefaultToTopTenByTotalTime() {
+        // Arrange
+        StatementProfileEndpoint endpoint = new StatementProfileEndpoint(statementProfiler, true);
+        when(statementProfiler.slowest(10, false)).thenReturn(List.of());
+
+        // Act & Assert
+        assertEquals(200, endpoint.slowest(null, null).getStatus());
+        verify(statementProfiler).slowest(10, false);
+    }
+
+    @Test
+    void slowest_WithUnknownSort_ShouldAnswer400() {
+        // Arrange
+        StatementProfileEndpoint endpoint = new StatementProfileEndpoint(statementProfiler, true);
+
+        // Act & Assert
+        assertEquals(400, endpoint.slowest(5, "mean").getStatus());
+        verifyNoInteractions(statementProfiler);
+    }
+
+    @Test
+    void reset_WhenEnabled_ShouldClearTotals() {
+        // Arrange
+        StatementProfileEndpoint endpoint = new StatementProfileEndpoint(statementProfiler, true);
+
+        // Act & Assert
+        assertEquals(204, endpoint.reset().getStatus());
+        verify(statementProfiler).reset();
+    }
+
+    @Test
+    void reset_WhenDisabled_ShouldAnswer403() {
+        // Arrange
+        StatementProfileEndpoint endpoint = new StatementProfileEndpoint(statementProfiler, false);
+
+        // Act & Assert
+        assertEquals(403, endpoint.reset().getStatus());
+        verifyNoInteractions(statementProfiler);
+    }
+}
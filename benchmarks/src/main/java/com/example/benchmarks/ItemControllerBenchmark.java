@@ -0,0 +1,123 @@
+package com.example.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+/**
+ * Full request dispatch through the {@code DispatcherServlet}: argument binding, the
+ * controller, the service and JSON rendering. Requests are dispatched in-process with
+ * MockMvc, so the numbers exclude the network and the servlet container.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ItemControllerBenchmark {
+
+    @Param({ "10000", "1000000", "10000000" })
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+
+    private MockMvc mockMvc;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = ItemDataset.start(ItemDataset.prepare(rows), WebApplicationType.SERVLET);
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] getItem() throws Exception {
+        return perform(get("/api/items/{id}", ThreadLocalRandom.current().nextLong(1, rows + 1L)));
+    }
+
+    @Benchmark
+    public byte[] getItemPage() throws Exception {
+        long after = ThreadLocalRandom.current().nextLong(0, Math.max(1, rows - 100));
+        return perform(get("/api/items/page").param("after", String.valueOf(after)).param("limit", "100"));
+    }
+
+    @Benchmark
+    public byte[] getItemPageWithoutDescription() throws Exception {
+        long after = ThreadLocalRandom.current().nextLong(0, Math.max(1, rows - 100));
+        return perform(get("/api/items/page").param("after", String.valueOf(after)).param("limit", "100")
+                .param("fields", "name,price,version"));
+    }
+
+    @Benchmark
+    public byte[] searchItems() throws Exception {
+        String word = ItemDataset.WORDS[ThreadLocalRandom.current().nextInt(ItemDataset.WORDS.length)];
+        return perform(get("/api/items/search").param("name", word).param("limit", "100"));
+    }
+
+    @Benchmark
+    public byte[] findItemsByPrice() throws Exception {
+        double min = ThreadLocalRandom.current().nextDouble(0, ItemDataset.MAX_PRICE - 10);
+        return perform(get("/api/items/price")
+                .param("minPrice", String.valueOf(min))
+                .param("maxPrice", String.valueOf(min + 10))
+                .param("limit", "100"));
+    }
+
+    @Benchmark
+    public byte[] updateItem() throws Exception {
+        long id = ThreadLocalRandom.current().nextLong(1, rows + 1L);
+        double price = ThreadLocalRandom.current().nextDouble(1, ItemDataset.MAX_PRICE);
+        return perform(put("/api/items/{id}", id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Updated " + id + "\",\"description\":\"Benchmark item\",\"price\":" + price + "}"));
+    }
+
+    @Benchmark
+    public byte[] patchItem() throws Exception {
+        long id = ThreadLocalRandom.current().nextLong(1, rows + 1L);
+        double price = ThreadLocalRandom.current().nextDouble(1, ItemDataset.MAX_PRICE);
+        return perform(patch("/api/items/{id}", id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"price\":" + price + "}"));
+    }
+
+    // Deleting ids past the end keeps the dataset intact while still running the delete path.
+    @Benchmark
+    public byte[] deleteMissingItem() throws Exception {
+        return perform(delete("/api/items/{id}", rows + ThreadLocalRandom.current().nextLong(1, 1_000_000)));
+    }
+
+    private byte[] perform(RequestBuilder request) throws Exception {
+        return mockMvc.perform(request).andReturn().getResponse().getContentAsByteArray();
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.benchmarks;
+
+import com.example.app.Application;
+import com.example.core.entity.Item;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Seeded SQLite databases for the benchmarks. Each size is generated once into
+ * {@code build/datasets} (or {@code -Dbenchmark.data-dir}) and reused by later runs,
+ * so only the first run against 1M or 10M rows pays for seeding and index builds.
+ * <p>
+ * Benchmarks that write to a dataset only update existing rows, so the row count
+ * stays what the file name says.
+ */
+public final class ItemDataset {
+
+    static final String[] WORDS = {
+            "laptop", "phone", "tablet", "monitor", "keyboard", "mouse", "camera", "speaker",
+            "charger", "cable", "router", "printer", "headphones", "watch", "drive", "adapter"
+    };
+
+    static final String[] ADJECTIVES = {
+            "compact", "wireless", "premium", "portable", "gaming", "smart", "classic", "ultra"
+    };
+
+    static final double MAX_PRICE = 2000.0;
+
+    private static final int INSERT_BATCH_SIZE = 10_000;
+
+    private ItemDataset() {
+    }
+
+    /**
+     * Returns the database file for the given number of rows, creating it on first use.
+     */
+    public static synchronized Path prepare(int rows) {
+        Path dataDir = Paths.get(System.getProperty("benchmark.data-dir", "build/datasets")).toAbsolutePath();
+        Path database = dataDir.resolve("items-" + rows + ".db");
+        if (Files.exists(database)) {
+            return database;
+        }
+        try {
+            Files.createDirectories(dataDir);
+            Path seeding = dataDir.resolve("items-" + rows + ".db.seeding");
+            Files.deleteIfExists(seeding);
+            seed(seeding, rows);
+            // First start creates the price and full-text indexes in one pass over the seeded rows.
+            start(seeding, WebApplicationType.NONE).close();
+            Files.deleteIfExists(Paths.get(seeding + "-wal"));
+            Files.deleteIfExists(Paths.get(seeding + "-shm"));
+            Files.move(seeding, database, StandardCopyOption.ATOMIC_MOVE);
+            return database;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Starts the application against a dataset with SQL and debug logging off. Settings
+     * are passed as command-line arguments so they override the profile properties;
+     * {@code extraArgs} are appended in the same {@code --name=value} form.
+     */
+    public static ConfigurableApplicationContext start(Path database, WebApplicationType webApplicationType,
+            String... extraArgs) {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:sqlite:" + database,
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.format_sql=false",
+                "--spring.main.banner-mode=off",
+                "--server.port=0",
+                "--logging.level.root=WARN",
+                "--logging.level.com.example=WARN"));
+        args.addAll(List.of(extraArgs));
+        return new SpringApplicationBuilder(Application.class)
+                .web(webApplicationType)
+                .run(args.toArray(String[]::new));
+    }
+
+    /**
+     * Builds the item the seeder writes for the given id, so benchmarks can derive
+     * lookups and expected values without querying.
+     */
+    static Item item(long id) {
+        SplittableRandom random = new SplittableRandom(id);
+        String name = ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " "
+                + WORDS[random.nextInt(WORDS.length)] + " " + id;
+        double price = Math.round(random.nextDouble(1.0, MAX_PRICE) * 100) / 100.0;
+        return new Item(id, name, "Benchmark item " + id, price);
+    }
+
+    private static void seed(Path database, int rows) {
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + database)) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("PRAGMA journal_mode=OFF");
+                statement.execute("PRAGMA synchronous=OFF");
+                statement.execute("CREATE TABLE Item (id bigint NOT NULL, description varchar(255), "
+                        + "name varchar(255), price float, version bigint DEFAULT 0 NOT NULL, PRIMARY KEY (id))");
+                statement.execute("CREATE TABLE item_seq (next_val bigint)");
+                statement.execute("INSERT INTO item_seq VALUES (1)");
+            }
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO Item (id, name, description, price) VALUES (?, ?, ?, ?)")) {
+                for (long id = 1; id <= rows; id++) {
+                    Item item = item(id);
+                    insert.setLong(1, id);
+                    insert.setString(2, item.getName());
+                    insert.setString(3, item.getDescription());
+                    insert.setDouble(4, item.getPrice());
+                    insert.addBatch();
+                    if (id % INSERT_BATCH_SIZE == 0) {
+                        insert.executeBatch();
+                    }
+                }
+                insert.executeBatch();
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not seed " + database, e);
+        }
+    }
+}
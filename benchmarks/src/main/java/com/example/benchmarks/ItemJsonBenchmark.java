@@ -0,0 +1,110 @@
+package com.example.benchmarks;
+
+import com.example.core.entity.Item;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson (de)serialization of {@code List<Item>} payloads with the settings of the
+ * prod profile: no indentation, null fields omitted. Compares the formats the API can
+ * negotiate, with and without the Blackbird module, and the cost of gzipping the result
+ * as response compression would. Bytes on the wire, raw and gzipped, are printed once per
+ * trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ItemJsonBenchmark {
+
+    private static final TypeReference<List<Item>> ITEM_LIST = new TypeReference<>() {
+    };
+
+    @Param({ "1", "100", "1000" })
+    public int size;
+
+    @Param({ "json", "smile", "cbor" })
+    public String format;
+
+    @Param({ "false", "true" })
+    public boolean blackbird;
+
+    private ObjectWriter writer;
+
+    private ObjectReader reader;
+
+    private List<Item> items;
+
+    private byte[] payload;
+
+    @Setup
+    public void setUp() throws IOException {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        if (format.equals("smile")) {
+            builder.factory(new SmileFactory());
+        } else if (format.equals("cbor")) {
+            builder.factory(new CBORFactory());
+        }
+        if (blackbird) {
+            builder.modulesToInstall(new BlackbirdModule());
+        }
+        ObjectMapper objectMapper = builder.build();
+        writer = objectMapper.writerFor(ITEM_LIST);
+        reader = objectMapper.readerFor(ITEM_LIST);
+        items = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            items.add(ItemDataset.item(id));
+        }
+        payload = writer.writeValueAsBytes(items);
+        System.out.printf("%n%s, %d items: %d bytes, %d gzipped%n", format, size, payload.length, gzip(payload).length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return writer.writeValueAsBytes(items);
+    }
+
+    @Benchmark
+    public byte[] serializeGzipped() throws IOException {
+        return gzip(writer.writeValueAsBytes(items));
+    }
+
+    @Benchmark
+    public List<Item> deserialize() throws IOException {
+        return reader.readValue(payload);
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+}
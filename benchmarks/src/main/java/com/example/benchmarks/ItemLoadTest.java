@@ -0,0 +1,342 @@
+package com.example.benchmarks;
+
+import com.example.core.entity.Item;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model HTTP load test of the item API. Requests are scheduled at a fixed mean
+ * rate, Poisson-distributed by default, whatever the server's response times; each
+ * request's latency is measured from its scheduled start, so a server that falls
+ * behind shows up in the percentiles instead of slowing the client down. Operations
+ * are drawn from a weighted mix of reads, searches, price queries and writes.
+ * <p>
+ * By default the application is started in this JVM against a seeded SQLite dataset
+ * (see {@link ItemDataset}); {@code --url} points the test at a server that is already
+ * running instead, which must hold at least {@code --rows} items. Writes replace items
+ * with their seeded values, so the dataset stays the same from run to run.
+ * <p>
+ * Options, all {@code --name=value}:
+ * <pre>
+ * rate           requests per second (200)
+ * duration       measured period (60s)
+ * warmup         unmeasured period before it (15s)
+ * mix            operation weights (get=50,page=10,search=15,price=15,write=10)
+ * arrivals       poisson or constant (poisson)
+ * rows           dataset size (100000)
+ * url            base URL of a running server instead of starting one
+ * max-in-flight  requests outstanding before new ones count as errors (2000)
+ * seed           random seed for the request sequence (42)
+ * label          name of the run in the report (run)
+ * out            JSON report (build/results/load/&lt;label&gt;.json)
+ * baseline       earlier JSON report to compare with
+ * </pre>
+ * Any other {@code --name=value} is passed to the in-process application, e.g.
+ * {@code --item.concurrency.enabled=false}.
+ */
+public final class ItemLoadTest {
+
+    enum Operation {
+        GET, PAGE, SEARCH, PRICE, WRITE;
+
+        String key() {
+            return name().toLowerCase();
+        }
+    }
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
+    private static final Map<String, String> DEFAULTS = Map.of(
+            "rate", "200",
+            "duration", "60s",
+            "warmup", "15s",
+            "mix", "get=50,page=10,search=15,price=15,write=10",
+            "arrivals", "poisson",
+            "rows", "100000",
+            "max-in-flight", "2000",
+            "seed", "42",
+            "label", "run");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    private final String baseUrl;
+
+    private final int rows;
+
+    private final double rate;
+
+    private final boolean poisson;
+
+    private final Map<Operation, Integer> mix;
+
+    private final int maxInFlight;
+
+    private final SplittableRandom random;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final Map<Operation, Stats> stats = new EnumMap<>(Operation.class);
+
+    ItemLoadTest(String baseUrl, int rows, double rate, boolean poisson, Map<Operation, Integer> mix,
+            int maxInFlight, long seed) {
+        this.baseUrl = baseUrl;
+        this.rows = rows;
+        this.rate = rate;
+        this.poisson = poisson;
+        this.mix = mix;
+        this.maxInFlight = maxInFlight;
+        this.random = new SplittableRandom(seed);
+        mix.keySet().forEach(operation -> stats.put(operation, new Stats()));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>(DEFAULTS);
+        Map<String, String> appArgs = new LinkedHashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            String name = arg.substring(2, equals);
+            String value = arg.substring(equals + 1);
+            if (DEFAULTS.containsKey(name) || name.equals("url") || name.equals("out") || name.equals("baseline")) {
+                options.put(name, value);
+            } else {
+                appArgs.put(name, value);
+            }
+        }
+
+        int rows = Integer.parseInt(options.get("rows"));
+        double rate = Double.parseDouble(options.get("rate"));
+        Duration warmup = DurationStyle.detectAndParse(options.get("warmup"));
+        Duration duration = DurationStyle.detectAndParse(options.get("duration"));
+        String label = options.get("label");
+        Path out = Paths.get(options.getOrDefault("out", "build/results/load/" + label + ".json"));
+
+        ConfigurableApplicationContext context = null;
+        String baseUrl = options.get("url");
+        if (baseUrl == null) {
+            String[] startArgs = appArgs.entrySet().stream()
+                    .map(entry -> "--" + entry.getKey() + "=" + entry.getValue())
+                    .toArray(String[]::new);
+            context = ItemDataset.start(ItemDataset.prepare(rows), WebApplicationType.SERVLET, startArgs);
+            baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+        } else if (!appArgs.isEmpty()) {
+            throw new IllegalArgumentException("Unknown options for a remote server: " + appArgs.keySet());
+        }
+
+        LoadReport report;
+        try {
+            ItemLoadTest test = new ItemLoadTest(baseUrl, rows, rate, !"constant".equals(options.get("arrivals")),
+                    parseMix(options.get("mix")), Integer.parseInt(options.get("max-in-flight")),
+                    Long.parseLong(options.get("seed")));
+            report = test.run(label, warmup, duration);
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+
+        report.print(System.out);
+        report.write(out);
+        System.out.println("Report written to " + out.toAbsolutePath());
+        if (options.containsKey("baseline")) {
+            System.out.println();
+            report.printComparison(LoadReport.read(Paths.get(options.get("baseline"))), System.out);
+        }
+    }
+
+    LoadReport run(String label, Duration warmup, Duration duration) throws InterruptedException {
+        int totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+        System.err.printf("Warming up for %s, then measuring for %s at %.0f req/s%n", warmup, duration, rate);
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        Instant startedAt = Instant.now().plus(warmup);
+        long next = start;
+        while (next < end) {
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+                continue;
+            }
+            send(pick(totalWeight), next, next >= measureFrom);
+            next += interval();
+        }
+        long drainUntil = System.nanoTime() + DRAIN_TIMEOUT.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < drainUntil) {
+            Thread.sleep(10);
+        }
+
+        double seconds = duration.toNanos() / 1e9;
+        Map<String, LoadReport.Result> operations = new LinkedHashMap<>();
+        Histogram all = new Histogram(MAX_LATENCY_MICROS, 3);
+        long requests = 0, ok = 0, rejected = 0, errors = 0;
+        for (Map.Entry<Operation, Stats> entry : stats.entrySet()) {
+            Stats s = entry.getValue();
+            operations.put(entry.getKey().key(), s.result(seconds));
+            all.add(s.latencyMicros);
+            requests += s.requests.sum();
+            ok += s.ok.sum();
+            rejected += s.rejected.sum();
+            errors += s.errors.sum();
+        }
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        mix.forEach((operation, weight) -> weights.put(operation.key(), weight));
+        return new LoadReport(label, startedAt.toString(), baseUrl, rows, rate, seconds, weights,
+                LoadReport.Result.of(all, requests, ok, rejected, errors, seconds), operations);
+    }
+
+    private void send(Operation operation, long scheduledNanos, boolean measured) {
+        Stats s = stats.get(operation);
+        if (measured) {
+            s.requests.increment();
+        }
+        if (inFlight.incrementAndGet() > maxInFlight) {
+            inFlight.decrementAndGet();
+            if (measured) {
+                s.errors.increment();
+            }
+            return;
+        }
+        httpClient.sendAsync(request(operation), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, failure) -> {
+                    long latencyMicros = (System.nanoTime() - scheduledNanos) / 1000;
+                    inFlight.decrementAndGet();
+                    if (measured) {
+                        s.record(response == null ? -1 : response.statusCode(), latencyMicros);
+                    }
+                });
+    }
+
+    private HttpRequest request(Operation operation) {
+        return switch (operation) {
+            case GET -> get("/api/items/" + randomId());
+            case PAGE -> get("/api/items/page?limit=100&after=" + random.nextLong(0, Math.max(1, rows - 100)));
+            case SEARCH -> get("/api/items/search?limit=20&name="
+                    + ItemDataset.WORDS[random.nextInt(ItemDataset.WORDS.length)]);
+            case PRICE -> {
+                double min = Math.floor(random.nextDouble(1.0, ItemDataset.MAX_PRICE - 20));
+                yield get("/api/items/price?limit=50&minPrice=" + min + "&maxPrice=" + (min + 20));
+            }
+            case WRITE -> {
+                Item item = ItemDataset.item(randomId());
+                yield HttpRequest.newBuilder(URI.create(baseUrl + "/api/items/" + item.getId()))
+                        .header("Content-Type", "application/json")
+                        .PUT(HttpRequest.BodyPublishers.ofByteArray(json(item)))
+                        .build();
+            }
+        };
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+    }
+
+    private long randomId() {
+        return random.nextLong(1, rows + 1L);
+    }
+
+    private Operation pick(int totalWeight) {
+        int point = random.nextInt(totalWeight);
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            point -= entry.getValue();
+            if (point < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Empty mix");
+    }
+
+    private long interval() {
+        double seconds = poisson ? -Math.log(1 - random.nextDouble()) / rate : 1 / rate;
+        return (long) (seconds * 1e9);
+    }
+
+    private byte[] json(Item item) {
+        try {
+            return objectMapper.writeValueAsBytes(item);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String part : mix.split(",")) {
+            String[] pair = part.trim().split("=");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Expected operation=weight in the mix, got " + part);
+            }
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight > 0) {
+                weights.put(Operation.valueOf(pair[0].trim().toUpperCase()), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("The mix needs at least one operation with a positive weight");
+        }
+        return weights;
+    }
+
+    private static final class Stats {
+
+        final Histogram latencyMicros = new ConcurrentHistogram(MAX_LATENCY_MICROS, 3);
+
+        final LongAdder requests = new LongAdder();
+
+        final LongAdder ok = new LongAdder();
+
+        final LongAdder rejected = new LongAdder();
+
+        final LongAdder errors = new LongAdder();
+
+        void record(int status, long micros) {
+            if (status < 0) {
+                errors.increment();
+                return;
+            }
+            latencyMicros.recordValue(Math.min(micros, MAX_LATENCY_MICROS));
+            if (status / 100 == 2 || status == 304) {
+                ok.increment();
+            } else if (status == 503) {
+                rejected.increment();
+            } else {
+                errors.increment();
+            }
+        }
+
+        LoadReport.Result result(double seconds) {
+            return LoadReport.Result.of(latencyMicros, requests.sum(), ok.sum(), rejected.sum(), errors.sum(),
+                    seconds);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.benchmarks;
+
+import com.example.core.dto.ItemPage;
+import com.example.core.dto.ItemPatch;
+import com.example.core.dto.ItemView;
+import com.example.core.entity.Item;
+import com.example.core.service.ItemService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ItemService} read and write paths against seeded SQLite datasets, including
+ * the transaction, cache and connection-pool layers around the repository.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ItemServiceBenchmark {
+
+    // Small enough to stay in the item cache for the whole run.
+    private static final int HOT_IDS = 100;
+
+    private static final int LIMIT = 100;
+
+    private static final Set<ItemView.Field> WITHOUT_DESCRIPTION =
+            Set.of(ItemView.Field.ID, ItemView.Field.NAME, ItemView.Field.PRICE, ItemView.Field.VERSION);
+
+    @Param({ "10000", "1000000", "10000000" })
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+
+    private ItemService itemService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = ItemDataset.start(ItemDataset.prepare(rows), WebApplicationType.NONE);
+        itemService = context.getBean(ItemService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Item> getItemById() {
+        return itemService.getItemById(randomId());
+    }
+
+    @Benchmark
+    public Optional<Item> getItemByIdCached() {
+        return itemService.getItemById(ThreadLocalRandom.current().nextLong(1, HOT_IDS + 1));
+    }
+
+    @Benchmark
+    public ItemPage getItemPage() {
+        return itemService.getItemPage(randomAfter(), LIMIT, ItemView.Field.ALL);
+    }
+
+    @Benchmark
+    public ItemPage getItemPageWithoutDescription() {
+        return itemService.getItemPage(randomAfter(), LIMIT, WITHOUT_DESCRIPTION);
+    }
+
+    @Benchmark
+    public List<ItemView> searchItemsByName() {
+        String word = ItemDataset.WORDS[ThreadLocalRandom.current().nextInt(ItemDataset.WORDS.length)];
+        return itemService.searchItemsByName(word, false, LIMIT, ItemView.Field.ALL);
+    }
+
+    @Benchmark
+    public List<ItemView> findItemsByPrice() {
+        double min = ThreadLocalRandom.current().nextDouble(0, ItemDataset.MAX_PRICE - 10);
+        return itemService.findItemsByPrice(min, min + 10, false, LIMIT, ItemView.Field.ALL);
+    }
+
+    @Benchmark
+    public List<ItemView> findMostExpensiveItems() {
+        return itemService.findItemsByPrice(null, null, true, LIMIT, ItemView.Field.ALL);
+    }
+
+    @Benchmark
+    public Optional<Item> updateItem() {
+        long id = randomId();
+        Item item = ItemDataset.item(id);
+        item.setPrice(Math.round(ThreadLocalRandom.current().nextDouble(1, ItemDataset.MAX_PRICE) * 100) / 100.0);
+        return itemService.updateItem(id, item, null);
+    }
+
+    @Benchmark
+    public Optional<Long> patchItem() {
+        double price = Math.round(ThreadLocalRandom.current().nextDouble(1, ItemDataset.MAX_PRICE) * 100) / 100.0;
+        return itemService.patchItem(randomId(), new ItemPatch(null, null, price), null);
+    }
+
+    private long randomAfter() {
+        return ThreadLocalRandom.current().nextLong(0, Math.max(1, rows - LIMIT));
+    }
+
+    private long randomId() {
+        return ThreadLocalRandom.current().nextLong(1, rows + 1L);
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.benchmarks;
+
+import com.example.core.entity.Item;
+import com.example.core.service.ItemService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Write throughput of {@link ItemService} with the items split over 1, 2 or 4 SQLite
+ * files ({@code item.shards.count}). Several threads write at once, so with one file
+ * they queue for its single writer; each extra shard adds a writer. Every trial starts
+ * from empty shard files in a temporary directory.
+ * <p>
+ * Scaling needs as many cores and as much disk bandwidth as there are shards.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class ItemShardBenchmark {
+
+    private static final int UPDATED_ITEMS = 10_000;
+
+    private static final int SEED_BATCH_SIZE = 500;
+
+    @Param({ "1", "2", "4" })
+    public int shards;
+
+    private Path directory;
+
+    private ConfigurableApplicationContext context;
+
+    private ItemService itemService;
+
+    private long[] ids;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("item-shards");
+        context = ItemDataset.start(directory.resolve("items.db"), WebApplicationType.NONE,
+                "--item.shards.count=" + shards);
+        itemService = context.getBean(ItemService.class);
+        // Each batch lands on one shard; new batches go to the shards in turn.
+        List<Item> created = new ArrayList<>();
+        for (long first = 1; first <= UPDATED_ITEMS; first += SEED_BATCH_SIZE) {
+            List<Item> batch = new ArrayList<>();
+            for (long id = first; id < first + SEED_BATCH_SIZE; id++) {
+                Item item = ItemDataset.item(id);
+                item.setId(null);
+                batch.add(item);
+            }
+            created.addAll(itemService.createItems(batch));
+        }
+        ids = created.stream().mapToLong(Item::getId).toArray();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> {
+                try {
+                    Files.delete(file);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    @Benchmark
+    public Item createItem() {
+        Item item = ItemDataset.item(ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE / 2));
+        item.setId(null);
+        return itemService.saveItem(item);
+    }
+
+    @Benchmark
+    public Optional<Item> updateItem() {
+        long id = ids[ThreadLocalRandom.current().nextInt(ids.length)];
+        Item item = ItemDataset.item(id);
+        item.setPrice(Math.round(ThreadLocalRandom.current().nextDouble(1, ItemDataset.MAX_PRICE) * 100) / 100.0);
+        return itemService.updateItem(id, item, null);
+    }
+}
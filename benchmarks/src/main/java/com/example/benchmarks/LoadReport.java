@@ -0,0 +1,116 @@
+package com.example.benchmarks;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Results of one {@link ItemLoadTest} run, as written to and read back from JSON.
+ * Latencies are in milliseconds and measured from when each request was scheduled to
+ * start, so time spent waiting behind a slow server counts against it.
+ *
+ * @param label       free-form name for the run, e.g. a build or commit
+ * @param startedAt   ISO-8601 start of the measured period
+ * @param target      base URL the requests were sent to
+ * @param rows        items in the dataset
+ * @param rate        requests per second the run scheduled
+ * @param seconds     length of the measured period
+ * @param mix         relative weight of each operation
+ * @param total       all operations together
+ * @param operations  results per operation
+ */
+public record LoadReport(String label, String startedAt, String target, int rows, double rate, double seconds,
+        Map<String, Integer> mix, Result total, Map<String, Result> operations) {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .enable(SerializationFeature.INDENT_OUTPUT)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    /**
+     * Outcome counts and latency percentiles of a set of requests.
+     *
+     * @param requests   requests scheduled in the measured period
+     * @param ok         answered 2xx or 304
+     * @param rejected   answered 503, i.e. shed by the server's concurrency limits
+     * @param errors     other statuses, I/O failures, and requests dropped because the
+     *                   client already had its maximum in flight
+     * @param throughput successful responses per second
+     */
+    public record Result(long requests, long ok, long rejected, long errors, double throughput,
+            double meanMs, double p50Ms, double p90Ms, double p99Ms, double p999Ms, double maxMs) {
+
+        static Result of(Histogram latencyMicros, long requests, long ok, long rejected, long errors,
+                double seconds) {
+            boolean empty = latencyMicros.getTotalCount() == 0;
+            return new Result(requests, ok, rejected, errors, ok / seconds,
+                    empty ? 0 : latencyMicros.getMean() / 1000.0,
+                    millis(latencyMicros, 50), millis(latencyMicros, 90), millis(latencyMicros, 99),
+                    millis(latencyMicros, 99.9),
+                    empty ? 0 : latencyMicros.getMaxValue() / 1000.0);
+        }
+
+        private static double millis(Histogram latencyMicros, double percentile) {
+            return latencyMicros.getTotalCount() == 0 ? 0 : latencyMicros.getValueAtPercentile(percentile) / 1000.0;
+        }
+    }
+
+    public void write(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        MAPPER.writeValue(file.toFile(), this);
+    }
+
+    public static LoadReport read(Path file) throws IOException {
+        return MAPPER.readValue(file.toFile(), LoadReport.class);
+    }
+
+    public void print(PrintStream out) {
+        out.printf("%s: %.0f req/s scheduled for %.0f s against %s (%d rows)%n", label, rate, seconds, target, rows);
+        out.printf("%-8s %9s %9s %8s %8s %10s %9s %9s %9s %9s %9s%n",
+                "op", "requests", "ok", "rejected", "errors", "ok/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        operations.forEach((name, result) -> printRow(out, name, result));
+        printRow(out, "total", total);
+    }
+
+    /**
+     * Prints throughput and latency percentiles next to those of an earlier run, with
+     * the relative change; positive latency changes are regressions.
+     */
+    public void printComparison(LoadReport baseline, PrintStream out) {
+        out.printf("%s compared with %s%n", label, baseline.label());
+        out.printf("%-8s %-10s %12s %12s %9s%n", "op", "metric", baseline.label(), label, "change");
+        Map<String, Result> results = new LinkedHashMap<>(operations);
+        results.put("total", total);
+        results.forEach((name, result) -> {
+            Result before = "total".equals(name) ? baseline.total() : baseline.operations().get(name);
+            if (before == null) {
+                return;
+            }
+            compareRow(out, name, "ok/s", before.throughput(), result.throughput());
+            compareRow(out, name, "p50 ms", before.p50Ms(), result.p50Ms());
+            compareRow(out, name, "p99 ms", before.p99Ms(), result.p99Ms());
+            compareRow(out, name, "p99.9 ms", before.p999Ms(), result.p999Ms());
+        });
+    }
+
+    private static void printRow(PrintStream out, String name, Result result) {
+        out.printf("%-8s %9d %9d %8d %8d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n", name, result.requests(),
+                result.ok(), result.rejected(), result.errors(), result.throughput(), result.p50Ms(),
+                result.p90Ms(), result.p99Ms(), result.p999Ms(), result.maxMs());
+    }
+
+    private static void compareRow(PrintStream out, String name, String metric, double before, double after) {
+        String change = before == 0 ? "n/a" : String.format("%+.1f%%", (after - before) / before * 100);
+        out.printf("%-8s %-10s %12.2f %12.2f %9s%n", name, metric, before, after, change);
+    }
+}
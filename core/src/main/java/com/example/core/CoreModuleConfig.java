@@ -2,9 +2,17 @@ package com.example.core;
 
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.data.repository.config.BootstrapMode;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 @Configuration
 @ComponentScan("com.example.core")
+@EnableTransactionManagement
+// Deferred: repositories are injected as lazy proxies and initialized once the context
+// has refreshed, so a background Hibernate bootstrap (item.startup.background-jpa) does
+// not hold up the beans that depend on them.
+@EnableJpaRepositories(basePackages = "com.example.core.repository", bootstrapMode = BootstrapMode.DEFERRED)
 public class CoreModuleConfig {
     // This class enables component scanning for the core module
-}
\ No newline at end of file
+}
@@ -0,0 +1,22 @@
+package com.example.core.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Enables the read-through item cache. Size and TTL come from
+ * {@code spring.cache.caffeine.spec}; set {@code item.cache.enabled=false} to turn it off.
+ * <p>
+ * The caching advice is ordered outside the transaction advice so that puts and
+ * evictions only happen once the surrounding write has committed, and outside the
+ * {@link CoalescingAdvisor} so that cache hits are not coalesced.
+ */
+@Configuration
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 3)
+@ConditionalOnProperty(name = "item.cache.enabled", havingValue = "true", matchIfMissing = true)
+public class CacheConfig {
+
+    public static final String ITEMS_CACHE = "items";
+}
@@ -0,0 +1,21 @@
+package com.example.core.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a read-only service method whose concurrent calls with equal arguments may share
+ * one invocation: while a call is in flight, identical calls wait for its result instead
+ * of running their own query. See {@link CoalescingAdvisor}.
+ * <p>
+ * Only suitable for methods without side effects whose result callers do not modify,
+ * since every waiting caller receives the same instance.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Coalesced {
+}
@@ -0,0 +1,154 @@
+package com.example.core.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.aop.Advice;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.Pointcut;
+import org.springframework.aop.support.AbstractPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Single-flight for {@link Coalesced} methods: the first call for a method and argument
+ * list runs, and identical calls that arrive while it is in flight wait for its result,
+ * or its exception, instead of running their own. A burst of requests for the same hot
+ * item or search term then costs one query.
+ * <p>
+ * A waiting call gives up after {@code item.coalescing.timeout} and runs on its own, so
+ * a stuck call delays the others by at most that long. Calls on a thread pinned to the
+ * primary by {@link ReadYourWrites} are never coalesced, since they must not receive a
+ * result read from a replica.
+ * <p>
+ * The advice sits inside the cache advice, so only cache misses are coalesced, and
+ * outside the transaction advice, so waiting calls hold no transaction or connection.
+ * Calls are counted as {@code item.coalescing.calls}, tagged {@code leader} (ran),
+ * {@code coalesced} (shared a result) or {@code timeout} (gave up waiting).
+ */
+@Slf4j
+@Component
+@Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+@ConditionalOnProperty(name = "item.coalescing.enabled", havingValue = "true", matchIfMissing = true)
+public class CoalescingAdvisor extends AbstractPointcutAdvisor implements MeterBinder {
+
+    static final String METRIC_NAME = "item.coalescing.calls";
+
+    private final Pointcut pointcut = AnnotationMatchingPointcut.forMethodAnnotation(Coalesced.class);
+
+    private final MethodInterceptor advice = this::invoke;
+
+    private final Map<CallKey, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    private final long timeoutNanos;
+
+    private volatile MeterRegistry registry;
+
+    // Created while bean post-processors are registered, before @Value placeholders are
+    // guaranteed to resolve, so the timeout is bound from the environment directly.
+    public CoalescingAdvisor(Environment environment) {
+        this.timeoutNanos = Binder.get(environment).bind("item.coalescing.timeout", Duration.class)
+                .orElse(Duration.ofSeconds(2)).toNanos();
+        // Between the cache advice and the shard routing and transaction advice.
+        setOrder(Ordered.LOWEST_PRECEDENCE - 2);
+    }
+
+    @Override
+    public Pointcut getPointcut() {
+        return pointcut;
+    }
+
+    @Override
+    public Advice getAdvice() {
+        return advice;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        counters.clear();
+        Gauge.builder("item.coalescing.in-flight", inFlight, Map::size)
+                .description("Coalesced calls currently running")
+                .register(registry);
+    }
+
+    private Object invoke(MethodInvocation invocation) throws Throwable {
+        if (ReadYourWrites.isPinnedToPrimary()) {
+            return invocation.proceed();
+        }
+        Method method = invocation.getMethod();
+        CallKey key = new CallKey(method, Arrays.asList(invocation.getArguments()));
+        CompletableFuture<Object> call = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, call);
+        if (running == null) {
+            return lead(invocation, key, call);
+        }
+        try {
+            Object result = running.get(timeoutNanos, TimeUnit.NANOSECONDS);
+            count(method, "coalesced");
+            return result;
+        } catch (ExecutionException e) {
+            count(method, "coalesced");
+            throw e.getCause();
+        } catch (TimeoutException e) {
+            count(method, "timeout");
+            log.debug("Gave up waiting for in-flight {} after {} ms", method.getName(),
+                    TimeUnit.NANOSECONDS.toMillis(timeoutNanos));
+            return invocation.proceed();
+        }
+    }
+
+    private Object lead(MethodInvocation invocation, CallKey key, CompletableFuture<Object> call) throws Throwable {
+        count(invocation.getMethod(), "leader");
+        try {
+            Object result = invocation.proceed();
+            call.complete(result);
+            return result;
+        } catch (Throwable e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    private void count(Method method, String result) {
+        MeterRegistry meterRegistry = registry;
+        if (meterRegistry == null) {
+            return;
+        }
+        String name = method.getDeclaringClass().getName() + '.' + method.getName() + ':' + result;
+        counters.computeIfAbsent(name, ignored -> Counter.builder(METRIC_NAME)
+                        .description("Calls to coalesced service methods, by whether they ran or shared an in-flight result")
+                        .tag("class", method.getDeclaringClass().getSimpleName())
+                        .tag("method", method.getName())
+                        .tag("result", result)
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    private record CallKey(Method method, List<Object> arguments) {
+    }
+}
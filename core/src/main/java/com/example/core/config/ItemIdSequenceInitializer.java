@@ -0,0 +1,73 @@
+package com.example.core.config;
+
+import com.example.core.entity.Item;
+import com.example.core.entity.ItemIdGenerator;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Moves the item id sequence past the highest id already stored. Rows written while
+ * items still used IDENTITY columns, or inserted outside the application, would
+ * otherwise collide with ids handed out by the pooled generator. With several shards
+ * each shard's sequence is moved past the highest id on that shard.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemIdSequenceInitializer {
+
+    private final PlatformTransactionManager transactionManager;
+
+    private final ItemShards itemShards;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void alignSequence() {
+        itemShards.forEach(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Long maxId = entityManager.createQuery("select max(i.id) from Item i", Long.class).getSingleResult();
+            if (maxId != null) {
+                advanceCurrentShard(maxId);
+            }
+        }));
+    }
+
+    /**
+     * Moves every shard's sequence past {@code id} ahead of inserting rows up to it
+     * outside Hibernate, and drops the ids the generator already holds, which could
+     * otherwise collide with those rows.
+     */
+    public void advancePast(long id) {
+        itemShards.forEach(() -> new TransactionTemplate(transactionManager)
+                .executeWithoutResult(status -> advanceCurrentShard(id)));
+        SessionFactoryImplementor sessionFactory = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactoryImplementor.class);
+        if (sessionFactory.getMappingMetamodel().getEntityDescriptor(Item.class)
+                .getGenerator() instanceof ItemIdGenerator generator) {
+            generator.discardAllocatedIds();
+        }
+    }
+
+    private void advanceCurrentShard(long maxId) {
+        // The pooled optimizer hands out (value - allocationSize, value], so the stored
+        // value has to be at least one allocation ahead of the highest id, which on a
+        // shard is allocated as maxId / shardCount (see ItemIdGenerator).
+        long floor = maxId / itemShards.count() + Item.ID_ALLOCATION_SIZE;
+        int updated = entityManager
+                .createNativeQuery("update " + Item.ID_SEQUENCE + " set next_val = :floor where next_val < :floor")
+                .setParameter("floor", floor)
+                .executeUpdate();
+        if (updated > 0) {
+            log.info("Advanced {} to {} (highest item id is {})", Item.ID_SEQUENCE, floor, maxId);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.core.config;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * The shards items are stored in: a single one unless {@code item.shards.count} is above
+ * 1, which splits items over that many SQLite files by id. Runs work against every
+ * shard, for start-up tasks that prepare each shard and for reads that have to look at
+ * all of them. Work on one item's shard is routed by {@link ShardRoutingAdvisor}.
+ */
+@Component
+public class ItemShards {
+
+    public static final String COUNT_PROPERTY = "item.shards.count";
+
+    private final int count;
+
+    private final TransactionTemplate readTransaction;
+
+    private final ExecutorService readers;
+
+    public ItemShards(PlatformTransactionManager transactionManager,
+            @Value("${" + COUNT_PROPERTY + ":1}") int count,
+            @Value("${spring.datasource.url:}") String url) {
+        if (count < 1) {
+            throw new IllegalArgumentException(COUNT_PROPERTY + " must be at least 1, was " + count);
+        }
+        if (count > 1 && !url.startsWith("jdbc:sqlite:")) {
+            throw new IllegalStateException(COUNT_PROPERTY + " above 1 is only supported for jdbc:sqlite: URLs");
+        }
+        this.count = count;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        // Shard reads run on pool threads, or suspend the caller's transaction, which
+        // belongs to a single shard.
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        AtomicInteger threads = new AtomicInteger();
+        this.readers = count == 1 ? null : Executors.newFixedThreadPool(count, runnable -> {
+            Thread thread = new Thread(runnable, "item-shard-reader-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public boolean isSharded() {
+        return count > 1;
+    }
+
+    public int ownerOf(long id) {
+        return ShardContext.ownerOf(id, count);
+    }
+
+    /**
+     * Runs {@code body} once per shard, in shard order on the calling thread, with the
+     * thread bound to that shard. The body manages its own transactions.
+     */
+    public void forEach(Runnable body) {
+        for (int shard = 0; shard < count; shard++) {
+            ShardContext.run(shard, body);
+        }
+    }
+
+    /**
+     * Runs {@code query} against every shard at once, each in its own read-only
+     * transaction on a pool thread, and returns the results in shard order. With a single
+     * shard the query runs on the calling thread, in the caller's transaction.
+     */
+    public <T> List<T> readEach(Supplier<T> query) {
+        if (readers == null) {
+            return List.of(query.get());
+        }
+        List<Future<T>> pending = new ArrayList<>(count);
+        for (int shard = 0; shard < count; shard++) {
+            int target = shard;
+            pending.add(readers.submit(() -> ShardContext.call(target, () -> readTransaction.execute(status -> query.get()))));
+        }
+        try {
+            List<T> results = new ArrayList<>(count);
+            for (Future<T> result : pending) {
+                results.add(result.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while reading item shards", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            pending.forEach(result -> result.cancel(true));
+        }
+    }
+
+    /**
+     * As {@link #readEach}, but one shard after another on the calling thread, for
+     * queries that feed a consumer that is not thread-safe.
+     */
+    public void readInTurn(Runnable query) {
+        if (readers == null) {
+            query.run();
+            return;
+        }
+        forEach(() -> readTransaction.executeWithoutResult(status -> query.run()));
+    }
+
+    @PreDestroy
+    public void close() {
+        if (readers != null) {
+            readers.shutdownNow();
+        }
+    }
+}
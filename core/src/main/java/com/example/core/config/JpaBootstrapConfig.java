@@ -0,0 +1,37 @@
+package com.example.core.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.orm.jpa.AbstractEntityManagerFactoryBean;
+
+/**
+ * Boots Hibernate on a background thread, enabled with
+ * {@code item.startup.background-jpa=true}. The entity manager factory bean returns a
+ * proxy straight away and the rest of the context (web server, actuator, springdoc)
+ * starts alongside Hibernate; the first call on the proxy waits for it to finish.
+ * <p>
+ * Only pays off because the repositories are bootstrapped in deferred mode (see
+ * {@link com.example.core.CoreModuleConfig}): otherwise the first bean that injects one
+ * would wait for Hibernate anyway.
+ */
+@Configuration
+@ConditionalOnProperty(name = "item.startup.background-jpa", havingValue = "true")
+public class JpaBootstrapConfig {
+
+    @Bean
+    public static BeanPostProcessor backgroundJpaBootstrapPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof AbstractEntityManagerFactoryBean factoryBean
+                        && factoryBean.getBootstrapExecutor() == null) {
+                    factoryBean.setBootstrapExecutor(new SimpleAsyncTaskExecutor("jpa-bootstrap-"));
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.core.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends connections requested inside a {@code @Transactional(readOnly = true)} transaction
+ * to one of the read data sources and everything else to the write data source. With
+ * several read data sources each read picks one by {@link Balancing}. When read-your-writes
+ * is on, reads on a thread {@link ReadYourWrites pinned} to the primary go to the write
+ * data source as well.
+ * <p>
+ * The read-only flag is only known once the transaction has been set up, so this must
+ * sit behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}
+ * that defers fetching the physical connection until the first statement.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Route {
+        WRITE
+    }
+
+    public enum Balancing {
+        ROUND_ROBIN,
+        // Fewest connections in use, for Hikari pools; other data sources count as idle.
+        LEAST_CONNECTIONS;
+
+        public static Balancing parse(String value) {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        }
+    }
+
+    private final List<DataSource> readDataSources;
+
+    private final Balancing balancing;
+
+    private final boolean readYourWrites;
+
+    private final AtomicInteger nextRead = new AtomicInteger();
+
+    public ReadWriteRoutingDataSource(DataSource writeDataSource, DataSource readDataSource) {
+        this(writeDataSource, List.of(readDataSource), Balancing.ROUND_ROBIN, false);
+    }
+
+    public ReadWriteRoutingDataSource(DataSource writeDataSource, List<? extends DataSource> readDataSources,
+            Balancing balancing, boolean readYourWrites) {
+        if (readDataSources.isEmpty()) {
+            throw new IllegalArgumentException("At least one read data source is required");
+        }
+        this.readDataSources = List.copyOf(readDataSources);
+        this.balancing = balancing;
+        this.readYourWrites = readYourWrites;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(Route.WRITE, writeDataSource);
+        for (int i = 0; i < this.readDataSources.size(); i++) {
+            targets.put(i, this.readDataSources.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(writeDataSource);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || (readYourWrites && ReadYourWrites.isPinnedToPrimary())) {
+            return Route.WRITE;
+        }
+        if (readDataSources.size() == 1) {
+            return 0;
+        }
+        return balancing == Balancing.LEAST_CONNECTIONS ? leastConnections() : roundRobin();
+    }
+
+    private int roundRobin() {
+        return Math.floorMod(nextRead.getAndIncrement(), readDataSources.size());
+    }
+
+    private int leastConnections() {
+        // Start the scan at the round-robin position so ties spread evenly.
+        int start = roundRobin();
+        int best = start;
+        int bestActive = Integer.MAX_VALUE;
+        for (int i = 0; i < readDataSources.size(); i++) {
+            int candidate = (start + i) % readDataSources.size();
+            int active = activeConnections(readDataSources.get(candidate));
+            if (active < bestActive) {
+                best = candidate;
+                bestActive = active;
+            }
+        }
+        return best;
+    }
+
+    private static int activeConnections(DataSource dataSource) {
+        if (dataSource instanceof HikariDataSource hikari) {
+            HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+            return pool == null ? 0 : pool.getActiveConnections();
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.core.config;
+
+/**
+ * Thread-bound deadline until which read-only transactions on the current thread are
+ * served by the primary rather than a replica, so a caller sees its own writes even
+ * while replicas lag. Set after a committed write by {@link ReadYourWritesTracker}, and
+ * by the web layer from the client's previous requests.
+ */
+public final class ReadYourWrites {
+
+    private static final ThreadLocal<Long> PRIMARY_UNTIL = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+    }
+
+    /**
+     * Pins the current thread to the primary until the given time in epoch milliseconds,
+     * unless it is already pinned for longer.
+     */
+    public static void pinToPrimaryUntil(long epochMillis) {
+        Long current = PRIMARY_UNTIL.get();
+        if (current == null || current < epochMillis) {
+            PRIMARY_UNTIL.set(epochMillis);
+        }
+    }
+
+    public static boolean isPinnedToPrimary() {
+        Long until = PRIMARY_UNTIL.get();
+        return until != null && System.currentTimeMillis() < until;
+    }
+
+    /**
+     * Returns the current pin in epoch milliseconds, or 0 if the thread is not pinned.
+     */
+    public static long pinnedUntil() {
+        Long until = PRIMARY_UNTIL.get();
+        return until == null ? 0 : until;
+    }
+
+    public static void clear() {
+        PRIMARY_UNTIL.remove();
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.core.config;
+
+import com.example.core.event.ItemChangeEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+
+/**
+ * Pins the writing thread to the primary for {@code item.datasource.read-your-writes}
+ * once an item write has committed.
+ */
+@Component
+@ConditionalOnExpression(ReplicaDataSourceConfig.REPLICAS_CONFIGURED)
+public class ReadYourWritesTracker {
+
+    private final long windowMillis;
+
+    public ReadYourWritesTracker(@Value("${item.datasource.read-your-writes:2s}") Duration window) {
+        this.windowMillis = window.toMillis();
+    }
+
+    public long windowMillis() {
+        return windowMillis;
+    }
+
+    // Runs before other listeners, so they can read the new pin.
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener
+    public void onItemChanged(ItemChangeEvent event) {
+        if (windowMillis > 0) {
+            ReadYourWrites.pinToPrimaryUntil(System.currentTimeMillis() + windowMillis);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.core.config;
+
+import com.example.core.metrics.HikariPoolMetrics;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replicas for non-SQLite databases, enabled by listing their JDBC URLs in
+ * {@code item.datasource.replica-urls}. Read-only transactions are spread over the
+ * replicas by {@code item.datasource.replica-balancing} ({@code round-robin} or
+ * {@code least-connections}); everything else goes to {@code spring.datasource.url}.
+ * Replicas use the primary's credentials and {@code spring.datasource.hikari.*} settings.
+ * <p>
+ * For {@code item.datasource.read-your-writes} after a committed write, reads on the same
+ * thread, and from the same client when the web layer carries the pin across requests,
+ * stay on the primary.
+ */
+@Configuration
+@ConditionalOnExpression(ReplicaDataSourceConfig.REPLICAS_CONFIGURED)
+@RequiredArgsConstructor
+public class ReplicaDataSourceConfig implements DisposableBean {
+
+    public static final String REPLICAS_CONFIGURED = "!" + SQLiteConfig.SQLITE_URL
+            + " and '${item.datasource.replica-urls:}'.trim().length() > 0";
+
+    private final HikariPoolMetrics poolMetrics;
+
+    private final List<HikariDataSource> replicas = new ArrayList<>();
+
+    @Value("${item.datasource.replica-urls}")
+    private List<String> replicaUrls;
+
+    @Value("${item.datasource.replica-balancing:round-robin}")
+    private String balancing;
+
+    @Value("${item.datasource.read-your-writes:2s}")
+    private Duration readYourWrites;
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        dataSource.setMetricsTrackerFactory(poolMetrics);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource) {
+        for (String url : replicaUrls) {
+            if (!StringUtils.hasText(url)) {
+                continue;
+            }
+            HikariConfig config = new HikariConfig();
+            primaryDataSource.copyStateTo(config);
+            config.setJdbcUrl(url.trim());
+            config.setPoolName("replica-" + (replicas.size() + 1));
+            config.setReadOnly(true);
+            replicas.add(new HikariDataSource(config));
+        }
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primaryDataSource, replicas,
+                ReadWriteRoutingDataSource.Balancing.parse(balancing), !readYourWrites.isZero()));
+    }
+
+    @Override
+    public void destroy() {
+        replicas.forEach(HikariDataSource::close);
+    }
+}
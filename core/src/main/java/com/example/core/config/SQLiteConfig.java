@@ -1,29 +1,176 @@
 package com.example.core.config;
 
+import com.example.core.metrics.HikariPoolMetrics;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.RequiredArgsConstructor;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
-import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
 import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
 import org.springframework.transaction.PlatformTransactionManager;
-import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.sqlite.SQLiteConfig.JournalMode;
+import org.sqlite.SQLiteConfig.Pragma;
+import org.sqlite.SQLiteConfig.SynchronousMode;
+import org.sqlite.SQLiteDataSource;
 
 import javax.sql.DataSource;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
+/**
+ * Database setup for {@code jdbc:sqlite:} URLs. Other URLs (MySQL in the prod profile)
+ * fall through to Spring Boot's auto-configured pool and entity manager.
+ * <p>
+ * The database runs in WAL mode with a small write pool and a separate pool of
+ * read-only connections. Read-only transactions are routed to the read pool so they
+ * never wait behind a writer; write transactions are serialized by
+ * {@link SQLiteTransactionManager}.
+ * <p>
+ * With {@code item.shards.count} above 1 items are split over that many database files,
+ * named after the configured one with a {@code -shard<n>} suffix, each with its own
+ * pools and write lock. Connections go to the {@link ShardContext current shard}. Each
+ * file records which shard of how many it was created as, and startup fails if that no
+ * longer matches {@code item.shards.count}.
+ */
 @Configuration
-@EnableTransactionManagement
-@EnableJpaRepositories(basePackages = "com.example.core.repository")
+@ConditionalOnExpression(SQLiteConfig.SQLITE_URL)
+@RequiredArgsConstructor
 public class SQLiteConfig {
 
+    public static final String SQLITE_URL = "'${spring.datasource.url:}'.startsWith('jdbc:sqlite:')";
+
+    public static final String MYSQL_URL = "'${spring.datasource.url:}'.startsWith('jdbc:mysql:')";
+
+    // One connection for the write transaction plus one for Hibernate's id allocation,
+    // which the pooled sequence generator runs on a separate connection.
+    private static final int WRITE_POOL_SIZE = 2;
+
+    private final HikariPoolMetrics poolMetrics;
+
+    @Value("${spring.datasource.url}")
+    private String url;
+
+    @Value("${spring.jpa.hibernate.ddl-auto:none}")
+    private String ddlAuto;
+
+    @Value("${sqlite.read-pool-size:4}")
+    private int readPoolSize;
+
+    @Value("${sqlite.busy-timeout:5000}")
+    private int busyTimeout;
+
+    @Value("${sqlite.cache-size:-16000}")
+    private int cacheSize;
+
+    @Value("${sqlite.mmap-size:268435456}")
+    private long mmapSize;
+
+    @Value("${sqlite.write-lock-timeout:30000}")
+    private long writeLockTimeout;
+
+    @Value("${" + ItemShards.COUNT_PROPERTY + ":1}")
+    private int shardCount;
+
+    @Bean(destroyMethod = "close")
+    public HikariDataSource sqliteWriteDataSource() {
+        return pool("sqlite-write", 0, WRITE_POOL_SIZE, false);
+    }
+
+    @Bean(destroyMethod = "close")
+    public HikariDataSource sqliteReadDataSource() {
+        // The write pool has to open the file first: it creates the database and
+        // switches it to WAL, which read-only connections cannot do.
+        sqliteWriteDataSource();
+        return pool("sqlite-read", 0, readPoolSize, true);
+    }
+
+    /**
+     * Pools of the shards after the first, which uses the two pools above; empty
+     * unless items are sharded.
+     */
+    @Bean(destroyMethod = "close")
+    public ShardPools sqliteShardPools() {
+        ShardPools pools = new ShardPools(new ArrayList<>(), new ArrayList<>());
+        for (int shard = 1; shard < shardCount; shard++) {
+            pools.write().add(pool("sqlite-write", shard, WRITE_POOL_SIZE, false));
+            pools.read().add(pool("sqlite-read", shard, readPoolSize, true));
+        }
+        return pools;
+    }
+
     @Bean
+    @Primary
     public DataSource dataSource() {
-        DriverManagerDataSource dataSource = new DriverManagerDataSource();
-        dataSource.setDriverClassName("org.sqlite.JDBC");
-        dataSource.setUrl("jdbc:sqlite:database.db");
-        return dataSource;
+        List<DataSource> shards = new ArrayList<>();
+        shards.add(new ReadWriteRoutingDataSource(sqliteWriteDataSource(), sqliteReadDataSource()));
+        ShardPools pools = sqliteShardPools();
+        for (int i = 0; i < pools.write().size(); i++) {
+            shards.add(new ReadWriteRoutingDataSource(pools.write().get(i), pools.read().get(i)));
+        }
+        return new LazyConnectionDataSourceProxy(shards.size() == 1 ? shards.get(0) : new ShardRoutingDataSource(shards));
+    }
+
+    /**
+     * Applies the migrations to every shard file in turn, with the shard's index and the
+     * shard count as placeholders for the {@code item_shard} row, then checks that row.
+     * Flyway's connections follow the current shard like any other.
+     */
+    @Bean
+    public FlywayMigrationStrategy sqliteFlywayMigrationStrategy() {
+        return flyway -> {
+            checkNoFilesOfOtherLayout();
+            for (int shard = 0; shard < shardCount; shard++) {
+                Map<String, String> placeholders = new HashMap<>(flyway.getConfiguration().getPlaceholders());
+                placeholders.put("shard-index", String.valueOf(shard));
+                placeholders.put("shard-count", String.valueOf(shardCount));
+                Flyway shardFlyway = Flyway.configure().configuration(flyway.getConfiguration())
+                        .placeholders(placeholders).load();
+                int index = shard;
+                ShardContext.run(shard, () -> {
+                    shardFlyway.migrate();
+                    checkShardRecord(shardFlyway.getConfiguration().getDataSource(), index);
+                });
+            }
+        };
+    }
+
+    // Items in a file of another layout would be silently left out, and new ones given
+    // ids another layout routes elsewhere.
+    private void checkNoFilesOfOtherLayout() {
+        if (isInMemory(url)) {
+            return;
+        }
+        String other = shardCount == 1 ? suffixedUrl(url, 0) : url;
+        Path file = Path.of(filePath(other));
+        if (Files.exists(file)) {
+            throw new IllegalStateException(file + " belongs to a layout with " + (shardCount == 1 ? "several shards" : "one shard")
+                    + ", but " + ItemShards.COUNT_PROPERTY + " is " + shardCount
+                    + "; move its items to the new layout before changing the shard count");
+        }
+    }
+
+    private void checkShardRecord(DataSource dataSource, int shard) {
+        int[] recorded = new JdbcTemplate(dataSource).queryForObject(
+                "SELECT shard_index, shard_count FROM item_shard WHERE id = 1",
+                (rs, row) -> new int[] { rs.getInt("shard_index"), rs.getInt("shard_count") });
+        if (recorded[0] != shard || recorded[1] != shardCount) {
+            throw new IllegalStateException(filePath(shardUrl(shard)) + " was created as shard " + recorded[0] + " of "
+                    + recorded[1] + ", but is opened as shard " + shard + " of " + shardCount
+                    + "; move its items to the new layout before changing " + ItemShards.COUNT_PROPERTY);
+        }
     }
 
     @Bean
@@ -32,22 +179,94 @@ public class SQLiteConfig {
         em.setDataSource(dataSource());
         em.setPackagesToScan("com.example.core.entity");
         em.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
-        
+
         Properties properties = new Properties();
         properties.setProperty("hibernate.dialect", "org.hibernate.community.dialect.SQLiteDialect");
-        properties.setProperty("hibernate.hbm2ddl.auto", "update");
-        properties.setProperty("hibernate.show_sql", "true");
-        properties.setProperty("hibernate.format_sql", "true");
-        
+        properties.setProperty("hibernate.hbm2ddl.auto", ddlAuto);
+        // Read metadata only for mapped tables: the untyped columns of the FTS5 search
+        // table make Hibernate's default schema-wide extraction fail on startup.
+        properties.setProperty("hibernate.hbm2ddl.jdbc_metadata_extraction_strategy", "individually");
+        properties.setProperty("hibernate.jdbc.batch_size", "50");
+        properties.setProperty("hibernate.order_inserts", "true");
+        properties.setProperty("hibernate.order_updates", "true");
+        // Read by the item id generator, which hands out ids per shard.
+        properties.setProperty(ItemShards.COUNT_PROPERTY, String.valueOf(shardCount));
+
         em.setJpaProperties(properties);
-        
+
         return em;
     }
 
     @Bean
     public PlatformTransactionManager transactionManager() {
-        JpaTransactionManager transactionManager = new JpaTransactionManager();
+        SQLiteTransactionManager transactionManager = new SQLiteTransactionManager(writeLockTimeout, shardCount);
         transactionManager.setEntityManagerFactory(entityManagerFactory().getObject());
         return transactionManager;
     }
-}
\ No newline at end of file
+
+    private HikariDataSource pool(String name, int shard, int size, boolean readOnly) {
+        org.sqlite.SQLiteConfig pragmas = new org.sqlite.SQLiteConfig();
+        if (!readOnly) {
+            pragmas.setJournalMode(JournalMode.WAL);
+        }
+        pragmas.setReadOnly(readOnly);
+        pragmas.setSynchronous(SynchronousMode.NORMAL);
+        pragmas.setBusyTimeout(busyTimeout);
+        pragmas.setCacheSize(cacheSize);
+        pragmas.setPragma(Pragma.MMAP_SIZE, String.valueOf(mmapSize));
+
+        SQLiteDataSource sqlite = new SQLiteDataSource(pragmas);
+        sqlite.setUrl(shardUrl(shard));
+
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(shardCount > 1 ? name + "-shard" + shard : name);
+        config.setDataSource(sqlite);
+        config.setMaximumPoolSize(size);
+        config.setMinimumIdle(1);
+        config.setReadOnly(readOnly);
+        config.setMetricsTrackerFactory(poolMetrics);
+        return new HikariDataSource(config);
+    }
+
+    private String shardUrl(int shard) {
+        if (shardCount == 1) {
+            return url;
+        }
+        if (isInMemory(url)) {
+            throw new IllegalStateException(ItemShards.COUNT_PROPERTY + " above 1 needs a database file, not " + url);
+        }
+        return suffixedUrl(url, shard);
+    }
+
+    private static boolean isInMemory(String url) {
+        String path = filePath(url);
+        return path.isEmpty() || path.contains(":memory:");
+    }
+
+    // jdbc:sqlite:database.db?foo=bar is the file database.db.
+    private static String filePath(String url) {
+        int query = url.indexOf('?');
+        return (query < 0 ? url : url.substring(0, query)).substring("jdbc:sqlite:".length());
+    }
+
+    // database.db becomes database-shard0.db, database-shard1.db, ...
+    private static String suffixedUrl(String url, int shard) {
+        int query = url.indexOf('?');
+        String path = query < 0 ? url : url.substring(0, query);
+        String parameters = query < 0 ? "" : url.substring(query);
+        int extension = path.lastIndexOf('.');
+        if (extension <= path.lastIndexOf('/') || extension <= "jdbc:sqlite:".length()) {
+            extension = path.length();
+        }
+        return path.substring(0, extension) + "-shard" + shard + path.substring(extension) + parameters;
+    }
+
+    public record ShardPools(List<HikariDataSource> write, List<HikariDataSource> read) implements AutoCloseable {
+
+        @Override
+        public void close() {
+            write.forEach(HikariDataSource::close);
+            read.forEach(HikariDataSource::close);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.core.config;
+
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * SQLite allows a single writer per database file. Read-write transactions queue on a
+ * fair lock here, so they run one at a time instead of failing with {@code SQLITE_BUSY}
+ * when a second writer, or a deferred transaction that read first, tries to upgrade.
+ * Read-only transactions never take the lock. With several shards each shard file has
+ * its own lock, taken for the {@link ShardContext current shard}, so writes to
+ * different shards run side by side.
+ */
+public class SQLiteTransactionManager extends JpaTransactionManager {
+
+    private final ReentrantLock[] writeLocks;
+
+    private final ThreadLocal<Deque<LockingTransaction>> lockingTransactions = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private final long writeLockTimeoutMillis;
+
+    public SQLiteTransactionManager(long writeLockTimeoutMillis) {
+        this(writeLockTimeoutMillis, 1);
+    }
+
+    public SQLiteTransactionManager(long writeLockTimeoutMillis, int shardCount) {
+        this.writeLockTimeoutMillis = writeLockTimeoutMillis;
+        this.writeLocks = new ReentrantLock[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            writeLocks[i] = new ReentrantLock(true);
+        }
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        if (definition.isReadOnly()) {
+            super.doBegin(transaction, definition);
+            return;
+        }
+        ReentrantLock writeLock = writeLocks[ShardContext.current()];
+        acquireWriteLock(writeLock, definition);
+        lockingTransactions.get().push(new LockingTransaction(transaction, writeLock));
+        try {
+            super.doBegin(transaction, definition);
+        } catch (RuntimeException | Error ex) {
+            releaseWriteLock(transaction);
+            throw ex;
+        }
+    }
+
+    @Override
+    protected void doCleanupAfterCompletion(Object transaction) {
+        try {
+            super.doCleanupAfterCompletion(transaction);
+        } finally {
+            releaseWriteLock(transaction);
+        }
+    }
+
+    private void acquireWriteLock(ReentrantLock writeLock, TransactionDefinition definition) {
+        long timeoutMillis = definition.getTimeout() != TransactionDefinition.TIMEOUT_DEFAULT
+                ? TimeUnit.SECONDS.toMillis(definition.getTimeout())
+                : writeLockTimeoutMillis;
+        try {
+            if (!writeLock.tryLock(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new CannotCreateTransactionException(
+                        "Timed out after " + timeoutMillis + " ms waiting for the SQLite write lock");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new CannotCreateTransactionException("Interrupted while waiting for the SQLite write lock", ex);
+        }
+    }
+
+    private void releaseWriteLock(Object transaction) {
+        Deque<LockingTransaction> transactions = lockingTransactions.get();
+        LockingTransaction latest = transactions.peek();
+        if (latest != null && latest.transaction() == transaction) {
+            transactions.pop();
+            latest.writeLock().unlock();
+        }
+    }
+
+    private record LockingTransaction(Object transaction, ReentrantLock writeLock) {
+    }
+}
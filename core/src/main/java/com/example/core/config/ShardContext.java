@@ -0,0 +1,65 @@
+package com.example.core.config;
+
+import java.util.function.Supplier;
+
+/**
+ * Thread-bound item shard that transactions on the current thread run against, read by
+ * {@link ShardRoutingDataSource}, {@link SQLiteTransactionManager} and the item id
+ * generator. Set around calls by {@link ShardRoutingAdvisor} and {@link ItemShards};
+ * a thread without a shard uses shard 0, the only shard unless
+ * {@code item.shards.count} is above 1.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> SHARD = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static int current() {
+        Integer shard = SHARD.get();
+        return shard == null ? 0 : shard;
+    }
+
+    /**
+     * Runs {@code body} with the current thread bound to the given shard, restoring the
+     * previous shard afterwards.
+     */
+    public static <T> T call(int shard, Supplier<T> body) {
+        Integer previous = bind(shard);
+        try {
+            return body.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    public static void run(int shard, Runnable body) {
+        call(shard, () -> {
+            body.run();
+            return null;
+        });
+    }
+
+    static Integer bind(int shard) {
+        Integer previous = SHARD.get();
+        SHARD.set(shard);
+        return previous;
+    }
+
+    static void restore(Integer previous) {
+        if (previous == null) {
+            SHARD.remove();
+        } else {
+            SHARD.set(previous);
+        }
+    }
+
+    /**
+     * Returns the shard that owns the item with the given id. Ids are generated so that
+     * an item's id modulo the shard count is the shard it was created on.
+     */
+    public static int ownerOf(long id, int shardCount) {
+        return (int) Math.floorMod(id, (long) shardCount);
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.core.config;
+
+import com.example.core.entity.Item;
+import org.aopalliance.aop.Advice;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.Pointcut;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.aop.support.AbstractPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Binds {@link Sharded} methods to the shard that owns their items before their
+ * transaction starts, so the transaction's connection, write lock and new ids all come
+ * from that shard. Only registered when {@code item.shards.count} is above 1.
+ * <p>
+ * The advice sits inside the {@link CoalescingAdvisor}, so a coalesced call is routed
+ * once, and outside the transaction advice, which has to see the shard when it begins.
+ */
+@Component
+@Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+@ConditionalOnExpression("${item.shards.count:1} > 1")
+public class ShardRoutingAdvisor extends AbstractPointcutAdvisor {
+
+    private final Pointcut pointcut = AnnotationMatchingPointcut.forMethodAnnotation(Sharded.class);
+
+    private final MethodInterceptor advice = this::invoke;
+
+    private final AtomicInteger nextShard = new AtomicInteger();
+
+    private final int shardCount;
+
+    // Created while bean post-processors are registered, so the shard count is bound
+    // from the environment directly, as in CoalescingAdvisor.
+    @Autowired
+    public ShardRoutingAdvisor(Environment environment) {
+        this(Binder.get(environment).bind(ItemShards.COUNT_PROPERTY, Integer.class).orElse(1));
+    }
+
+    ShardRoutingAdvisor(int shardCount) {
+        this.shardCount = shardCount;
+        // Between the coalescing advice and the transaction advice (LOWEST_PRECEDENCE).
+        setOrder(Ordered.LOWEST_PRECEDENCE - 1);
+    }
+
+    @Override
+    public Pointcut getPointcut() {
+        return pointcut;
+    }
+
+    @Override
+    public Advice getAdvice() {
+        return advice;
+    }
+
+    private Object invoke(MethodInvocation invocation) throws Throwable {
+        Sharded sharded = invocation.getMethod().getAnnotation(Sharded.class);
+        Object[] arguments = invocation.getArguments();
+        return switch (sharded.value()) {
+            case ID -> proceedOn(shardOf(arguments[0]), invocation);
+            case NEW -> proceedOn(nextShard(), invocation);
+            case IDS -> split(invocation, (Collection<?>) arguments[0]);
+            case IDS_OF_ONE_SHARD -> proceedOn(onlyShard(invocation, (Collection<?>) arguments[0]), invocation);
+        };
+    }
+
+    // The one shard that owns all the ids, or 0 if there are none; a write across shards
+    // could half-commit, so it is refused.
+    private int onlyShard(MethodInvocation invocation, Collection<?> keys) {
+        Set<Integer> shards = new TreeSet<>();
+        for (Object key : keys) {
+            Long id = key instanceof Item item ? item.getId() : (Long) key;
+            if (id != null) {
+                shards.add(ShardContext.ownerOf(id, shardCount));
+            }
+        }
+        if (shards.size() > 1) {
+            throw new IllegalArgumentException(invocation.getMethod().getName()
+                    + " takes the ids of one shard, got ids of shards " + shards + "; split the call by shard");
+        }
+        return shards.isEmpty() ? 0 : shards.iterator().next();
+    }
+
+    private Object split(MethodInvocation invocation, Collection<?> keys) throws Throwable {
+        Map<Integer, List<Object>> shares = new TreeMap<>();
+        for (Object key : keys) {
+            shares.computeIfAbsent(ShardContext.ownerOf((Long) key, shardCount), shard -> new ArrayList<>()).add(key);
+        }
+        if (shares.size() <= 1) {
+            int shard = shares.isEmpty() ? 0 : shares.keySet().iterator().next();
+            return proceedOn(shard, invocation);
+        }
+        Class<?> resultType = invocation.getMethod().getReturnType();
+        List<Object> items = new ArrayList<>();
+        long total = 0;
+        for (Map.Entry<Integer, List<Object>> share : shares.entrySet()) {
+            Object[] arguments = invocation.getArguments().clone();
+            arguments[0] = share.getValue();
+            MethodInvocation call = ((ProxyMethodInvocation) invocation).invocableClone(arguments);
+            Object result = proceedOn(share.getKey(), call);
+            if (result instanceof Collection<?> collection) {
+                items.addAll(collection);
+            } else if (result instanceof Number number) {
+                total += number.longValue();
+            }
+        }
+        if (List.class.isAssignableFrom(resultType)) {
+            return items;
+        }
+        if (resultType == int.class || resultType == Integer.class) {
+            return Math.toIntExact(total);
+        }
+        if (resultType == long.class || resultType == Long.class) {
+            return total;
+        }
+        return null;
+    }
+
+    private int shardOf(Object key) {
+        Long id = key instanceof Item item ? item.getId() : (Long) key;
+        return id == null ? nextShard() : ShardContext.ownerOf(id, shardCount);
+    }
+
+    private int nextShard() {
+        return Math.floorMod(nextShard.getAndIncrement(), shardCount);
+    }
+
+    private static Object proceedOn(int shard, MethodInvocation invocation) throws Throwable {
+        Integer previous = ShardContext.bind(shard);
+        try {
+            return invocation.proceed();
+        } finally {
+            ShardContext.restore(previous);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.core.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a service method whose transaction belongs on the shard that owns the items it
+ * touches, as picked from its first argument by {@link ShardRoutingAdvisor}. Has no
+ * effect unless {@code item.shards.count} is above 1.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Sharded {
+
+    By value();
+
+    enum By {
+        /**
+         * The first argument is an item id, or an {@link com.example.core.entity.Item};
+         * an item without an id is new and goes to the next shard in turn.
+         */
+        ID,
+        /**
+         * The method only creates items; they all go to the next shard in turn.
+         */
+        NEW,
+        /**
+         * The first argument is a collection of item ids, and the method only reads. It
+         * runs once per owning shard with that shard's share, each in its own
+         * transaction; list results are concatenated and numeric results added up.
+         */
+        IDS,
+        /**
+         * The first argument is a collection of item ids or items, and the method writes.
+         * The ids must all belong to one shard, so the call stays a single transaction;
+         * a call with ids of several shards is rejected with an
+         * {@link IllegalArgumentException} before anything is written. Split such calls
+         * by shard first, as {@link com.example.core.service.ItemBatchService} does.
+         * Items without an id go along with the others.
+         */
+        IDS_OF_ONE_SHARD
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.core.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of one chunk of a bulk write. Each chunk commits on its own, so a failed
+ * chunk leaves the chunks before it in place.
+ *
+ * @param chunk      zero-based chunk index within the request
+ * @param size       number of records the chunk contained
+ * @param affected   rows created, updated or deleted
+ * @param committed  whether the chunk's transaction committed
+ * @param ids        ids of the created or updated items, or the ids submitted for deletion
+ * @param missingIds ids that did not match an existing item (updates only)
+ * @param error      failure message when the chunk was rolled back
+ */
+public record ItemBatchResult(int chunk, int size, int affected, boolean committed,
+        List<Long> ids, List<Long> missingIds, String error) {
+
+    public static ItemBatchResult committed(int chunk, int size, int affected, List<Long> ids, List<Long> missingIds) {
+        return new ItemBatchResult(chunk, size, affected, true, ids, missingIds, null);
+    }
+
+    public static ItemBatchResult failed(int chunk, int size, String error) {
+        return new ItemBatchResult(chunk, size, 0, false, null, null, error);
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.core.dto;
+
+import com.example.core.entity.Item;
+import com.example.core.event.ItemChangeEvent;
+
+/**
+ * One committed item change as recorded in the {@link com.example.core.event.ItemChangeLog}.
+ *
+ * @param seq  position in the log; strictly increasing
+ * @param type what happened to the item
+ * @param id   id of the item
+ * @param item the item as written (see {@link ItemChangeEvent}), or {@code null} for deletions
+ */
+public record ItemChange(long seq, ItemChangeEvent.Type type, Long id, Item item) {
+}
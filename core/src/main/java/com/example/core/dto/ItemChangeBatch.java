@@ -0,0 +1,16 @@
+package com.example.core.dto;
+
+import java.util.List;
+
+/**
+ * Changes read from the {@link com.example.core.event.ItemChangeLog} after a given
+ * sequence number. When {@code resyncRequired} is set the changes the reader asked for
+ * are no longer in the log, or were never in it, and {@code changes} is empty: the
+ * reader has to reload the items and continue from {@code latest}.
+ */
+public record ItemChangeBatch(List<ItemChange> changes, boolean resyncRequired, long latest) {
+
+    public static ItemChangeBatch resync(long latest) {
+        return new ItemChangeBatch(List.of(), true, latest);
+    }
+}
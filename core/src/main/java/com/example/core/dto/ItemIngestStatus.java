@@ -0,0 +1,28 @@
+package com.example.core.dto;
+
+/**
+ * Progress of an item accepted for write-behind ingestion.
+ *
+ * @param id     tracking id handed out when the item was accepted
+ * @param state  whether the item is still queued, committed or failed
+ * @param itemId id of the created item once committed
+ * @param error  failure message when the item could not be written
+ */
+public record ItemIngestStatus(String id, State state, Long itemId, String error) {
+
+    public enum State {
+        PENDING, COMMITTED, FAILED
+    }
+
+    public static ItemIngestStatus pending(String id) {
+        return new ItemIngestStatus(id, State.PENDING, null, null);
+    }
+
+    public static ItemIngestStatus committed(String id, Long itemId) {
+        return new ItemIngestStatus(id, State.COMMITTED, itemId, null);
+    }
+
+    public static ItemIngestStatus failed(String id, String error) {
+        return new ItemIngestStatus(id, State.FAILED, null, error);
+    }
+}
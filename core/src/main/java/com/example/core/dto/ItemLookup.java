@@ -0,0 +1,14 @@
+package com.example.core.dto;
+
+import com.example.core.entity.Item;
+
+import java.util.List;
+
+/**
+ * Result of looking up several items by id.
+ *
+ * @param items      the items found, in the order their ids were first requested
+ * @param missingIds requested ids that matched no item, in request order
+ */
+public record ItemLookup(List<Item> items, List<Long> missingIds) {
+}
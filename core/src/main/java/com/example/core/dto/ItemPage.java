@@ -0,0 +1,10 @@
+package com.example.core.dto;
+
+import java.util.List;
+
+/**
+ * One keyset page of items ordered by id. {@code nextCursor} is the id to pass as
+ * {@code after} for the following page, or {@code null} once the end is reached.
+ */
+public record ItemPage(List<ItemView> items, Long nextCursor) {
+}
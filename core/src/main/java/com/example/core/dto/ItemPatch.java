@@ -0,0 +1,12 @@
+package com.example.core.dto;
+
+/**
+ * Partial update of an item. Fields left {@code null} keep their current value, so a
+ * patch cannot clear a field; use a full update for that.
+ */
+public record ItemPatch(String name, String description, Double price) {
+
+    public boolean isEmpty() {
+        return name == null && description == null && price == null;
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.core.dto;
+
+import java.time.Instant;
+
+/**
+ * A binary snapshot of the item table stored on the server.
+ *
+ * @param name       name the snapshot was saved under
+ * @param items      number of items it holds
+ * @param maxId      highest item id it holds, or 0 when it is empty
+ * @param bytes      file size
+ * @param checksum   CRC32C of the rows, as eight hex digits
+ * @param modifiedAt when the file was last written
+ */
+public record ItemSnapshot(String name, long items, long maxId, long bytes, String checksum, Instant modifiedAt) {
+}
@@ -0,0 +1,25 @@
+package com.example.core.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Aggregate figures over the whole item catalogue.
+ *
+ * @param count        number of items
+ * @param pricedCount  number of items with a price
+ * @param minPrice     lowest price, or {@code null} when no item has a price
+ * @param maxPrice     highest price, or {@code null} when no item has a price
+ * @param averagePrice mean price of the priced items, or {@code null} when there are none
+ * @param priceBuckets priced items counted by price range, lowest range first
+ * @param reconciledAt when the figures were last rebuilt from the database
+ */
+public record ItemStats(long count, long pricedCount, Double minPrice, Double maxPrice, Double averagePrice,
+        List<Bucket> priceBuckets, Instant reconciledAt) {
+
+    /**
+     * Items priced within {@code [from, to)}; a {@code null} bound leaves that side open.
+     */
+    public record Bucket(Double from, Double to, long count) {
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.core.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Read-only copy of an item for listings, built straight from the selected columns
+ * without a managed entity behind it. Fields that were not selected are {@code null}
+ * and left out of the JSON.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ItemView(Long id, String name, String description, Double price, Long version) {
+
+    public enum Field {
+        ID,
+        NAME,
+        DESCRIPTION,
+        PRICE,
+        VERSION;
+
+        public static final Set<Field> ALL = Set.copyOf(EnumSet.allOf(Field.class));
+
+        /**
+         * Parses field names case-insensitively. The id is always included, since
+         * listings are keyed and paged by it.
+         *
+         * @throws IllegalArgumentException if a name is not a field
+         */
+        public static Set<Field> parse(Collection<String> names) {
+            EnumSet<Field> fields = EnumSet.of(ID);
+            for (String name : names) {
+                if (!name.isBlank()) {
+                    fields.add(valueOf(name.trim().toUpperCase(Locale.ROOT)));
+                }
+            }
+            return fields;
+        }
+    }
+}
@@ -1,21 +1,39 @@
 package com.example.core.entity;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.OptimizableGenerator;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 @Entity
+@Table(indexes = @Index(name = "idx_item_price", columnList = "price"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Item {
 
+    public static final String ID_SEQUENCE = "item_seq";
+
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    // Pooled sequence ids (a table on SQLite and MySQL) so Hibernate can batch inserts;
+    // IDENTITY forces one INSERT round trip per row. See ItemIdGenerator for sharded ids.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = ID_SEQUENCE)
+    @GenericGenerator(name = ID_SEQUENCE, type = ItemIdGenerator.class, parameters = {
+            @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = ID_SEQUENCE),
+            @Parameter(name = OptimizableGenerator.INCREMENT_PARAM, value = "" + ID_ALLOCATION_SIZE) })
     private Long id;
     
     private String name;
@@ -23,4 +41,15 @@ public class Item {
     private String description;
     
     private Double price;
-}
\ No newline at end of file
+
+    // Incremented on every update; the item's ETag. Primitive so Spring Data still tells
+    // new items apart by id, and defaulted so rows that predate the column start at 0.
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long version;
+
+    public Item(Long id, String name, String description, Double price) {
+        this(id, name, description, price, 0L);
+    }
+}
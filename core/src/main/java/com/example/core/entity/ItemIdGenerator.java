@@ -0,0 +1,64 @@
+package com.example.core.entity;
+
+import com.example.core.config.ItemShards;
+import com.example.core.config.ShardContext;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.config.spi.StandardConverters;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.enhanced.Optimizer;
+import org.hibernate.id.enhanced.OptimizerFactory;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+/**
+ * Item ids: Hibernate's pooled sequence generator, which on SQLite allocates from the
+ * {@code item_seq} table. When items are sharded ({@code item.shards.count} above 1)
+ * each shard allocates from its own {@code item_seq} with its own optimizer, and a value
+ * {@code v} allocated on shard {@code s} becomes id {@code v * shardCount + s}. Ids are
+ * then unique across shards, and an id modulo the shard count is the shard that owns
+ * the item.
+ */
+public class ItemIdGenerator extends SequenceStyleGenerator {
+
+    private int shardCount = 1;
+
+    // One per shard; replaced as a whole by discardAllocatedIds.
+    private volatile Optimizer[] optimizers;
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) {
+        super.configure(type, parameters, serviceRegistry);
+        shardCount = serviceRegistry.getService(ConfigurationService.class)
+                .getSetting(ItemShards.COUNT_PROPERTY, StandardConverters.INTEGER, 1);
+        optimizers = newOptimizers();
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        // The callback's connection comes from the current shard like the transaction's.
+        int shard = shardCount == 1 ? 0 : ShardContext.current();
+        Number value = (Number) optimizers[shard].generate(getDatabaseStructure().buildCallback(session));
+        return value.longValue() * shardCount + shard;
+    }
+
+    /**
+     * Forgets the ids allocated from the sequence but not handed out yet, so the next id
+     * on every shard comes from a fresh allocation. Used after the sequence was moved
+     * forward to make room for rows inserted outside Hibernate.
+     */
+    public void discardAllocatedIds() {
+        optimizers = newOptimizers();
+    }
+
+    private Optimizer[] newOptimizers() {
+        Optimizer[] created = new Optimizer[shardCount];
+        for (int shard = 0; shard < shardCount; shard++) {
+            created[shard] = OptimizerFactory.buildOptimizer(getOptimizer().getClass().getName(),
+                    Long.class, getDatabaseStructure().getIncrementSize(), getDatabaseStructure().getInitialValue());
+        }
+        return created;
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.core.event;
+
+import com.example.core.entity.Item;
+
+/**
+ * Published by {@link com.example.core.service.ItemService} for every item it writes.
+ * Listeners that keep derived state in step with the table should use
+ * {@code @TransactionalEventListener} so they only see committed changes.
+ *
+ * @param type what happened to the item
+ * @param id   id of the item
+ * @param item the item as written, with its new version, or {@code null} for
+ *             deletions. A {@code PATCHED} item carries just the fields that changed,
+ *             the rest being {@code null}
+ */
+public record ItemChangeEvent(Type type, Long id, Item item) {
+
+    public enum Type {
+        CREATED, UPDATED, PATCHED, DELETED
+    }
+
+    public static ItemChangeEvent created(Item item) {
+        return new ItemChangeEvent(Type.CREATED, item.getId(), item);
+    }
+
+    public static ItemChangeEvent updated(Item item) {
+        return new ItemChangeEvent(Type.UPDATED, item.getId(), item);
+    }
+
+    public static ItemChangeEvent patched(Long id, Item changes) {
+        return new ItemChangeEvent(Type.PATCHED, id, changes);
+    }
+
+    public static ItemChangeEvent deleted(Long id) {
+        return new ItemChangeEvent(Type.DELETED, id, null);
+    }
+}
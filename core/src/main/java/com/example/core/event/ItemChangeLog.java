@@ -0,0 +1,110 @@
+package com.example.core.event;
+
+import com.example.core.dto.ItemChange;
+import com.example.core.dto.ItemChangeBatch;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded in-memory log of committed item changes, numbered with increasing sequence
+ * numbers so readers can resume where they left off.
+ * <p>
+ * The log is a lock-free ring buffer: a writer claims a sequence number and stores its
+ * change in the matching slot, overwriting the change {@code capacity} positions back.
+ * Writers never wait for readers. A reader that asks for changes that have already been
+ * overwritten gets a resync signal instead. Sequence numbers start from the clock at
+ * startup, so a position remembered from before a restart is also answered with a resync
+ * rather than with unrelated changes.
+ * <p>
+ * Only changes made through this instance are recorded.
+ */
+@Component
+public class ItemChangeLog {
+
+    private final AtomicReferenceArray<ItemChange> slots;
+
+    private final int mask;
+
+    private final long firstSequence;
+
+    private final AtomicLong nextSequence;
+
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+
+    public ItemChangeLog(@Value("${item.changes.buffer-size:4096}") int bufferSize) {
+        int capacity = Integer.highestOneBit(Math.max(1, bufferSize - 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+        this.firstSequence = System.currentTimeMillis() * 1000;
+        this.nextSequence = new AtomicLong(firstSequence);
+    }
+
+    public int capacity() {
+        return slots.length();
+    }
+
+    /**
+     * Sequence number of the latest change claimed so far, or one less than the first
+     * sequence number while the log is empty.
+     */
+    public long latest() {
+        return nextSequence.get() - 1;
+    }
+
+    /**
+     * Registers a callback run on the writing thread after every append. Callbacks must
+     * return quickly and hand any real work to another thread.
+     */
+    public void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    @TransactionalEventListener
+    public void onItemChanged(ItemChangeEvent event) {
+        append(event);
+    }
+
+    public ItemChange append(ItemChangeEvent event) {
+        long seq = nextSequence.getAndIncrement();
+        ItemChange change = new ItemChange(seq, event.type(), event.id(), event.item());
+        slots.set(slot(seq), change);
+        listeners.forEach(Runnable::run);
+        return change;
+    }
+
+    /**
+     * Returns up to {@code max} changes with sequence numbers above {@code since}, in
+     * order. Stops early at a slot whose writer has claimed it but not yet stored its
+     * change; that writer's append notifies the listeners once it has.
+     */
+    public ItemChangeBatch read(long since, int max) {
+        long latest = latest();
+        if (since > latest || since < Math.max(firstSequence, latest + 1 - capacity()) - 1) {
+            return ItemChangeBatch.resync(latest);
+        }
+        List<ItemChange> changes = new ArrayList<>(Math.min(max, (int) (latest - since)));
+        for (long seq = since + 1; seq <= latest && changes.size() < max; seq++) {
+            ItemChange change = slots.get(slot(seq));
+            if (change == null || change.seq() < seq) {
+                break;
+            }
+            if (change.seq() > seq) {
+                // Overwritten while we were reading.
+                return ItemChangeBatch.resync(latest);
+            }
+            changes.add(change);
+        }
+        return new ItemChangeBatch(changes, false, latest);
+    }
+
+    private int slot(long seq) {
+        return (int) (seq & mask);
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.core.event;
+
+/**
+ * Published by {@link com.example.core.snapshot.ItemSnapshotService} once a snapshot
+ * import has committed. The rows are inserted in bulk without an
+ * {@link ItemChangeEvent} each, so derived state should be rebuilt from the table.
+ *
+ * @param items number of items imported
+ */
+public record ItemsImportedEvent(long items) {
+}
@@ -0,0 +1,111 @@
+package com.example.core.metrics;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hikari pool metrics ({@code hikaricp.connections.*}: acquire wait, usage, active, idle
+ * and pending connections) for pools that are started before the meter registry exists.
+ * <p>
+ * The SQLite pools open their first connection while the entity manager factory is
+ * built, after which Hikari no longer accepts a metrics tracker, so Spring Boot cannot
+ * attach one. Pools built with this factory get a tracker straight away; it starts
+ * recording once Boot binds this factory to the registry. Pools created by Boot itself
+ * (MySQL) are instrumented by Boot as usual.
+ */
+@Component
+public class HikariPoolMetrics implements MetricsTrackerFactory, MeterBinder {
+
+    private final Map<String, DeferredTracker> trackers = new ConcurrentHashMap<>();
+
+    private volatile MeterRegistry registry;
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        DeferredTracker tracker = new DeferredTracker(poolName, poolStats);
+        trackers.put(poolName, tracker);
+        MeterRegistry bound = registry;
+        if (bound != null) {
+            tracker.bind(bound);
+        }
+        return tracker;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        trackers.values().forEach(tracker -> tracker.bind(registry));
+    }
+
+    private static final class DeferredTracker implements IMetricsTracker {
+
+        private final String poolName;
+
+        private final PoolStats poolStats;
+
+        private final AtomicReference<IMetricsTracker> delegate = new AtomicReference<>();
+
+        DeferredTracker(String poolName, PoolStats poolStats) {
+            this.poolName = poolName;
+            this.poolStats = poolStats;
+        }
+
+        void bind(MeterRegistry registry) {
+            if (delegate.get() == null) {
+                IMetricsTracker tracker = new MicrometerMetricsTrackerFactory(registry).create(poolName, poolStats);
+                if (!delegate.compareAndSet(null, tracker)) {
+                    tracker.close();
+                }
+            }
+        }
+
+        @Override
+        public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+            IMetricsTracker tracker = delegate.get();
+            if (tracker != null) {
+                tracker.recordConnectionCreatedMillis(connectionCreatedMillis);
+            }
+        }
+
+        @Override
+        public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+            IMetricsTracker tracker = delegate.get();
+            if (tracker != null) {
+                tracker.recordConnectionAcquiredNanos(elapsedAcquiredNanos);
+            }
+        }
+
+        @Override
+        public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+            IMetricsTracker tracker = delegate.get();
+            if (tracker != null) {
+                tracker.recordConnectionUsageMillis(elapsedBorrowedMillis);
+            }
+        }
+
+        @Override
+        public void recordConnectionTimeout() {
+            IMetricsTracker tracker = delegate.get();
+            if (tracker != null) {
+                tracker.recordConnectionTimeout();
+            }
+        }
+
+        @Override
+        public void close() {
+            IMetricsTracker tracker = delegate.get();
+            if (tracker != null) {
+                tracker.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.core.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.QueryType;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Statement and row metrics taken at the JDBC level, below Hibernate, so they also cover
+ * the native queries of the search indexes. Every statement execution is timed as
+ * {@code jdbc.statements} (tagged by statement type; a JDBC batch counts once) and every
+ * row read from a result set counts towards {@code jdbc.rows}.
+ * <p>
+ * Code that wants per-unit-of-work totals, such as the statements a single HTTP request
+ * issued, brackets the work with {@link #startCounting()} and {@link #stopCounting()} on
+ * the same thread.
+ */
+@Component
+public class JdbcMetrics implements MeterBinder {
+
+    private static final String START_NANOS = JdbcMetrics.class.getName() + ".start";
+
+    private static final QueryType[] QUERY_TYPES = { QueryType.SELECT, QueryType.INSERT, QueryType.UPDATE, QueryType.DELETE };
+
+    private final ThreadLocal<Counts> counts = new ThreadLocal<>();
+
+    private volatile Map<QueryType, Timer> statementTimers;
+
+    private volatile Counter rowCounter;
+
+    private final Listener listener = new Listener();
+
+    /**
+     * Wraps a data source so statements and rows read through it are recorded here.
+     */
+    public DataSource wrap(DataSource dataSource) {
+        return wrap(dataSource, null);
+    }
+
+    /**
+     * Wraps a data source so statements and rows read through it are recorded here and,
+     * unless it is {@code null}, by the profiler.
+     */
+    public DataSource wrap(DataSource dataSource, StatementProfiler profiler) {
+        ProxyDataSourceBuilder builder = ProxyDataSourceBuilder.create(dataSource)
+                .name("jdbc-metrics")
+                .listener(listener)
+                .methodListener(listener)
+                .proxyResultSet();
+        if (profiler != null) {
+            builder.listener(profiler.listener).methodListener(profiler.listener);
+        }
+        return builder.build();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Map<QueryType, Timer> timers = new EnumMap<>(QueryType.class);
+        for (QueryType type : QueryType.values()) {
+            timers.put(type, Timer.builder("jdbc.statements")
+                    .description("JDBC statement executions")
+                    .tag("type", type.name().toLowerCase())
+                    .register(registry));
+        }
+        rowCounter = Counter.builder("jdbc.rows")
+                .description("Rows read from JDBC result sets")
+                .register(registry);
+        statementTimers = timers;
+    }
+
+    /**
+     * Starts counting statements and rows on the current thread.
+     */
+    public void startCounting() {
+        counts.set(new Counts());
+    }
+
+    /**
+     * Stops counting on the current thread and returns the totals since
+     * {@link #startCounting()}, or {@code null} if counting was not started.
+     */
+    public Counts stopCounting() {
+        Counts current = counts.get();
+        counts.remove();
+        return current;
+    }
+
+    private final class Listener implements QueryExecutionListener, MethodExecutionListener {
+
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            execInfo.addCustomValue(START_NANOS, System.nanoTime());
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            Counts current = counts.get();
+            if (current != null) {
+                current.statements++;
+            }
+            Map<QueryType, Timer> timers = statementTimers;
+            Long started = execInfo.getCustomValue(START_NANOS, Long.class);
+            if (timers != null && started != null) {
+                QueryType type = queryInfoList.isEmpty() ? QueryType.OTHER : queryType(queryInfoList.get(0).getQuery());
+                timers.get(type).record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        @Override
+        public void beforeMethod(MethodExecutionContext executionContext) {
+        }
+
+        @Override
+        public void afterMethod(MethodExecutionContext executionContext) {
+            if (Boolean.TRUE.equals(executionContext.getResult())
+                    && executionContext.getTarget() instanceof ResultSet
+                    && "next".equals(executionContext.getMethod().getName())) {
+                Counts current = counts.get();
+                if (current != null) {
+                    current.rows++;
+                }
+                Counter counter = rowCounter;
+                if (counter != null) {
+                    counter.increment();
+                }
+            }
+        }
+    }
+
+    // Cheaper than QueryUtils.getQueryType, which runs several regex replacements per call.
+    static QueryType queryType(String sql) {
+        int start = 0;
+        while (start < sql.length() && (Character.isWhitespace(sql.charAt(start)) || sql.charAt(start) == '(')) {
+            start++;
+        }
+        for (QueryType type : QUERY_TYPES) {
+            if (sql.regionMatches(true, start, type.name(), 0, type.name().length())) {
+                return type;
+            }
+        }
+        return QueryType.OTHER;
+    }
+
+    /**
+     * Statements executed and rows read on one thread between {@link #startCounting()}
+     * and {@link #stopCounting()}.
+     */
+    public static final class Counts {
+
+        private long statements;
+
+        private long rows;
+
+        public long statements() {
+            return statements;
+        }
+
+        public long rows() {
+            return rows;
+        }
+    }
+}
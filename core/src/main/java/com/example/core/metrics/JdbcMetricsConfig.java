@@ -0,0 +1,36 @@
+package com.example.core.metrics;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Routes the application's data source through {@link JdbcMetrics} and the
+ * {@link StatementProfiler}. Turned off with {@code item.metrics.jdbc.enabled=false}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "item.metrics.jdbc.enabled", havingValue = "true", matchIfMissing = true)
+public class JdbcMetricsConfig {
+
+    private static final String DATA_SOURCE_BEAN = "dataSource";
+
+    @Bean
+    public static BeanPostProcessor jdbcMetricsDataSourcePostProcessor(ObjectProvider<JdbcMetrics> jdbcMetrics,
+            ObjectProvider<StatementProfiler> statementProfiler) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (DATA_SOURCE_BEAN.equals(beanName) && bean instanceof DataSource dataSource
+                        && !(bean instanceof ProxyDataSource)) {
+                    return jdbcMetrics.getObject().wrap(dataSource, statementProfiler.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.core.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.aopalliance.aop.Advice;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.Pointcut;
+import org.springframework.aop.support.AbstractPointcutAdvisor;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.stereotype.Service;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every public method of the core {@code @Service} classes as {@code item.service},
+ * tagged with the class, the method and the exception thrown (if any).
+ * <p>
+ * The advice runs outside the cache and transaction advice, so the timings include cache
+ * hits, waiting for the SQLite write lock and the commit.
+ */
+@Component
+@Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+public class ServiceMetricsAdvisor extends AbstractPointcutAdvisor implements MeterBinder {
+
+    static final String METRIC_NAME = "item.service";
+
+    private static final String SERVICE_PACKAGE = "com.example.core.service";
+
+    private final Map<Method, Timer> timers = new ConcurrentHashMap<>();
+
+    private final Pointcut pointcut = new ComposablePointcut(new AnnotationMatchingPointcut(Service.class, true))
+            .intersection((Class<?> clazz) -> clazz.getPackageName().equals(SERVICE_PACKAGE));
+
+    private final MethodInterceptor advice = this::invoke;
+
+    private volatile MeterRegistry registry;
+
+    public ServiceMetricsAdvisor() {
+        setOrder(Ordered.HIGHEST_PRECEDENCE);
+    }
+
+    @Override
+    public Pointcut getPointcut() {
+        return pointcut;
+    }
+
+    @Override
+    public Advice getAdvice() {
+        return advice;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    private Object invoke(MethodInvocation invocation) throws Throwable {
+        MeterRegistry meterRegistry = registry;
+        if (meterRegistry == null) {
+            return invocation.proceed();
+        }
+        long started = System.nanoTime();
+        try {
+            Object result = invocation.proceed();
+            timers.computeIfAbsent(invocation.getMethod(), method -> timer(meterRegistry, method, "none"))
+                    .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (Throwable e) {
+            timer(meterRegistry, invocation.getMethod(), e.getClass().getSimpleName())
+                    .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    private static Timer timer(MeterRegistry registry, Method method, String exception) {
+        return Timer.builder(METRIC_NAME)
+                .description("Core service method calls")
+                .tag("class", method.getDeclaringClass().getSimpleName())
+                .tag("method", method.getName())
+                .tag("exception", exception)
+                .register(registry);
+    }
+}
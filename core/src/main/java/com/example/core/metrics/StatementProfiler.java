@@ -0,0 +1,328 @@
+package com.example.core.metrics;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import net.ttddyy.dsproxy.proxy.ProxyJdbcObject;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Per-statement profiling on the {@link JdbcMetrics} proxy, in place of Hibernate's
+ * {@code show_sql}. Statements that take at least {@code item.metrics.jdbc.slow-threshold}
+ * are logged with the shape of their bind parameters (types and lengths, never values) and
+ * their row count; of the others, {@code item.metrics.jdbc.sample-rate} are logged. The log
+ * goes through this class's logger, which {@code logback-spring.xml} hands to an
+ * asynchronous appender so the request thread never waits for the console.
+ * <p>
+ * Every statement is also aggregated under its fingerprint, the SQL with literals and
+ * {@code IN} lists collapsed, for {@link #slowest}. A query is timed until its result set
+ * is closed, so fetching the rows counts, and its row count is the rows read; for other
+ * statements it is the update count. Result sets read on a thread other than the one that
+ * executed the query are timed as if they were read immediately.
+ */
+@Slf4j
+@Component
+public class StatementProfiler {
+
+    static final String OTHER_STATEMENTS = "(other statements)";
+
+    private static final String START_NANOS = StatementProfiler.class.getName() + ".start";
+
+    private static final int FINGERPRINT_CACHE_SIZE = 10_000;
+
+    // Queries whose result sets were never closed are let go after this many.
+    private static final int MAX_OPEN_PER_THREAD = 64;
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+
+    private static final Pattern SINGLE_IN_LIST = Pattern.compile("(?i)\\b(in) \\(\\?\\)");
+
+    private static final Pattern REPEATED_ROWS = Pattern.compile("\\(\\?, \\.\\.\\.\\)(?:\\s*,\\s*\\(\\?, \\.\\.\\.\\))+");
+
+    private final long slowThresholdNanos;
+
+    private final double sampleRate;
+
+    private final int maxFingerprints;
+
+    private final Map<String, Totals> totals = new ConcurrentHashMap<>();
+
+    private final Cache<String, String> fingerprints = Caffeine.newBuilder()
+            .maximumSize(FINGERPRINT_CACHE_SIZE)
+            .build();
+
+    private final ThreadLocal<List<Execution>> openQueries = ThreadLocal.withInitial(ArrayList::new);
+
+    final Listener listener = new Listener();
+
+    public StatementProfiler(@Value("${item.metrics.jdbc.slow-threshold:100ms}") Duration slowThreshold,
+            @Value("${item.metrics.jdbc.sample-rate:0}") double sampleRate,
+            @Value("${item.metrics.jdbc.max-fingerprints:500}") int maxFingerprints) {
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.sampleRate = sampleRate;
+        this.maxFingerprints = maxFingerprints;
+    }
+
+    /**
+     * Returns up to {@code limit} statement fingerprints, those with the most time spent
+     * first, or with {@code byMax} those with the slowest single execution first.
+     */
+    public List<Summary> slowest(int limit, boolean byMax) {
+        Comparator<Summary> order = byMax
+                ? Comparator.comparingDouble(Summary::maxMillis)
+                : Comparator.comparingDouble(Summary::totalMillis);
+        return totals.entrySet().stream()
+                .map(entry -> entry.getValue().summarize(entry.getKey()))
+                .sorted(order.reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * Forgets the statements recorded so far.
+     */
+    public void reset() {
+        totals.clear();
+    }
+
+    private void finish(Execution execution, long finished) {
+        long elapsed = finished - execution.started;
+        String fingerprint = fingerprints.get(execution.sql, StatementProfiler::fingerprint);
+        Totals fingerprintTotals = totals.get(fingerprint);
+        if (fingerprintTotals == null) {
+            fingerprintTotals = totals.size() < maxFingerprints
+                    ? totals.computeIfAbsent(fingerprint, key -> new Totals())
+                    : totals.computeIfAbsent(OTHER_STATEMENTS, key -> new Totals());
+        }
+        fingerprintTotals.record(elapsed, execution.rows);
+
+        boolean slow = elapsed >= slowThresholdNanos;
+        boolean sampled = !slow && sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+        if ((!slow && !sampled) || !log.isInfoEnabled()) {
+            return;
+        }
+        log.info("{} statement{}: {} ms, {} rows, parameters {}: {}", slow ? "Slow" : "Sampled",
+                execution.failed ? " (failed)" : "", String.format("%.1f", elapsed / 1_000_000.0),
+                execution.rows, execution.parameters, fingerprint);
+    }
+
+    private final class Listener implements QueryExecutionListener, MethodExecutionListener {
+
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            execInfo.addCustomValue(START_NANOS, System.nanoTime());
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            Long started = execInfo.getCustomValue(START_NANOS, Long.class);
+            if (started == null || queryInfoList.isEmpty()) {
+                return;
+            }
+            Execution execution = new Execution(execInfo.getStatement(), queryInfoList.get(0).getQuery(),
+                    parameterShape(queryInfoList), started);
+            execution.failed = !execInfo.isSuccess();
+            Object result = execInfo.getResult();
+            if (result instanceof ResultSet resultSet && !execution.failed) {
+                // Finished when the result set is closed, once its rows have been read.
+                execution.resultSet = result instanceof ProxyJdbcObject proxy ? proxy.getTarget() : resultSet;
+                List<Execution> open = openQueries.get();
+                if (open.size() >= MAX_OPEN_PER_THREAD) {
+                    finish(open.remove(0), System.nanoTime());
+                }
+                open.add(execution);
+                return;
+            }
+            execution.rows = updateCount(result);
+            finish(execution, System.nanoTime());
+        }
+
+        @Override
+        public void beforeMethod(MethodExecutionContext executionContext) {
+        }
+
+        @Override
+        public void afterMethod(MethodExecutionContext executionContext) {
+            Object target = executionContext.getTarget();
+            if (!(target instanceof ResultSet) && !(target instanceof Statement)) {
+                return;
+            }
+            List<Execution> open = openQueries.get();
+            if (open.isEmpty()) {
+                return;
+            }
+            String method = executionContext.getMethod().getName();
+            if (target instanceof ResultSet && "next".equals(method)) {
+                if (Boolean.TRUE.equals(executionContext.getResult())) {
+                    for (int i = open.size() - 1; i >= 0; i--) {
+                        if (open.get(i).resultSet == target) {
+                            open.get(i).rows++;
+                            break;
+                        }
+                    }
+                }
+            } else if ("close".equals(method)) {
+                // Closing a statement closes its result sets without a call on them.
+                long now = System.nanoTime();
+                open.removeIf(execution -> {
+                    if (execution.resultSet == target || execution.statement == target) {
+                        finish(execution, now);
+                        return true;
+                    }
+                    return false;
+                });
+            }
+        }
+    }
+
+    // Literals become '?', and runs of parameters in parentheses, as in IN lists (of any
+    // length) and multi-row VALUES, one placeholder, so the same statement has one
+    // fingerprint whatever its arguments.
+    static String fingerprint(String sql) {
+        String normalized = STRING_LITERAL.matcher(sql).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+        normalized = PARAMETER_LIST.matcher(normalized).replaceAll("(?, ...)");
+        normalized = SINGLE_IN_LIST.matcher(normalized).replaceAll("$1 (?, ...)");
+        return REPEATED_ROWS.matcher(normalized).replaceAll("(?, ...), ...");
+    }
+
+    // The type of each bind parameter of the first execution, with the length of strings
+    // and byte arrays, and how many executions a batch had.
+    static String parameterShape(List<QueryInfo> queryInfoList) {
+        List<List<ParameterSetOperation>> parametersList = queryInfoList.get(0).getParametersList();
+        int executions = queryInfoList.size() > 1 ? queryInfoList.size() : parametersList.size();
+        StringBuilder shape = new StringBuilder("[");
+        if (!parametersList.isEmpty()) {
+            List<ParameterSetOperation> parameters = new ArrayList<>(parametersList.get(0));
+            parameters.sort(Comparator.comparingInt(
+                    parameter -> parameter.getArgs()[0] instanceof Integer index ? index : Integer.MAX_VALUE));
+            for (ParameterSetOperation parameter : parameters) {
+                if (shape.length() > 1) {
+                    shape.append(", ");
+                }
+                Object value = parameter.getArgs().length > 1 ? parameter.getArgs()[1] : null;
+                if (ParameterSetOperation.isSetNullParameterOperation(parameter) || value == null) {
+                    shape.append("null");
+                } else if (value instanceof String string) {
+                    shape.append("String(").append(string.length()).append(')');
+                } else if (value instanceof byte[] bytes) {
+                    shape.append("byte[").append(bytes.length).append(']');
+                } else {
+                    shape.append(value.getClass().getSimpleName());
+                }
+            }
+        }
+        shape.append(']');
+        if (executions > 1) {
+            shape.append(" x").append(executions);
+        }
+        return shape.toString();
+    }
+
+    private static long updateCount(Object result) {
+        if (result instanceof Number count) {
+            return Math.max(0, count.longValue());
+        }
+        long rows = 0;
+        if (result instanceof int[] counts) {
+            for (int count : counts) {
+                rows += Math.max(0, count);
+            }
+        } else if (result instanceof long[] counts) {
+            for (long count : counts) {
+                rows += Math.max(0, count);
+            }
+        }
+        return rows;
+    }
+
+    private static final class Execution {
+
+        private final Statement statement;
+
+        private final String sql;
+
+        private final String parameters;
+
+        private final long started;
+
+        private Object resultSet;
+
+        private long rows;
+
+        private boolean failed;
+
+        private Execution(Statement statement, String sql, String parameters, long started) {
+            this.statement = statement;
+            this.sql = sql;
+            this.parameters = parameters;
+            this.started = started;
+        }
+    }
+
+    private static final class Totals {
+
+        private final LongAdder count = new LongAdder();
+
+        private final LongAdder nanos = new LongAdder();
+
+        private final LongAdder rows = new LongAdder();
+
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        void record(long elapsedNanos, long rowCount) {
+            count.increment();
+            nanos.add(elapsedNanos);
+            rows.add(rowCount);
+            maxNanos.accumulate(elapsedNanos);
+        }
+
+        Summary summarize(String fingerprint) {
+            long executions = count.sum();
+            double totalMillis = nanos.sum() / 1_000_000.0;
+            return new Summary(fingerprint, executions, totalMillis,
+                    executions == 0 ? 0 : totalMillis / executions, maxNanos.get() / 1_000_000.0, rows.sum());
+        }
+    }
+
+    /**
+     * Totals for one statement fingerprint.
+     *
+     * @param statement   the SQL with literals and parameter lists collapsed
+     * @param executions  times it ran
+     * @param totalMillis time spent in it altogether
+     * @param meanMillis  time per execution
+     * @param maxMillis   slowest single execution
+     * @param rows        rows read or changed altogether
+     */
+    public record Summary(String statement, long executions, double totalMillis, double meanMillis,
+            double maxMillis, long rows) {
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.core.repository;
+
+import com.example.core.config.ItemShards;
+import com.example.core.event.ItemChangeEvent;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Table-level change counter for items, stored in the database so every instance
+ * sharing it sees the same value. It goes up at least once for every transaction that
+ * changes items, which makes it a cheap validator for collection responses: one small
+ * read instead of loading the rows.
+ * <p>
+ * The count is split over {@link #STRIPES} rows of {@code item_change_counter}, created
+ * by migration V2. A transaction bumps one row picked at random, so concurrent writers
+ * rarely queue on the same row lock, and {@link #current()} sums them. The increment
+ * runs once per transaction, just before commit, so a batch of writes costs one extra
+ * statement. With several shards each shard has its own counter, bumped by the
+ * transactions on that shard, and {@link #current()} reads the current shard's.
+ */
+@Component
+public class ItemChangeCounter {
+
+    /** Rows the count is split over; must match the rows migration V2 inserts. */
+    static final int STRIPES = 16;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ItemShards itemShards;
+
+    public ItemChangeCounter(DataSource dataSource, ItemShards itemShards) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.itemShards = itemShards;
+    }
+
+    /**
+     * Fails startup if a shard is missing counter rows, which would make increments
+     * that land on them silently do nothing.
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    public void checkTable() {
+        itemShards.forEach(() -> {
+            Integer rows = jdbcTemplate.queryForObject(
+                    "SELECT count(*) FROM item_change_counter WHERE id BETWEEN 1 AND ?", Integer.class, STRIPES);
+            if (rows == null || rows != STRIPES) {
+                throw new IllegalStateException("item_change_counter has " + rows + " of its " + STRIPES
+                        + " rows; the schema migrations have not been applied");
+            }
+        });
+    }
+
+    public long current() {
+        Long count = jdbcTemplate.queryForObject("SELECT sum(change_count) FROM item_change_counter", Long.class);
+        return count == null ? 0 : count;
+    }
+
+    @EventListener
+    public void onItemChanged(ItemChangeEvent event) {
+        recordChange();
+    }
+
+    /**
+     * Counts a change made by the current transaction without an {@link ItemChangeEvent},
+     * such as rows inserted in bulk. Increments once per transaction however often it is
+     * called.
+     */
+    public void recordChange() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            increment();
+            return;
+        }
+        if (TransactionSynchronizationManager.hasResource(this)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                increment();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(ItemChangeCounter.this);
+            }
+        });
+    }
+
+    private void increment() {
+        jdbcTemplate.update("UPDATE item_change_counter SET change_count = change_count + 1 WHERE id = ?",
+                ThreadLocalRandom.current().nextInt(STRIPES) + 1);
+    }
+}
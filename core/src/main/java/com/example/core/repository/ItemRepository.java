@@ -1,15 +1,53 @@
 package com.example.core.repository;
 
 import com.example.core.entity.Item;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface ItemRepository extends JpaRepository<Item, Long> {
+public interface ItemRepository extends JpaRepository<Item, Long>, ItemRepositoryCustom {
     
-    List<Item> findByNameContaining(String name);
-    
-    List<Item> findByPriceLessThanEqual(Double price);
-}
\ No newline at end of file
+    /**
+     * Overwrites the name, description and price of one item and bumps its version in a
+     * single statement, without loading it. With a non-null {@code expectedVersion} only
+     * an item still at that version is updated. Returns the number of rows updated.
+     */
+    @Modifying
+    @Query("update Item i set i.name = :name, i.description = :description, i.price = :price, "
+            + "i.version = i.version + 1 where i.id = :id and (:expectedVersion is null or i.version = :expectedVersion)")
+    int updateById(@Param("id") Long id, @Param("name") String name, @Param("description") String description,
+            @Param("price") Double price, @Param("expectedVersion") Long expectedVersion);
+
+    /** Version of one item, for reading back what a single-statement update wrote. */
+    @Query("select i.version from Item i where i.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    /** Lowest item price, or {@code null} when no item has a price; answered from the price index. */
+    @Query("select min(i.price) from Item i")
+    Double findMinPrice();
+
+    /** Highest item price, or {@code null} when no item has a price; answered from the price index. */
+    @Query("select max(i.price) from Item i")
+    Double findMaxPrice();
+
+    /**
+     * Returns those of the given ids that have an item, locking the rows until the
+     * transaction ends so they cannot be deleted by anyone else before it does.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i.id from Item i where i.id in :ids")
+    List<Long> lockExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("delete from Item i where i.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,65 @@
+package com.example.core.repository;
+
+import com.example.core.dto.ItemPatch;
+import com.example.core.dto.ItemView;
+import com.example.core.entity.Item;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+public interface ItemRepositoryCustom {
+
+    /**
+     * Walks every item in id order through a forward-only cursor, handing each row to
+     * the consumer as it is read. Rows are detached immediately so the persistence
+     * context does not grow with the table. Must be called inside a transaction.
+     */
+    void streamAll(int fetchSize, Consumer<Item> consumer);
+
+    /**
+     * Walks the id and price of every item in price order, then id, through a
+     * forward-only cursor, without hydrating entities; items without a price are passed
+     * {@code NaN}, in an order that depends on the database. Must be called inside a
+     * transaction.
+     */
+    void streamPrices(int fetchSize, PriceConsumer consumer);
+
+    /**
+     * Reads every item in id order as {@link ItemView}s holding only the given fields.
+     * Views are built from the selected columns, so no entity is hydrated or registered
+     * for dirty checking, and unselected columns are never read.
+     */
+    List<ItemView> findViews(Set<ItemView.Field> fields);
+
+    /**
+     * Reads up to {@code limit} items with an id greater than {@code after}, in id order,
+     * as views holding only the given fields.
+     */
+    List<ItemView> findViewsAfter(long after, int limit, Set<ItemView.Field> fields);
+
+    /**
+     * Reads the items with the given ids, in no particular order, as views holding only
+     * the given fields.
+     */
+    List<ItemView> findViewsById(Collection<Long> ids, Set<ItemView.Field> fields);
+
+    /**
+     * Reads up to {@code limit} items priced within {@code [min, max]}, ordered by price
+     * and then id, as views holding only the given fields.
+     */
+    List<ItemView> findViewsByPrice(double min, double max, boolean descending, int limit, Set<ItemView.Field> fields);
+
+    /**
+     * Sets only the fields present in the patch, and bumps the version, in a single
+     * UPDATE. With a non-null {@code expectedVersion} only an item still at that version
+     * is updated. Returns the number of rows updated.
+     */
+    int patchById(Long id, ItemPatch patch, Long expectedVersion);
+
+    @FunctionalInterface
+    interface PriceConsumer {
+        void accept(long id, double price);
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.core.repository;
+
+import com.example.core.dto.ItemPatch;
+import com.example.core.dto.ItemView;
+import com.example.core.entity.Item;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CompoundSelection;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+public class ItemRepositoryCustomImpl implements ItemRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void streamAll(int fetchSize, Consumer<Item> consumer) {
+        Session session = entityManager.unwrap(Session.class);
+        try (ScrollableResults<Item> results = session
+                .createQuery("select i from Item i order by i.id", Item.class)
+                .setFetchSize(fetchSize)
+                .setReadOnly(true)
+                .setCacheMode(CacheMode.IGNORE)
+                .scroll(ScrollMode.FORWARD_ONLY)) {
+            while (results.next()) {
+                Item item = results.get();
+                session.detach(item);
+                consumer.accept(item);
+            }
+        }
+    }
+
+    @Override
+    public void streamPrices(int fetchSize, PriceConsumer consumer) {
+        Session session = entityManager.unwrap(Session.class);
+        try (ScrollableResults<Object[]> results = session
+                .createQuery("select i.id, i.price from Item i order by i.price, i.id", Object[].class)
+                .setFetchSize(fetchSize)
+                .setReadOnly(true)
+                .setCacheMode(CacheMode.IGNORE)
+                .scroll(ScrollMode.FORWARD_ONLY)) {
+            while (results.next()) {
+                Object[] row = results.get();
+                Double price = (Double) row[1];
+                consumer.accept((Long) row[0], price == null ? Double.NaN : price);
+            }
+        }
+    }
+
+    @Override
+    public List<ItemView> findViews(Set<ItemView.Field> fields) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ItemView> query = cb.createQuery(ItemView.class);
+        Root<Item> item = query.from(Item.class);
+        query.select(view(cb, item, fields)).orderBy(cb.asc(item.get("id")));
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    @Override
+    public List<ItemView> findViewsAfter(long after, int limit, Set<ItemView.Field> fields) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ItemView> query = cb.createQuery(ItemView.class);
+        Root<Item> item = query.from(Item.class);
+        query.select(view(cb, item, fields))
+                .where(cb.greaterThan(item.get("id"), after))
+                .orderBy(cb.asc(item.get("id")));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public List<ItemView> findViewsById(Collection<Long> ids, Set<ItemView.Field> fields) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ItemView> query = cb.createQuery(ItemView.class);
+        Root<Item> item = query.from(Item.class);
+        query.select(view(cb, item, fields)).where(item.get("id").in(ids));
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    @Override
+    public List<ItemView> findViewsByPrice(double min, double max, boolean descending, int limit,
+            Set<ItemView.Field> fields) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ItemView> query = cb.createQuery(ItemView.class);
+        Root<Item> item = query.from(Item.class);
+        List<Order> order = descending
+                ? List.of(cb.desc(item.get("price")), cb.desc(item.get("id")))
+                : List.of(cb.asc(item.get("price")), cb.asc(item.get("id")));
+        query.select(view(cb, item, fields))
+                .where(cb.between(item.get("price"), min, max))
+                .orderBy(order);
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public int patchById(Long id, ItemPatch patch, Long expectedVersion) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Item> update = cb.createCriteriaUpdate(Item.class);
+        Root<Item> item = update.from(Item.class);
+        if (patch.name() != null) {
+            update.set(item.<String>get("name"), patch.name());
+        }
+        if (patch.description() != null) {
+            update.set(item.<String>get("description"), patch.description());
+        }
+        if (patch.price() != null) {
+            update.set(item.<Double>get("price"), patch.price());
+        }
+        update.set(item.<Long>get("version"), cb.sum(item.<Long>get("version"), 1L));
+        Predicate byId = cb.equal(item.get("id"), id);
+        update.where(expectedVersion == null ? byId : cb.and(byId, cb.equal(item.get("version"), expectedVersion)));
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    // Unselected fields become typed null literals, which the database returns without
+    // reading the column.
+    private static CompoundSelection<ItemView> view(CriteriaBuilder cb, Root<Item> item, Set<ItemView.Field> fields) {
+        return cb.construct(ItemView.class,
+                item.<Long>get("id"),
+                column(cb, item, fields, ItemView.Field.NAME, "name", String.class),
+                column(cb, item, fields, ItemView.Field.DESCRIPTION, "description", String.class),
+                column(cb, item, fields, ItemView.Field.PRICE, "price", Double.class),
+                column(cb, item, fields, ItemView.Field.VERSION, "version", Long.class));
+    }
+
+    private static <T> Expression<T> column(CriteriaBuilder cb, Root<Item> item, Set<ItemView.Field> fields,
+            ItemView.Field field, String attribute, Class<T> type) {
+        return fields.contains(field) ? item.get(attribute) : cb.nullLiteral(type);
+    }
+}
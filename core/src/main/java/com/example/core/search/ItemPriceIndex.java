@@ -0,0 +1,484 @@
+package com.example.core.search;
+
+import com.example.core.config.ItemShards;
+import com.example.core.entity.Item;
+import com.example.core.event.ItemChangeEvent;
+import com.example.core.event.ItemsImportedEvent;
+import com.example.core.repository.ItemRepository;
+import com.example.core.repository.ItemRepositoryCustom.PriceConsumer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Optional in-memory index of item prices for range and cheapest/most-expensive-first
+ * queries. Enabled with {@code item.price-index.enabled=true}, or by registering a
+ * {@link PriceListener}.
+ * <p>
+ * The bulk of the index is a pair of parallel primitive arrays of every item id and its
+ * price ({@code NaN} for items without one) sorted by id, with a third array holding the
+ * positions of the priced entries in (price, id) order, loaded from the database in the
+ * background at startup. Committed writes made through
+ * {@link com.example.core.service.ItemService} land in a small sorted delta that
+ * overrides the arrays, and set the bit of the overridden array entry in a bitset; once
+ * the delta grows past a fraction of the arrays the two are merged into new arrays.
+ * Until the first load finishes {@link #isReady()} is false and callers should query
+ * the database instead.
+ */
+@Slf4j
+@Component
+public class ItemPriceIndex {
+
+    /** Price passed to a {@link PriceListener} for an id that has no item. */
+    public static final double ABSENT = Double.NEGATIVE_INFINITY;
+
+    private static final int MIN_COMPACTION_THRESHOLD = 4096;
+
+    private final ItemRepository itemRepository;
+
+    private final TransactionTemplate readTransaction;
+
+    private final ItemShards itemShards;
+
+    private final int fetchSize;
+
+    private final AtomicBoolean loadStarted = new AtomicBoolean();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile boolean enabled;
+
+    private volatile boolean ready;
+
+    private volatile PriceListener listener;
+
+    // Guarded by lock. Base entries whose bit is set in hidden are stale; hiddenPriced is
+    // the number of those with a price. changes holds the latest price of every id
+    // written since the base was built: NaN for an item left without a price, null for
+    // a deleted item.
+    private long[] ids = new long[0];
+    private double[] prices = new double[0];
+    private int[] byPrice = new int[0];
+    private BitSet hidden = new BitSet();
+    private int hiddenPriced;
+    private final Map<Long, Double> changes = new HashMap<>();
+    private final NavigableSet<Entry> delta = new TreeSet<>();
+
+    public ItemPriceIndex(ItemRepository itemRepository, PlatformTransactionManager transactionManager,
+            ItemShards itemShards,
+            @Value("${item.price-index.enabled:false}") boolean enabled,
+            @Value("${item.stream.fetch-size:500}") int fetchSize) {
+        this.itemRepository = itemRepository;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.itemShards = itemShards;
+        this.enabled = enabled;
+        this.fetchSize = fetchSize;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /** Returns the number of priced items. */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return byPrice.length - hiddenPriced + delta.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Registers the listener told about every load and every change applied after it,
+     * while the index's write lock is held. Keeps the index loaded even with
+     * {@code item.price-index.enabled=false}, so it has to be called before the context
+     * is refreshed.
+     */
+    public void setListener(PriceListener listener) {
+        this.listener = listener;
+        this.enabled = true;
+    }
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void startLoading() {
+        if (!enabled || !loadStarted.compareAndSet(false, true)) {
+            return;
+        }
+        Thread loader = new Thread(this::load, "item-price-index-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * Reads every item's price from the database into fresh arrays. Changes committed
+     * while this runs are already in the delta, which takes precedence over the arrays.
+     * With several shards each is read in turn and the results merged.
+     */
+    public void load() {
+        long started = System.nanoTime();
+        List<PriceArrays> shards = new ArrayList<>(itemShards.count());
+        itemShards.forEach(() -> {
+            PriceArrays shard = new PriceArrays(1024);
+            readTransaction.executeWithoutResult(status -> itemRepository.streamPrices(fetchSize, shard::add));
+            shards.add(shard);
+        });
+        Base base = Base.of(PriceArrays.merge(shards));
+        lock.writeLock().lock();
+        try {
+            install(base);
+            ready = true;
+            PriceListener current = listener;
+            if (current != null) {
+                current.loaded(base.prices);
+                changes.forEach((id, price) -> current.changed(basePrice(id), price == null ? ABSENT : price));
+            }
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Loaded {} item prices in {} ms", base.byPrice.length, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @EventListener
+    public void onItemsImported(ItemsImportedEvent event) {
+        if (enabled && ready) {
+            load();
+        }
+    }
+
+    @TransactionalEventListener
+    public void onItemChanged(ItemChangeEvent event) {
+        if (!enabled || event.id() == null) {
+            return;
+        }
+        Item item = event.item();
+        if (event.type() == ItemChangeEvent.Type.PATCHED && (item == null || item.getPrice() == null)) {
+            // The patch left the price alone.
+            return;
+        }
+        Double price;
+        if (event.type() == ItemChangeEvent.Type.DELETED || item == null) {
+            price = null;
+        } else {
+            price = item.getPrice() == null ? Double.NaN : item.getPrice();
+        }
+        lock.writeLock().lock();
+        try {
+            boolean changedBefore = changes.containsKey(event.id());
+            Double previous = changes.put(event.id(), price);
+            double previousPrice;
+            if (changedBefore) {
+                previousPrice = previous == null ? ABSENT : previous;
+            } else {
+                previousPrice = basePrice(event.id());
+            }
+            if (previous != null && !previous.isNaN()) {
+                delta.remove(new Entry(previous, event.id()));
+            }
+            hide(event.id());
+            if (price != null && !price.isNaN()) {
+                delta.add(new Entry(price, event.id()));
+            }
+            PriceListener current = listener;
+            if (ready && current != null) {
+                current.changed(previousPrice, price == null ? ABSENT : price);
+            }
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the ids of items priced within {@code [minPrice, maxPrice]}, ordered by
+     * price and then id, ascending or descending.
+     */
+    public List<Long> range(double minPrice, double maxPrice, boolean descending, int limit) {
+        List<Long> result = new ArrayList<>(Math.min(limit, 1024));
+        scan(minPrice, maxPrice, descending, limit, (id, price) -> result.add(id));
+        return result;
+    }
+
+    /** Returns the lowest item price, or {@code null} when no item has a price. */
+    public Double lowestPrice() {
+        return extreme(false);
+    }
+
+    /** Returns the highest item price, or {@code null} when no item has a price. */
+    public Double highestPrice() {
+        return extreme(true);
+    }
+
+    private Double extreme(boolean highest) {
+        Double[] found = new Double[1];
+        scan(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, highest, 1, (id, price) -> found[0] = price);
+        return found[0];
+    }
+
+    // Passes up to limit entries priced within [minPrice, maxPrice] to the consumer in
+    // (price, id) order, merging the base arrays with the delta.
+    private void scan(double minPrice, double maxPrice, boolean descending, int limit, PriceConsumer consumer) {
+        if (minPrice > maxPrice) {
+            return;
+        }
+        lock.readLock().lock();
+        try {
+            NavigableSet<Entry> deltaRange = delta.subSet(
+                    new Entry(minPrice, Long.MIN_VALUE), true, new Entry(maxPrice, Long.MAX_VALUE), true);
+            Iterator<Entry> deltaIterator = descending ? deltaRange.descendingIterator() : deltaRange.iterator();
+            Entry nextDelta = deltaIterator.hasNext() ? deltaIterator.next() : null;
+
+            int step = descending ? -1 : 1;
+            int i = descending ? upperBound(maxPrice) - 1 : lowerBound(minPrice);
+            for (int taken = 0; taken < limit; taken++) {
+                while (i >= 0 && i < byPrice.length && hidden.get(byPrice[i])) {
+                    i += step;
+                }
+                int position = i >= 0 && i < byPrice.length ? byPrice[i] : -1;
+                boolean baseAvailable = position >= 0
+                        && (descending ? prices[position] >= minPrice : prices[position] <= maxPrice);
+                if (!baseAvailable && nextDelta == null) {
+                    break;
+                }
+                boolean takeBase = baseAvailable && (nextDelta == null
+                        || (compare(prices[position], ids[position], nextDelta.price, nextDelta.id) < 0) != descending);
+                if (takeBase) {
+                    consumer.accept(ids[position], prices[position]);
+                    i += step;
+                } else {
+                    consumer.accept(nextDelta.id, nextDelta.price);
+                    nextDelta = deltaIterator.hasNext() ? deltaIterator.next() : null;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // First index into byPrice with price >= value.
+    private int lowerBound(double value) {
+        int low = 0;
+        int high = byPrice.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (prices[byPrice[mid]] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // First index into byPrice with price > value.
+    private int upperBound(double value) {
+        int low = 0;
+        int high = byPrice.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (prices[byPrice[mid]] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void compactIfNeeded() {
+        // Before the first load the delta has to stay separate: the loaded arrays
+        // would otherwise replace anything merged into them.
+        if (!ready || changes.size() <= Math.max(MIN_COMPACTION_THRESHOLD, ids.length / 8)) {
+            return;
+        }
+        PriceArrays merged = new PriceArrays(byPrice.length - hiddenPriced + delta.size());
+        Iterator<Entry> deltaIterator = delta.iterator();
+        Entry nextDelta = deltaIterator.hasNext() ? deltaIterator.next() : null;
+        int i = 0;
+        while (i < byPrice.length || nextDelta != null) {
+            int position = i < byPrice.length ? byPrice[i] : -1;
+            if (position >= 0 && hidden.get(position)) {
+                i++;
+            } else if (nextDelta == null
+                    || (position >= 0 && compare(prices[position], ids[position], nextDelta.price, nextDelta.id) < 0)) {
+                merged.add(ids[position], prices[position]);
+                i++;
+            } else {
+                merged.add(nextDelta.id, nextDelta.price);
+                nextDelta = deltaIterator.hasNext() ? deltaIterator.next() : null;
+            }
+        }
+        for (int position = 0; position < ids.length; position++) {
+            if (Double.isNaN(prices[position]) && !hidden.get(position)) {
+                merged.add(ids[position], Double.NaN);
+            }
+        }
+        changes.forEach((id, price) -> {
+            if (price != null && price.isNaN()) {
+                merged.add(id, Double.NaN);
+            }
+        });
+        changes.clear();
+        delta.clear();
+        install(Base.of(merged));
+    }
+
+    // Swaps in new arrays, hiding the entries of ids changed since they were read.
+    private void install(Base base) {
+        ids = base.ids;
+        prices = base.prices;
+        byPrice = base.byPrice;
+        hidden = new BitSet(ids.length);
+        hiddenPriced = 0;
+        changes.keySet().forEach(this::hide);
+    }
+
+    private void hide(long id) {
+        int position = Arrays.binarySearch(ids, id);
+        if (position >= 0 && !hidden.get(position)) {
+            hidden.set(position);
+            if (!Double.isNaN(prices[position])) {
+                hiddenPriced++;
+            }
+        }
+    }
+
+    private double basePrice(long id) {
+        int position = Arrays.binarySearch(ids, id);
+        return position >= 0 ? prices[position] : ABSENT;
+    }
+
+    private static int compare(double price1, long id1, double price2, long id2) {
+        int byPrice = Double.compare(price1, price2);
+        return byPrice != 0 ? byPrice : Long.compare(id1, id2);
+    }
+
+    /**
+     * Follows every price the index holds, for figures kept alongside it. Both methods
+     * are called with the index's write lock held.
+     */
+    public interface PriceListener {
+
+        /**
+         * Called after each load with the price of every item, {@code NaN} for items
+         * without one, followed by a {@link #changed} call for each change the load did
+         * not see. The array must not be modified.
+         */
+        void loaded(double[] prices);
+
+        /**
+         * Called for each change applied after the first load; {@link #ABSENT} stands
+         * for no item.
+         */
+        void changed(double previous, double price);
+    }
+
+    private record Entry(double price, long id) implements Comparable<Entry> {
+
+        @Override
+        public int compareTo(Entry other) {
+            return ItemPriceIndex.compare(price, id, other.price, other.id);
+        }
+    }
+
+    private record Base(long[] ids, double[] prices, int[] byPrice) {
+
+        // Lays the entries out by id, keeping the (price, id) order of the priced ones as positions.
+        static Base of(PriceArrays loaded) {
+            long[] ids = Arrays.copyOf(loaded.ids, loaded.size + loaded.unpricedSize);
+            System.arraycopy(loaded.unpricedIds, 0, ids, loaded.size, loaded.unpricedSize);
+            Arrays.sort(ids);
+            double[] prices = new double[ids.length];
+            Arrays.fill(prices, Double.NaN);
+            int[] byPrice = new int[loaded.size];
+            for (int i = 0; i < loaded.size; i++) {
+                int position = Arrays.binarySearch(ids, loaded.ids[i]);
+                byPrice[i] = position;
+                prices[position] = loaded.prices[i];
+            }
+            return new Base(ids, prices, byPrice);
+        }
+    }
+
+    // Priced entries in (price, id) order, and the ids of items without a price.
+    private static final class PriceArrays {
+
+        private double[] prices;
+        private long[] ids;
+        private int size;
+        private long[] unpricedIds = new long[16];
+        private int unpricedSize;
+
+        PriceArrays(int capacity) {
+            prices = new double[Math.max(capacity, 16)];
+            ids = new long[prices.length];
+        }
+
+        void add(long id, double price) {
+            if (Double.isNaN(price)) {
+                if (unpricedSize == unpricedIds.length) {
+                    unpricedIds = Arrays.copyOf(unpricedIds, unpricedSize * 2);
+                }
+                unpricedIds[unpricedSize++] = id;
+                return;
+            }
+            if (size == ids.length) {
+                prices = Arrays.copyOf(prices, size * 2);
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            prices[size] = price;
+            ids[size] = id;
+            size++;
+        }
+
+        // Merges arrays whose priced entries are each sorted by price, then id.
+        static PriceArrays merge(List<PriceArrays> parts) {
+            if (parts.size() == 1) {
+                return parts.get(0);
+            }
+            PriceArrays merged = new PriceArrays(parts.stream().mapToInt(part -> part.size).sum());
+            for (PriceArrays part : parts) {
+                for (int i = 0; i < part.unpricedSize; i++) {
+                    merged.add(part.unpricedIds[i], Double.NaN);
+                }
+            }
+            int[] next = new int[parts.size()];
+            while (true) {
+                int smallest = -1;
+                for (int i = 0; i < next.length; i++) {
+                    PriceArrays part = parts.get(i);
+                    if (next[i] < part.size && (smallest < 0 || compare(part.prices[next[i]], part.ids[next[i]],
+                            parts.get(smallest).prices[next[smallest]], parts.get(smallest).ids[next[smallest]]) < 0)) {
+                        smallest = i;
+                    }
+                }
+                if (smallest < 0) {
+                    return merged;
+                }
+                PriceArrays part = parts.get(smallest);
+                merged.add(part.ids[next[smallest]], part.prices[next[smallest]]);
+                next[smallest]++;
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.core.search;
+
+import java.util.List;
+
+/**
+ * Name search backed by a database full-text index, so lookups do not scan the
+ * item table. Matching keeps the old {@code LIKE '%name%'} semantics: an item matches
+ * when its name contains the query, ignoring case.
+ */
+public interface ItemSearchIndex {
+
+    /**
+     * Returns the ids of matching items, best match first: names that start with the
+     * query come before names that only contain it, then by full-text relevance.
+     *
+     * @param query  text to look for in item names
+     * @param prefix only match names that start with the query
+     * @param limit  maximum number of ids to return
+     */
+    List<Long> search(String query, boolean prefix, int limit);
+
+    /**
+     * Runs inserts of many items into the current shard. Indexes that are cheaper to
+     * build in one pass than row by row may stop indexing while the inserts run and
+     * index the whole table afterwards, so searches can miss items until it returns.
+     */
+    default void bulkInsert(Runnable inserts) {
+        inserts.run();
+    }
+
+    static String likeEscape(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
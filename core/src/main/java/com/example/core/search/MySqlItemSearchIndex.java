@@ -0,0 +1,63 @@
+package com.example.core.search;
+
+import com.example.core.config.SQLiteConfig;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * InnoDB FULLTEXT index over item names using the ngram parser, so phrase queries
+ * match substrings rather than whole words. Migration V3 creates the index, and InnoDB
+ * maintains it itself on every insert, update and delete.
+ */
+@Component
+@ConditionalOnExpression(SQLiteConfig.MYSQL_URL)
+public class MySqlItemSearchIndex implements ItemSearchIndex {
+
+    // Matches the server's default ngram_token_size.
+    private static final int MIN_INDEXED_QUERY_LENGTH = 2;
+
+    private static final String MATCH = "MATCH(name) AGAINST (? IN BOOLEAN MODE)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public MySqlItemSearchIndex(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Fails startup if the index is missing, rather than letting every search fail.
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    public void checkIndex() {
+        Integer existing = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM information_schema.statistics "
+                        + "WHERE table_schema = DATABASE() AND table_name = 'item' AND index_name = 'ft_item_name'",
+                Integer.class);
+        if (existing == null || existing == 0) {
+            throw new IllegalStateException("ft_item_name search index is missing; the schema migrations have not been applied");
+        }
+    }
+
+    @Override
+    public List<Long> search(String query, boolean prefix, int limit) {
+        String like = ItemSearchIndex.likeEscape(query);
+        String startsWith = like + "%";
+        String contains = prefix ? startsWith : "%" + like + "%";
+        String phrase = "\"" + query.replace("\"", " ").trim() + "\"";
+        if (phrase.length() - 2 < MIN_INDEXED_QUERY_LENGTH) {
+            return jdbcTemplate.queryForList(
+                    "SELECT id FROM item WHERE name LIKE ? ORDER BY (name LIKE ?) DESC, id LIMIT ?",
+                    Long.class, contains, startsWith, limit);
+        }
+        return jdbcTemplate.queryForList(
+                "SELECT id FROM item WHERE " + MATCH + " AND name LIKE ? "
+                        + "ORDER BY (name LIKE ?) DESC, " + MATCH + " DESC LIMIT ?",
+                Long.class, phrase, contains, startsWith, phrase, limit);
+    }
+}
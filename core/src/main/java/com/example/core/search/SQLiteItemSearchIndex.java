@@ -0,0 +1,116 @@
+package com.example.core.search;
+
+import com.example.core.config.ItemShards;
+import com.example.core.config.SQLiteConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * FTS5 index over item names using the trigram tokenizer, which serves substring
+ * matches of three or more characters from the index. The index is an external-content
+ * table kept in step with {@code item} by triggers, so every write path, including bulk
+ * statements, updates it in the same transaction. Migration V3 creates the table and
+ * its triggers. Each shard has its own index, and {@link #search} searches the current
+ * shard's.
+ * <p>
+ * {@link #bulkInsert} drops the insert trigger and rebuilds the index once the rows are
+ * in, which is several times faster than indexing them one by one. Should the process
+ * stop in between, the trigger is restored and the index rebuilt on the next start.
+ */
+@Slf4j
+@Component
+@ConditionalOnExpression(SQLiteConfig.SQLITE_URL)
+public class SQLiteItemSearchIndex implements ItemSearchIndex {
+
+    // Shorter queries produce no trigrams and cannot use the index.
+    private static final int MIN_INDEXED_QUERY_LENGTH = 3;
+
+    // Word for word the statement in V3__create_item_search_index.sql, so a restored
+    // trigger is the one the migration created.
+    static final String INSERT_TRIGGER = "CREATE TRIGGER IF NOT EXISTS item_fts_ai AFTER INSERT ON item BEGIN "
+            + "INSERT INTO item_fts(rowid, name) VALUES (new.id, new.name); END";
+
+    private static final String REBUILD = "INSERT INTO item_fts(item_fts) VALUES ('rebuild')";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ItemShards itemShards;
+
+    public SQLiteItemSearchIndex(DataSource dataSource, PlatformTransactionManager transactionManager,
+            ItemShards itemShards) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.itemShards = itemShards;
+    }
+
+    /**
+     * Fails startup if a shard has no index, and restores the insert trigger on shards
+     * where a bulk insert was interrupted.
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    public void checkIndex() {
+        itemShards.forEach(this::checkIndexOnShard);
+    }
+
+    private void checkIndexOnShard() {
+        if (!exists("table", "item_fts")) {
+            throw new IllegalStateException("item_fts search index is missing; the schema migrations have not been applied");
+        }
+        if (!exists("trigger", "item_fts_ai")) {
+            transactionTemplate.executeWithoutResult(status -> restoreInsertTrigger());
+            log.warn("Restored item_fts insert trigger after an interrupted bulk insert");
+        }
+    }
+
+    @Override
+    public void bulkInsert(Runnable inserts) {
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.execute("DROP TRIGGER IF EXISTS item_fts_ai"));
+        try {
+            inserts.run();
+        } finally {
+            // Writes are serialised per shard, so nothing is inserted between the rebuild
+            // and the trigger taking over again.
+            transactionTemplate.executeWithoutResult(status -> restoreInsertTrigger());
+        }
+    }
+
+    private void restoreInsertTrigger() {
+        jdbcTemplate.execute(INSERT_TRIGGER);
+        jdbcTemplate.execute(REBUILD);
+    }
+
+    private boolean exists(String type, String name) {
+        Integer existing = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM sqlite_master WHERE type = ? AND name = ?", Integer.class, type, name);
+        return existing != null && existing > 0;
+    }
+
+    @Override
+    public List<Long> search(String query, boolean prefix, int limit) {
+        String like = ItemSearchIndex.likeEscape(query);
+        String startsWith = like + "%";
+        String contains = prefix ? startsWith : "%" + like + "%";
+        if (query.length() < MIN_INDEXED_QUERY_LENGTH) {
+            return jdbcTemplate.queryForList(
+                    "SELECT id FROM item WHERE name LIKE ? ESCAPE '\\' "
+                            + "ORDER BY (name LIKE ? ESCAPE '\\') DESC, id LIMIT ?",
+                    Long.class, contains, startsWith, limit);
+        }
+        String phrase = "\"" + query.replace("\"", "\"\"") + "\"";
+        return jdbcTemplate.queryForList(
+                "SELECT rowid FROM item_fts WHERE item_fts MATCH ? AND name LIKE ? ESCAPE '\\' "
+                        + "ORDER BY (name LIKE ? ESCAPE '\\') DESC, rank LIMIT ?",
+                Long.class, phrase, contains, startsWith, limit);
+    }
+}
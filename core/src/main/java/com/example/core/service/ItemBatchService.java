@@ -0,0 +1,117 @@
+package com.example.core.service;
+
+import com.example.core.config.ItemShards;
+import com.example.core.dto.ItemBatchResult;
+import com.example.core.entity.Item;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Splits bulk writes into fixed-size chunks and commits each chunk in its own
+ * {@link ItemService} transaction. Input is consumed lazily, so a large import only
+ * ever holds one chunk in memory, and a failing chunk does not undo earlier ones.
+ * <p>
+ * With several shards a transaction covers one shard, so updates and deletes are
+ * further split into one chunk per shard, each reported on its own. Every reported
+ * chunk therefore either committed or rolled back as a whole.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ItemBatchService {
+
+    private final ItemService itemService;
+
+    private final ItemShards itemShards;
+
+    @Value("${item.batch.chunk-size:500}")
+    private int chunkSize = 500;
+
+    public List<ItemBatchResult> createItems(Iterator<Item> items) {
+        return inChunks(items, null, (chunk, records) -> {
+            List<Item> created = itemService.createItems(records);
+            return ItemBatchResult.committed(chunk, records.size(), created.size(), ids(created), List.of());
+        });
+    }
+
+    public List<ItemBatchResult> updateItems(Iterator<Item> items) {
+        return inChunks(items, Item::getId, (chunk, records) -> {
+            List<Item> updated = itemService.updateItems(records);
+            Set<Long> updatedIds = updated.stream().map(Item::getId).collect(Collectors.toSet());
+            List<Long> missingIds = records.stream()
+                    .map(Item::getId)
+                    .filter(id -> !updatedIds.contains(id))
+                    .toList();
+            return ItemBatchResult.committed(chunk, records.size(), updated.size(), ids(updated), missingIds);
+        });
+    }
+
+    public List<ItemBatchResult> deleteItems(Iterator<Long> ids) {
+        return inChunks(ids, Function.identity(), (chunk, records) -> {
+            int deleted = itemService.deleteItems(records);
+            return ItemBatchResult.committed(chunk, records.size(), deleted, records, null);
+        });
+    }
+
+    // idOf is null for records that have no shard yet.
+    private <T> List<ItemBatchResult> inChunks(Iterator<T> input, Function<T, Long> idOf, ChunkWriter<T> writer) {
+        List<ItemBatchResult> results = new ArrayList<>();
+        int chunk = 0;
+        while (true) {
+            List<T> records = new ArrayList<>(chunkSize);
+            try {
+                while (records.size() < chunkSize && input.hasNext()) {
+                    records.add(input.next());
+                }
+            } catch (RuntimeException e) {
+                // Malformed input: keep what already committed and stop reading.
+                results.add(ItemBatchResult.failed(chunk, records.size(), "Invalid input: " + e.getMessage()));
+                return results;
+            }
+            if (records.isEmpty()) {
+                return results;
+            }
+            for (List<T> share : byShard(records, idOf)) {
+                try {
+                    results.add(writer.write(chunk, share));
+                } catch (RuntimeException e) {
+                    log.warn("Bulk write chunk {} ({} records) rolled back", chunk, share.size(), e);
+                    results.add(ItemBatchResult.failed(chunk, share.size(), e.getMessage()));
+                }
+                chunk++;
+            }
+        }
+    }
+
+    private <T> Iterable<List<T>> byShard(List<T> records, Function<T, Long> idOf) {
+        if (idOf == null || !itemShards.isSharded()) {
+            return List.of(records);
+        }
+        Map<Integer, List<T>> shares = new TreeMap<>();
+        for (T record : records) {
+            Long id = idOf.apply(record);
+            shares.computeIfAbsent(id == null ? 0 : itemShards.ownerOf(id), shard -> new ArrayList<>()).add(record);
+        }
+        return shares.values();
+    }
+
+    private static List<Long> ids(List<Item> items) {
+        return items.stream().map(Item::getId).toList();
+    }
+
+    @FunctionalInterface
+    private interface ChunkWriter<T> {
+        ItemBatchResult write(int chunk, List<T> records);
+    }
+}
@@ -0,0 +1,343 @@
+package com.example.core.service;
+
+import com.example.core.dto.ItemIngestStatus;
+import com.example.core.entity.Item;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Write-behind ingestion of new items. Enabled with {@code item.ingest.enabled=true}.
+ * <p>
+ * {@link #submit} puts the item on a bounded queue and returns straight away with a
+ * tracking id. A single writer thread takes items off the queue and commits them in
+ * batches of up to {@code item.ingest.batch-size}, waiting at most
+ * {@code item.ingest.flush-interval} after the first item for a batch to fill, so a
+ * burst of writes costs one transaction (and on SQLite one fsync) per batch instead of
+ * one per item. A batch that fails is retried one item at a time, so one bad item only
+ * fails itself. The outcome of each item can be looked up with {@link #status} for
+ * {@code item.ingest.status-retention} after it was accepted.
+ * <p>
+ * Whatever a batch throws, including an {@link Error}, fails that batch's items and the
+ * writer goes on with the next. Should the writer itself stop, the service stops
+ * accepting items, fails the ones still queued and reports why in
+ * {@link #writerFailure()}.
+ * <p>
+ * When the queue is full, {@link #submit} waits up to {@code item.ingest.offer-timeout}
+ * for room and then throws {@link RejectedExecutionException}. On shutdown the service
+ * stops after the web server, stops accepting items and commits everything still
+ * queued before the data source closes.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "item.ingest.enabled", havingValue = "true")
+public class ItemIngestService implements SmartLifecycle, MeterBinder {
+
+    private final ItemService itemService;
+
+    private final int batchSize;
+
+    private final long flushIntervalNanos;
+
+    private final long offerTimeoutNanos;
+
+    private final Duration shutdownTimeout;
+
+    private final BlockingQueue<Pending> queue;
+
+    private final Cache<String, ItemIngestStatus> statuses;
+
+    // Submitters hold the read lock while offering, so once stop() has taken the write
+    // lock and cleared accepting, nothing more can reach the queue.
+    private final ReadWriteLock acceptLock = new ReentrantReadWriteLock();
+
+    private volatile boolean accepting;
+
+    private volatile Thread writer;
+
+    private volatile Throwable writerFailure;
+
+    private volatile Meters meters;
+
+    public ItemIngestService(ItemService itemService,
+            @Value("${item.ingest.queue-capacity:10000}") int queueCapacity,
+            @Value("${item.ingest.batch-size:500}") int batchSize,
+            @Value("${item.ingest.flush-interval:50ms}") Duration flushInterval,
+            @Value("${item.ingest.offer-timeout:100ms}") Duration offerTimeout,
+            @Value("${item.ingest.shutdown-timeout:30s}") Duration shutdownTimeout,
+            @Value("${item.ingest.status-retention:5m}") Duration statusRetention,
+            @Value("${item.ingest.status-max-size:100000}") long statusMaxSize) {
+        this.itemService = itemService;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.offerTimeoutNanos = offerTimeout.toNanos();
+        this.shutdownTimeout = shutdownTimeout;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.statuses = Caffeine.newBuilder()
+                .expireAfterWrite(statusRetention)
+                .maximumSize(statusMaxSize)
+                .build();
+    }
+
+    /**
+     * Queues an item for creation and returns its pending status. Any id on the item is
+     * ignored, as for the bulk create.
+     *
+     * @throws RejectedExecutionException if the queue stayed full for the offer timeout,
+     *                                    or the service is shutting down
+     */
+    public ItemIngestStatus submit(Item item) {
+        Pending pending = new Pending(UUID.randomUUID().toString(), item, System.nanoTime());
+        ItemIngestStatus status = ItemIngestStatus.pending(pending.id());
+        statuses.put(pending.id(), status);
+        boolean queued = false;
+        acceptLock.readLock().lock();
+        try {
+            queued = accepting && queue.offer(pending, offerTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            acceptLock.readLock().unlock();
+        }
+        if (!queued) {
+            statuses.invalidate(pending.id());
+            Meters bound = meters;
+            if (bound != null) {
+                bound.rejected().increment();
+            }
+            throw new RejectedExecutionException(accepting ? "Item ingest queue is full" : "Item ingest is not running");
+        }
+        return status;
+    }
+
+    public Optional<ItemIngestStatus> status(String id) {
+        return Optional.ofNullable(statuses.getIfPresent(id));
+    }
+
+    public int queueDepth() {
+        return queue.size();
+    }
+
+    public boolean isAccepting() {
+        return accepting;
+    }
+
+    /**
+     * Returns what stopped the writer while the service was running, if anything did.
+     * Items are refused from then on.
+     */
+    public Optional<Throwable> writerFailure() {
+        return Optional.ofNullable(writerFailure);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("item.ingest.queue.depth", queue, BlockingQueue::size)
+                .description("Items accepted for ingestion and not yet committed")
+                .register(registry);
+        Gauge.builder("item.ingest.queue.remaining", queue, BlockingQueue::remainingCapacity)
+                .description("Items the ingest queue can take before submitters are turned away")
+                .register(registry);
+        meters = new Meters(
+                Timer.builder("item.ingest.flush")
+                        .description("Time to commit one batch of ingested items")
+                        .register(registry),
+                Timer.builder("item.ingest.latency")
+                        .description("Time from accepting an item to committing it")
+                        .register(registry),
+                DistributionSummary.builder("item.ingest.batch.size")
+                        .description("Items committed per batch")
+                        .register(registry),
+                Counter.builder("item.ingest.rejected")
+                        .description("Items turned away because the ingest queue was full")
+                        .register(registry),
+                Counter.builder("item.ingest.failed")
+                        .description("Accepted items that could not be written")
+                        .register(registry));
+    }
+
+    @Override
+    public void start() {
+        accepting = true;
+        Thread thread = new Thread(this::drain, "item-ingest-writer");
+        thread.setDaemon(true);
+        writer = thread;
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        stopAccepting();
+        Thread thread = writer;
+        if (thread == null) {
+            return;
+        }
+        log.info("Draining {} queued items before shutdown", queue.size());
+        try {
+            thread.join(shutdownTimeout.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (thread.isAlive()) {
+            log.error("Item ingest writer did not finish within {}; {} accepted items were not written",
+                    shutdownTimeout, queue.size());
+        }
+        writer = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return writer != null;
+    }
+
+    // The web server stops at DEFAULT_PHASE - 1; stopping after it means no request can
+    // still be submitting while the queue drains.
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 1024;
+    }
+
+    private void stopAccepting() {
+        acceptLock.writeLock().lock();
+        try {
+            accepting = false;
+        } finally {
+            acceptLock.writeLock().unlock();
+        }
+    }
+
+    private void drain() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        try {
+            while (accepting || !queue.isEmpty()) {
+                try {
+                    fill(batch);
+                } catch (InterruptedException e) {
+                    // Only the JVM going down interrupts the writer; commit what was taken.
+                    Thread.currentThread().interrupt();
+                }
+                if (!batch.isEmpty()) {
+                    flush(batch);
+                    batch.clear();
+                }
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+            }
+        } catch (Throwable e) {
+            // flush() fails its own batch, so this is the writer itself breaking. Refuse
+            // new items rather than answer 202 for items nothing will write.
+            writerFailure = e;
+            stopAccepting();
+            log.error("Item ingest writer stopped; refusing new items and failing {} queued ones",
+                    batch.size() + queue.size(), e);
+            queue.drainTo(batch);
+            batch.forEach(pending -> failed(pending, e));
+        }
+    }
+
+    // Waits for a first item, then collects more until the batch is full or the flush
+    // interval has passed. While shutting down it takes only what is already queued.
+    private void fill(List<Pending> batch) throws InterruptedException {
+        Pending first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + flushIntervalNanos;
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0 || !accepting) {
+                return;
+            }
+            Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void flush(List<Pending> batch) {
+        long started = System.nanoTime();
+        try {
+            List<Item> created = itemService.createItems(batch.stream().map(Pending::item).toList());
+            for (int i = 0; i < batch.size(); i++) {
+                committed(batch.get(i), created.get(i));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Ingest batch of {} items rolled back, retrying them one at a time", batch.size(), e);
+            batch.forEach(this::flushOne);
+        } catch (Throwable e) {
+            // Not a failed write but a broken one; retrying item by item would not help.
+            log.error("Ingest batch of {} items failed", batch.size(), e);
+            batch.forEach(pending -> failed(pending, e));
+        }
+        Meters bound = meters;
+        if (bound != null) {
+            bound.flush().record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            bound.batchSize().record(batch.size());
+        }
+    }
+
+    private void flushOne(Pending pending) {
+        try {
+            committed(pending, itemService.createItems(List.of(pending.item())).get(0));
+        } catch (Throwable e) {
+            log.warn("Ingested item {} could not be written", pending.id(), e);
+            failed(pending, e);
+        }
+    }
+
+    // Leaves items that did commit alone.
+    private void failed(Pending pending, Throwable cause) {
+        String error = cause.getMessage() != null ? cause.getMessage() : cause.getClass().getName();
+        boolean[] settled = { false };
+        statuses.asMap().computeIfPresent(pending.id(), (id, current) -> {
+            settled[0] = current.state() != ItemIngestStatus.State.PENDING;
+            return settled[0] ? current : ItemIngestStatus.failed(id, error);
+        });
+        Meters bound = meters;
+        if (bound != null && !settled[0]) {
+            bound.failed().increment();
+        }
+    }
+
+    private void committed(Pending pending, Item created) {
+        statuses.put(pending.id(), ItemIngestStatus.committed(pending.id(), created.getId()));
+        Meters bound = meters;
+        if (bound != null) {
+            bound.latency().record(System.nanoTime() - pending.acceptedNanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private record Pending(String id, Item item, long acceptedNanos) {
+    }
+
+    private record Meters(Timer flush, Timer latency, DistributionSummary batchSize, Counter rejected,
+            Counter failed) {
+    }
+}
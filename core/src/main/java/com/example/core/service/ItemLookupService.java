@@ -0,0 +1,153 @@
+package com.example.core.service;
+
+import com.example.core.config.CacheConfig;
+import com.example.core.config.ReadYourWrites;
+import com.example.core.dto.ItemLookup;
+import com.example.core.entity.Item;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Looks up many items by id at once, for callers that would otherwise fetch them one
+ * request at a time. Duplicate ids are dropped and ids already in the item cache are
+ * served from it. The rest are split into chunks of {@code item.lookup.chunk-size} ids,
+ * each loaded with one {@code IN} query in its own read-only transaction. Up to
+ * {@code item.lookup.parallelism} chunks run at once: one on the calling thread and the
+ * others on a small pool shared by all lookups, so a large lookup cannot take every
+ * connection. Loaded items are added to the cache.
+ */
+@Service
+public class ItemLookupService {
+
+    private final ItemService itemService;
+
+    private final ObjectProvider<CacheManager> cacheManager;
+
+    private final int chunkSize;
+
+    private final ExecutorService chunkLoaders;
+
+    public ItemLookupService(ItemService itemService, ObjectProvider<CacheManager> cacheManager,
+            @Value("${item.lookup.chunk-size:100}") int chunkSize,
+            @Value("${item.lookup.parallelism:4}") int parallelism) {
+        this.itemService = itemService;
+        this.cacheManager = cacheManager;
+        this.chunkSize = Math.max(1, chunkSize);
+        AtomicInteger threads = new AtomicInteger();
+        this.chunkLoaders = Executors.newFixedThreadPool(Math.max(1, parallelism - 1), runnable -> {
+            Thread thread = new Thread(runnable, "item-lookup-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Returns the items with the given ids in the order each id first appears, and the
+     * ids that matched no item.
+     */
+    public ItemLookup getItemsById(List<Long> ids) {
+        List<Long> unique = new ArrayList<>(new LinkedHashSet<>(ids));
+        unique.removeIf(Objects::isNull);
+        Cache cache = cache();
+        Map<Long, Item> found = new HashMap<>();
+        List<Long> misses = new ArrayList<>();
+        for (Long id : unique) {
+            Item cached = cache == null ? null : cache.get(id, Item.class);
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                misses.add(id);
+            }
+        }
+        for (Item item : load(misses)) {
+            found.put(item.getId(), item);
+            if (cache != null) {
+                cache.putIfAbsent(item.getId(), item);
+            }
+        }
+        List<Item> items = new ArrayList<>(found.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : unique) {
+            Item item = found.get(id);
+            if (item != null) {
+                items.add(item);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return new ItemLookup(items, missingIds);
+    }
+
+    @PreDestroy
+    public void close() {
+        chunkLoaders.shutdownNow();
+    }
+
+    private List<Item> load(List<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            chunks.add(ids.subList(from, Math.min(ids.size(), from + chunkSize)));
+        }
+        if (chunks.isEmpty()) {
+            return List.of();
+        }
+        if (chunks.size() == 1) {
+            return itemService.findItemsById(chunks.get(0));
+        }
+        // Pool threads must route their reads the way the caller's would.
+        long pinnedUntil = ReadYourWrites.pinnedUntil();
+        List<Future<List<Item>>> pending = new ArrayList<>(chunks.size() - 1);
+        for (List<Long> chunk : chunks.subList(1, chunks.size())) {
+            pending.add(chunkLoaders.submit(() -> loadPinned(chunk, pinnedUntil)));
+        }
+        try {
+            List<Item> items = new ArrayList<>(itemService.findItemsById(chunks.get(0)));
+            for (Future<List<Item>> chunk : pending) {
+                items.addAll(chunk.get());
+            }
+            return items;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading items", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            pending.forEach(chunk -> chunk.cancel(true));
+        }
+    }
+
+    private List<Item> loadPinned(List<Long> ids, long pinnedUntil) {
+        if (pinnedUntil > 0) {
+            ReadYourWrites.pinToPrimaryUntil(pinnedUntil);
+        }
+        try {
+            return itemService.findItemsById(ids);
+        } finally {
+            ReadYourWrites.clear();
+        }
+    }
+
+    private Cache cache() {
+        CacheManager manager = cacheManager.getIfAvailable();
+        return manager == null ? null : manager.getCache(CacheConfig.ITEMS_CACHE);
+    }
+}
@@ -1,43 +1,412 @@
 package com.example.core.service;
 
+import com.example.core.config.CacheConfig;
+import com.example.core.config.Coalesced;
+import com.example.core.config.ItemShards;
+import com.example.core.config.Sharded;
+import com.example.core.dto.ItemPage;
+import com.example.core.dto.ItemPatch;
+import com.example.core.dto.ItemView;
 import com.example.core.entity.Item;
+import com.example.core.event.ItemChangeEvent;
+import com.example.core.repository.ItemChangeCounter;
 import com.example.core.repository.ItemRepository;
+import com.example.core.search.ItemPriceIndex;
+import com.example.core.search.ItemSearchIndex;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+/**
+ * Reads and writes items. With several shards ({@code item.shards.count}), calls on
+ * particular items run on the shard that owns them (see {@link Sharded}), while
+ * listings, search and price queries read every shard in parallel and merge the results.
+ */
 @Service
 @RequiredArgsConstructor
 public class ItemService {
 
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private static final Comparator<ItemView> BY_ID = Comparator.comparing(ItemView::id);
+
+    private static final Comparator<ItemView> BY_PRICE =
+            Comparator.comparing(ItemView::price).thenComparing(ItemView::id);
+
     private final ItemRepository itemRepository;
+
+    private final ItemSearchIndex itemSearchIndex;
+
+    private final ItemPriceIndex itemPriceIndex;
+
+    private final ItemChangeCounter itemChangeCounter;
+
+    private final ItemShards itemShards;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final ObjectProvider<CacheManager> cacheManager;
+
+    @Value("${item.stream.fetch-size:500}")
+    private int streamFetchSize = 500;
     
-    public List<Item> getAllItems() {
-        return itemRepository.findAll();
+    /**
+     * Returns every item in id order, holding only the given fields. Listings are read as
+     * {@link ItemView}s rather than entities, so large results skip entity hydration and
+     * dirty-checking snapshots.
+     */
+    @Transactional(readOnly = true)
+    public List<ItemView> getAllItems(Set<ItemView.Field> fields) {
+        return merge(itemShards.readEach(() -> itemRepository.findViews(fields)), BY_ID, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns a number that changes whenever any item is created, updated or deleted,
+     * for validating cached collection responses without loading them.
+     */
+    @Transactional(readOnly = true)
+    public long getChangeCount() {
+        // Each shard's counter only goes up, so their sum does too.
+        return itemShards.readEach(itemChangeCounter::current).stream().mapToLong(Long::longValue).sum();
+    }
+
+    @Transactional(readOnly = true)
+    public ItemPage getItemPage(Long after, int limit, Set<ItemView.Field> fields) {
+        int pageSize = pageSize(limit);
+        List<ItemView> items = merge(
+                itemShards.readEach(() -> itemRepository.findViewsAfter(after == null ? 0L : after, pageSize, fields)),
+                BY_ID, pageSize);
+        Long nextCursor = items.size() == pageSize ? items.get(items.size() - 1).id() : null;
+        return new ItemPage(items, nextCursor);
+    }
+
+    /**
+     * Passes every item to the consumer in id order; with several shards, in id order
+     * within each shard, one shard after another.
+     */
+    @Transactional(readOnly = true)
+    public void streamAllItems(Consumer<Item> consumer) {
+        itemShards.readInTurn(() -> itemRepository.streamAll(streamFetchSize, consumer));
     }
     
+    @Cacheable(cacheNames = CacheConfig.ITEMS_CACHE, key = "#id", unless = "#result == null")
+    @Coalesced
+    @Sharded(Sharded.By.ID)
+    @Transactional(readOnly = true)
     public Optional<Item> getItemById(Long id) {
         return itemRepository.findById(id);
     }
     
-    public List<Item> searchItemsByName(String name) {
-        return itemRepository.findByNameContaining(name);
+    /**
+     * Returns the current version of an item, or nothing if there is no item with the id.
+     * Bypasses the item cache.
+     */
+    @Sharded(Sharded.By.ID)
+    @Transactional(readOnly = true)
+    public Optional<Long> getVersion(Long id) {
+        return itemRepository.findVersionById(id);
     }
-    
-    public List<Item> findItemsUnderPrice(Double price) {
-        return itemRepository.findByPriceLessThanEqual(price);
+
+    /**
+     * Loads the items with the given ids in one {@code IN} query, in no particular order.
+     * Ids without an item are left out. Bypasses the item cache; see
+     * {@link ItemLookupService} for cached, chunked lookups.
+     */
+    @Sharded(Sharded.By.IDS)
+    @Transactional(readOnly = true)
+    public List<Item> findItemsById(Collection<Long> ids) {
+        return itemRepository.findAllById(ids);
+    }
+
+    /**
+     * Returns items whose name contains the given text, best matches first. With several
+     * shards each shard's best matches are taken in turn, since relevance ranks from
+     * different full-text indexes do not compare.
+     */
+    @Coalesced
+    @Transactional(readOnly = true)
+    public List<ItemView> searchItemsByName(String name, boolean prefix, int limit, Set<ItemView.Field> fields) {
+        int pageSize = pageSize(limit);
+        return interleave(itemShards.readEach(
+                () -> findAllInOrder(itemSearchIndex.search(name, prefix, pageSize), fields)), pageSize);
+    }
+
+    /**
+     * Returns items priced within the given bounds (either may be {@code null} for an open
+     * end), ordered by price and then id. Served from the in-memory price index once it
+     * has loaded, and from the price column index otherwise.
+     */
+    @Transactional(readOnly = true)
+    public List<ItemView> findItemsByPrice(Double minPrice, Double maxPrice, boolean descending, int limit,
+            Set<ItemView.Field> fields) {
+        double min = minPrice == null ? -Double.MAX_VALUE : minPrice;
+        double max = maxPrice == null ? Double.MAX_VALUE : maxPrice;
+        int pageSize = pageSize(limit);
+        if (itemPriceIndex.isReady()) {
+            List<Long> ids = itemPriceIndex.range(min, max, descending, pageSize);
+            return merge(itemShards.readEach(() -> findAllInOrder(ids, fields)), inOrderOf(ids), pageSize);
+        }
+        if (!itemShards.isSharded()) {
+            return itemRepository.findViewsByPrice(min, max, descending, pageSize, fields);
+        }
+        // Shard results can only be merged by price if they carry it.
+        Set<ItemView.Field> selected = EnumSet.of(ItemView.Field.PRICE);
+        selected.addAll(fields);
+        Comparator<ItemView> order = descending ? BY_PRICE.reversed() : BY_PRICE;
+        List<ItemView> items = merge(itemShards.readEach(
+                () -> itemRepository.findViewsByPrice(min, max, descending, pageSize, selected)), order, pageSize);
+        if (fields.contains(ItemView.Field.PRICE)) {
+            return items;
+        }
+        return items.stream()
+                .map(item -> new ItemView(item.id(), item.name(), item.description(), null, item.version()))
+                .toList();
     }
     
+    @CachePut(cacheNames = CacheConfig.ITEMS_CACHE, key = "#result.id")
+    @Sharded(Sharded.By.ID)
     @Transactional
     public Item saveItem(Item item) {
-        return itemRepository.save(item);
+        boolean created = item.getId() == null;
+        if (created) {
+            item.setVersion(0);
+        }
+        Item saved = itemRepository.save(item);
+        eventPublisher.publishEvent(created ? ItemChangeEvent.created(saved) : ItemChangeEvent.updated(saved));
+        return saved;
     }
     
+    /**
+     * Replaces the name, description and price of an item in a single UPDATE, without
+     * loading it first. When {@code expectedVersion} is given the update only applies if
+     * the item is still at that version, otherwise an
+     * {@link OptimisticLockingFailureException} is thrown. Returns the item as written,
+     * with its new version, or nothing if there is no item with the id.
+     */
+    @CacheEvict(cacheNames = CacheConfig.ITEMS_CACHE, key = "#id")
+    @Sharded(Sharded.By.ID)
+    @Transactional
+    public Optional<Item> updateItem(Long id, Item changes, Long expectedVersion) {
+        int updated = itemRepository.updateById(
+                id, changes.getName(), changes.getDescription(), changes.getPrice(), expectedVersion);
+        checkUpdated(id, updated, expectedVersion);
+        if (updated == 0) {
+            return Optional.empty();
+        }
+        Item written = new Item(id, changes.getName(), changes.getDescription(), changes.getPrice(),
+                newVersion(id, expectedVersion));
+        eventPublisher.publishEvent(ItemChangeEvent.updated(written));
+        return Optional.of(written);
+    }
+
+    /**
+     * Sets only the fields present in the patch, in a single UPDATE that touches just
+     * those columns. Versions are checked as for {@link #updateItem(Long, Item, Long)}.
+     * Returns the item's new version, or nothing if there is no item with the id.
+     */
+    @CacheEvict(cacheNames = CacheConfig.ITEMS_CACHE, key = "#id")
+    @Sharded(Sharded.By.ID)
+    @Transactional
+    public Optional<Long> patchItem(Long id, ItemPatch patch, Long expectedVersion) {
+        int updated = itemRepository.patchById(id, patch, expectedVersion);
+        checkUpdated(id, updated, expectedVersion);
+        if (updated == 0) {
+            return Optional.empty();
+        }
+        long version = newVersion(id, expectedVersion);
+        Item changes = new Item(id, patch.name(), patch.description(), patch.price(), version);
+        eventPublisher.publishEvent(ItemChangeEvent.patched(id, changes));
+        return Optional.of(version);
+    }
+
+    /**
+     * Deletes an item in a single statement. Returns the number of items deleted, 0 if
+     * there is no item with the id.
+     */
+    @CacheEvict(cacheNames = CacheConfig.ITEMS_CACHE, key = "#id")
+    @Sharded(Sharded.By.ID)
+    @Transactional
+    public int deleteItem(Long id) {
+        int deleted = itemRepository.deleteByIdIn(List.of(id));
+        if (deleted > 0) {
+            eventPublisher.publishEvent(ItemChangeEvent.deleted(id));
+        }
+        return deleted;
+    }
+
+    @Sharded(Sharded.By.NEW)
+    @Transactional
+    public List<Item> createItems(List<Item> items) {
+        items.forEach(item -> {
+            item.setId(null);
+            item.setVersion(0);
+        });
+        List<Item> created = itemRepository.saveAll(items);
+        created.forEach(item -> eventPublisher.publishEvent(ItemChangeEvent.created(item)));
+        return created;
+    }
+
+    /**
+     * Applies the given field values to the items with matching ids. Existing rows are
+     * loaded with a single IN query so the changes flush as one batched UPDATE per JDBC
+     * batch instead of a select-then-update per item. Items without a match are skipped.
+     * Only the updated items are evicted from the item cache.
+     */
+    @Sharded(Sharded.By.IDS_OF_ONE_SHARD)
     @Transactional
-    public void deleteItem(Long id) {
-        itemRepository.deleteById(id);
+    public List<Item> updateItems(List<Item> items) {
+        List<Long> ids = items.stream().map(Item::getId).filter(Objects::nonNull).toList();
+        Map<Long, Item> existing = itemRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        List<Item> updated = new ArrayList<>(existing.size());
+        for (Item item : items) {
+            Item target = item.getId() == null ? null : existing.get(item.getId());
+            if (target != null) {
+                target.setName(item.getName());
+                target.setDescription(item.getDescription());
+                target.setPrice(item.getPrice());
+                updated.add(target);
+                eventPublisher.publishEvent(ItemChangeEvent.updated(target));
+            }
+        }
+        evictAfterCommit(updated.stream().map(Item::getId).toList());
+        return updated;
+    }
+
+    /**
+     * Deletes the items with the given ids in a single statement and evicts them from the
+     * item cache. The ids that have an item are locked first, in the same transaction, so
+     * delete events are only published for items that were actually there. Returns the
+     * number of items deleted.
+     */
+    @Sharded(Sharded.By.IDS_OF_ONE_SHARD)
+    @Transactional
+    public int deleteItems(Collection<Long> ids) {
+        List<Long> existing = itemRepository.lockExistingIds(ids);
+        if (existing.isEmpty()) {
+            return 0;
+        }
+        int deleted = itemRepository.deleteByIdIn(existing);
+        existing.forEach(id -> eventPublisher.publishEvent(ItemChangeEvent.deleted(id)));
+        evictAfterCommit(existing);
+        return deleted;
+    }
+
+    // Batch writes touch too many keys for @CacheEvict, which can only name one key or
+    // clear the whole cache. Like it, the keys are evicted once the write has committed,
+    // so a read that races the write cannot leave the old row cached.
+    private void evictAfterCommit(List<Long> ids) {
+        CacheManager manager = cacheManager.getIfAvailable();
+        Cache cache = manager == null ? null : manager.getCache(CacheConfig.ITEMS_CACHE);
+        if (cache == null || ids.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            ids.forEach(cache::evict);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+            @Override
+            public void afterCommit() {
+                ids.forEach(cache::evict);
+            }
+        });
+    }
+
+    // Version written by an update that just succeeded. A conditional update bumped the
+    // expected version; otherwise it is read back, which sees this transaction's write
+    // since the row stays locked until it commits.
+    private long newVersion(Long id, Long expectedVersion) {
+        if (expectedVersion != null) {
+            return expectedVersion + 1;
+        }
+        return itemRepository.findVersionById(id).orElseThrow();
+    }
+
+    // A conditional update that matched nothing only needs a second look to tell a
+    // missing item from a stale version.
+    private void checkUpdated(Long id, int updated, Long expectedVersion) {
+        if (updated == 0 && expectedVersion != null && itemRepository.existsById(id)) {
+            throw new OptimisticLockingFailureException("Item " + id + " is no longer at version " + expectedVersion);
+        }
+    }
+
+    private List<ItemView> findAllInOrder(List<Long> ids, Set<ItemView.Field> fields) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, ItemView> items = itemRepository.findViewsById(ids, fields).stream()
+                .collect(Collectors.toMap(ItemView::id, Function.identity()));
+        return ids.stream().map(items::get).filter(Objects::nonNull).toList();
+    }
+
+    // Merges lists that are each sorted by order, one per shard, into one of at most limit items.
+    private static List<ItemView> merge(List<List<ItemView>> shards, Comparator<ItemView> order, int limit) {
+        if (shards.size() == 1) {
+            return shards.get(0);
+        }
+        List<ItemView> merged = new ArrayList<>();
+        shards.forEach(merged::addAll);
+        merged.sort(order);
+        return merged.size() > limit ? List.copyOf(merged.subList(0, limit)) : merged;
+    }
+
+    // Takes the first item of every shard, then the second, and so on, up to limit items.
+    private static List<ItemView> interleave(List<List<ItemView>> shards, int limit) {
+        if (shards.size() == 1) {
+            return shards.get(0);
+        }
+        List<ItemView> merged = new ArrayList<>();
+        for (int i = 0; merged.size() < limit; i++) {
+            boolean more = false;
+            for (List<ItemView> shard : shards) {
+                if (i < shard.size() && merged.size() < limit) {
+                    merged.add(shard.get(i));
+                    more = true;
+                }
+            }
+            if (!more) {
+                break;
+            }
+        }
+        return merged;
+    }
+
+    private static Comparator<ItemView> inOrderOf(List<Long> ids) {
+        Map<Long, Integer> positions = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            positions.putIfAbsent(ids.get(i), i);
+        }
+        return Comparator.comparing(item -> positions.get(item.id()));
+    }
+
+    private static int pageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
     }
-}
\ No newline at end of file
+}
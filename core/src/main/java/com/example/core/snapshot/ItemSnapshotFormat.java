@@ -0,0 +1,87 @@
+package com.example.core.snapshot;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.zip.CRC32C;
+
+/**
+ * Layout of an item snapshot file, all numbers little-endian:
+ * <pre>
+ * header (48 bytes)
+ *   long   magic "ITEMSNAP"
+ *   int    format version
+ *   int    reserved, 0
+ *   long   number of items
+ *   long   highest item id, 0 when empty
+ *   long   length of the rows in bytes
+ *   int    CRC32C of the rows
+ *   int    CRC32C of the 44 header bytes before it
+ * rows, one per item, in the order they were exported
+ *   int    length of the rest of the row
+ *   long   id
+ *   long   version
+ *   double price, NaN when the item has none
+ *   int    name length in UTF-8 bytes, -1 for null, then the bytes
+ *   int    description length in UTF-8 bytes, -1 for null, then the bytes
+ * </pre>
+ * Every row carries its own length, so a reader can step over the file without
+ * decoding it and never has to look ahead past the row it is on.
+ */
+final class ItemSnapshotFormat {
+
+    static final int HEADER_SIZE = 48;
+
+    // id, version, price and the two string lengths.
+    static final int FIXED_ROW_SIZE = 3 * Long.BYTES + 2 * Integer.BYTES;
+
+    static final int NULL_LENGTH = -1;
+
+    static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    private static final long MAGIC = 0x50414E534D455449L; // "ITEMSNAP" read little-endian
+
+    private static final int VERSION = 1;
+
+    private static final int HEADER_CHECKSUM_OFFSET = HEADER_SIZE - Integer.BYTES;
+
+    private ItemSnapshotFormat() {
+    }
+
+    record Header(long items, long maxId, long bodyLength, int bodyChecksum) {
+
+        ByteBuffer encode() {
+            ByteBuffer bytes = ByteBuffer.allocate(HEADER_SIZE).order(BYTE_ORDER)
+                    .putLong(MAGIC)
+                    .putInt(VERSION)
+                    .putInt(0)
+                    .putLong(items)
+                    .putLong(maxId)
+                    .putLong(bodyLength)
+                    .putInt(bodyChecksum);
+            bytes.putInt(checksum(bytes));
+            return bytes.flip();
+        }
+
+        static Header decode(ByteBuffer bytes) {
+            bytes.order(BYTE_ORDER);
+            if (bytes.getLong(0) != MAGIC) {
+                throw new IllegalArgumentException("Not an item snapshot");
+            }
+            if (bytes.getInt(HEADER_CHECKSUM_OFFSET) != checksum(bytes)) {
+                throw new IllegalArgumentException("Item snapshot header is corrupt");
+            }
+            int version = bytes.getInt(8);
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported item snapshot version " + version);
+            }
+            return new Header(bytes.getLong(16), bytes.getLong(24), bytes.getLong(32), bytes.getInt(40));
+        }
+
+        // Over the header bytes before the checksum, whatever the buffer's position.
+        private static int checksum(ByteBuffer bytes) {
+            CRC32C crc = new CRC32C();
+            crc.update(bytes.duplicate().position(0).limit(HEADER_CHECKSUM_OFFSET));
+            return (int) crc.getValue();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.core.snapshot;
+
+/**
+ * A snapshot import that failed after some of its batches had been committed. Tells how
+ * many items were committed and whether they were deleted again, which leaves the
+ * catalogue empty so the import can be retried.
+ */
+public class ItemSnapshotImportException extends RuntimeException {
+
+    private final long committed;
+
+    private final boolean rolledBack;
+
+    public ItemSnapshotImportException(String name, long committed, boolean rolledBack, Throwable cause) {
+        super("Importing snapshot " + name + " failed after " + committed + " items were committed; "
+                + (rolledBack ? "they were deleted again, so the import can be retried"
+                        : "deleting them failed too, so they are still there"), cause);
+        this.committed = committed;
+        this.rolledBack = rolledBack;
+    }
+
+    public long committed() {
+        return committed;
+    }
+
+    public boolean rolledBack() {
+        return rolledBack;
+    }
+}
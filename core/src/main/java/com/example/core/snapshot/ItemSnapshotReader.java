@@ -0,0 +1,206 @@
+package com.example.core.snapshot;
+
+import com.example.core.snapshot.ItemSnapshotFormat.Header;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Reads a snapshot file (see {@link ItemSnapshotFormat}) through memory-mapped windows
+ * of up to 1 GiB, so the rows are paged in by the operating system rather than copied
+ * onto the heap. {@link #open} checks the header; {@link #verify()} checks the rows
+ * against their checksum and should run before the rows are used.
+ */
+public final class ItemSnapshotReader implements Closeable {
+
+    private static final long WINDOW_SIZE = 1L << 30;
+
+    private final FileChannel channel;
+
+    private final Header header;
+
+    private ItemSnapshotReader(FileChannel channel, Header header) {
+        this.channel = channel;
+        this.header = header;
+    }
+
+    /**
+     * Opens a snapshot file and reads its header.
+     *
+     * @throws IllegalArgumentException if the file is not a complete snapshot
+     */
+    public static ItemSnapshotReader open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            ByteBuffer bytes = ByteBuffer.allocate(ItemSnapshotFormat.HEADER_SIZE);
+            while (bytes.hasRemaining() && channel.read(bytes, bytes.position()) >= 0) {
+                // Keep reading until the header is complete or the file ends.
+            }
+            if (bytes.hasRemaining()) {
+                throw new IllegalArgumentException("File is too short to be an item snapshot");
+            }
+            Header header = Header.decode(bytes);
+            long expectedSize = ItemSnapshotFormat.HEADER_SIZE + header.bodyLength();
+            if (channel.size() != expectedSize) {
+                throw new IllegalArgumentException(
+                        "Item snapshot should be " + expectedSize + " bytes but is " + channel.size());
+            }
+            return new ItemSnapshotReader(channel, header);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public long items() {
+        return header.items();
+    }
+
+    public long maxId() {
+        return header.maxId();
+    }
+
+    public int checksum() {
+        return header.bodyChecksum();
+    }
+
+    /**
+     * Checks the rows against the checksum in the header.
+     *
+     * @throws IllegalArgumentException if they do not match
+     */
+    public void verify() throws IOException {
+        CRC32C crc = new CRC32C();
+        for (long offset = 0; offset < header.bodyLength(); offset += WINDOW_SIZE) {
+            long size = Math.min(WINDOW_SIZE, header.bodyLength() - offset);
+            crc.update(channel.map(FileChannel.MapMode.READ_ONLY, ItemSnapshotFormat.HEADER_SIZE + offset, size));
+        }
+        if ((int) crc.getValue() != header.bodyChecksum()) {
+            throw new IllegalArgumentException("Item snapshot checksum does not match its rows");
+        }
+    }
+
+    /**
+     * Returns a cursor over the rows, positioned before the first.
+     */
+    public Cursor rows() {
+        return new Cursor();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Steps through the rows in file order. The current row's fields are read with the
+     * accessors after {@link #next()} returned {@code true}.
+     */
+    public final class Cursor {
+
+        private final long end = ItemSnapshotFormat.HEADER_SIZE + header.bodyLength();
+
+        private ByteBuffer window;
+
+        private long windowStart;
+
+        private long position = ItemSnapshotFormat.HEADER_SIZE;
+
+        private long remaining = header.items();
+
+        private long id;
+
+        private long version;
+
+        private double price;
+
+        private String name;
+
+        private String description;
+
+        private Cursor() {
+        }
+
+        public boolean next() {
+            if (remaining == 0) {
+                return false;
+            }
+            int rowLength = at(position, Integer.BYTES).getInt();
+            if (rowLength < ItemSnapshotFormat.FIXED_ROW_SIZE) {
+                throw corrupt();
+            }
+            ByteBuffer row = at(position + Integer.BYTES, rowLength);
+            int rowEnd = row.position() + rowLength;
+            id = row.getLong();
+            version = row.getLong();
+            price = row.getDouble();
+            name = string(row, rowEnd);
+            description = string(row, rowEnd);
+            position += Integer.BYTES + rowLength;
+            remaining--;
+            return true;
+        }
+
+        public long id() {
+            return id;
+        }
+
+        public long version() {
+            return version;
+        }
+
+        public Double price() {
+            return Double.isNaN(price) ? null : price;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public String description() {
+            return description;
+        }
+
+        // The window positioned at the given file offset, remapped when the range is not
+        // inside the current one. Rows are far smaller than a window, so one always fits.
+        private ByteBuffer at(long offset, int length) {
+            if (offset + length > end) {
+                throw corrupt();
+            }
+            if (window == null || offset < windowStart || offset + length > windowStart + window.capacity()) {
+                try {
+                    window = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(WINDOW_SIZE, end - offset))
+                            .order(ItemSnapshotFormat.BYTE_ORDER);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                windowStart = offset;
+            }
+            return window.position((int) (offset - windowStart));
+        }
+
+        private String string(ByteBuffer row, int rowEnd) {
+            int length = row.getInt();
+            if (length == ItemSnapshotFormat.NULL_LENGTH) {
+                return null;
+            }
+            if (length < 0 || length > rowEnd - row.position()) {
+                throw corrupt();
+            }
+            byte[] bytes = new byte[length];
+            row.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private IllegalArgumentException corrupt() {
+            return new IllegalArgumentException("Item snapshot row at offset " + position + " is corrupt");
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package com.example.core.snapshot;
+
+import com.example.core.config.ItemIdSequenceInitializer;
+import com.example.core.config.ItemShards;
+import com.example.core.config.ShardContext;
+import com.example.core.dto.ItemSnapshot;
+import com.example.core.dto.ItemView;
+import com.example.core.event.ItemsImportedEvent;
+import com.example.core.repository.ItemChangeCounter;
+import com.example.core.repository.ItemRepository;
+import com.example.core.search.ItemSearchIndex;
+import com.example.core.snapshot.ItemSnapshotFormat.Header;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Exports the item table to binary snapshot files in {@code item.snapshot.directory}
+ * and imports them back, for backups and for seeding new environments.
+ * <p>
+ * Export reads the table through a forward-only cursor straight into an
+ * {@link ItemSnapshotWriter}. Import checks the file's checksum before touching the
+ * database, then inserts the rows with batched JDBC statements, committing every
+ * {@code item.snapshot.import-batch-size} rows so other writes can interleave, and lets
+ * the search index catch up in one pass at the end. Neither holds more than one row at a
+ * time on the heap. Imports keep the snapshot's ids and go into an empty catalogue only;
+ * with several shards each row goes to the shard that owns its id.
+ * <p>
+ * An import that fails part way deletes the items up to the snapshot's highest id again.
+ * The catalogue was empty when it started and ids created meanwhile come after the
+ * snapshot's, so that removes exactly the committed batches and the import can be run
+ * again. The failure reports how many items had been committed.
+ */
+@Slf4j
+@Service
+public class ItemSnapshotService {
+
+    public static final String FILE_SUFFIX = ".snapshot";
+
+    private static final Pattern NAME = Pattern.compile("[A-Za-z0-9][A-Za-z0-9._-]{0,99}");
+
+    private static final String SELECT = "SELECT id, name, description, price, version FROM item ORDER BY id";
+
+    private static final String INSERT =
+            "INSERT INTO item (id, name, description, price, version) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String DELETE_UP_TO = "DELETE FROM item WHERE id <= ?";
+
+    private final ItemRepository itemRepository;
+
+    private final ItemSearchIndex itemSearchIndex;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final TransactionTemplate readTransaction;
+
+    private final ItemShards itemShards;
+
+    private final ItemChangeCounter itemChangeCounter;
+
+    private final ItemIdSequenceInitializer itemIdSequenceInitializer;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Path directory;
+
+    private final int fetchSize;
+
+    private final int importBatchSize;
+
+    private final ReentrantLock importLock = new ReentrantLock();
+
+    public ItemSnapshotService(ItemRepository itemRepository, ItemSearchIndex itemSearchIndex,
+            DataSource dataSource, PlatformTransactionManager transactionManager, ItemShards itemShards,
+            ItemChangeCounter itemChangeCounter, ItemIdSequenceInitializer itemIdSequenceInitializer,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${item.snapshot.directory:snapshots}") String directory,
+            @Value("${item.stream.fetch-size:500}") int fetchSize,
+            @Value("${item.snapshot.import-batch-size:10000}") int importBatchSize) {
+        this.itemRepository = itemRepository;
+        this.itemSearchIndex = itemSearchIndex;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.itemShards = itemShards;
+        this.itemChangeCounter = itemChangeCounter;
+        this.itemIdSequenceInitializer = itemIdSequenceInitializer;
+        this.eventPublisher = eventPublisher;
+        this.directory = Paths.get(directory).toAbsolutePath();
+        this.fetchSize = fetchSize;
+        this.importBatchSize = importBatchSize;
+    }
+
+    /**
+     * Lists the snapshots in the directory, by name. Files that are not readable
+     * snapshots are left out.
+     */
+    public List<ItemSnapshot> list() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        List<ItemSnapshot> snapshots = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(f -> f.getFileName().toString().endsWith(FILE_SUFFIX)).sorted().toList()) {
+                String fileName = file.getFileName().toString();
+                try (ItemSnapshotReader reader = ItemSnapshotReader.open(file)) {
+                    snapshots.add(describe(fileName.substring(0, fileName.length() - FILE_SUFFIX.length()),
+                            file, reader.items(), reader.maxId(), reader.checksum()));
+                } catch (IllegalArgumentException e) {
+                    log.warn("Skipping {}: {}", file, e.getMessage());
+                }
+            }
+        }
+        return snapshots;
+    }
+
+    /**
+     * Returns the file of the named snapshot, if there is one.
+     */
+    public Optional<Path> find(String name) {
+        Path file = file(name);
+        return Files.isRegularFile(file) ? Optional.of(file) : Optional.empty();
+    }
+
+    /**
+     * Writes every item to the named snapshot, replacing any snapshot of that name once
+     * the new one is complete.
+     */
+    public ItemSnapshot export(String name) throws IOException {
+        Path target = file(name);
+        Files.createDirectories(directory);
+        long started = System.nanoTime();
+        Path partial = Files.createTempFile(directory, name, FILE_SUFFIX + ".partial");
+        try {
+            Header header;
+            try (ItemSnapshotWriter writer = ItemSnapshotWriter.create(partial)) {
+                // One shard after another, each in its own read-only transaction.
+                itemShards.forEach(() -> readTransaction.executeWithoutResult(status -> exportRows(writer)));
+                header = writer.finish();
+            }
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Exported {} items to {} in {} ms", header.items(), target, (System.nanoTime() - started) / 1_000_000);
+            return describe(name, target, header.items(), header.maxId(), header.bodyChecksum());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+    }
+
+    /**
+     * Inserts the items of the named snapshot.
+     *
+     * @throws java.nio.file.NoSuchFileException if there is no such snapshot
+     * @throws IllegalArgumentException          if the file is not a valid snapshot
+     * @throws IllegalStateException             if items already exist or another import is running
+     * @throws ItemSnapshotImportException       if the import failed after committing some items
+     */
+    public ItemSnapshot importSnapshot(String name) throws IOException {
+        Path file = file(name);
+        if (!importLock.tryLock()) {
+            throw new IllegalStateException("Another snapshot import is running");
+        }
+        try (ItemSnapshotReader reader = ItemSnapshotReader.open(file)) {
+            long started = System.nanoTime();
+            reader.verify();
+            boolean empty = itemShards.readEach(() -> itemRepository.count() == 0).stream().allMatch(Boolean::booleanValue);
+            if (!empty) {
+                throw new IllegalStateException("Snapshots can only be imported while there are no items");
+            }
+            // Ids created while the import runs have to come after the snapshot's.
+            itemIdSequenceInitializer.advancePast(reader.maxId());
+            AtomicLong committed = new AtomicLong();
+            try {
+                // With several shards each takes its own rows in a pass over the whole file.
+                itemShards.forEach(() -> itemSearchIndex.bulkInsert(() -> {
+                    ItemSnapshotReader.Cursor rows = reader.rows();
+                    while (insertBatch(rows, committed)) {
+                        // Each batch commits on its own.
+                    }
+                }));
+            } catch (RuntimeException e) {
+                throw importFailed(name, reader.maxId(), committed.get(), e);
+            }
+            eventPublisher.publishEvent(new ItemsImportedEvent(reader.items()));
+            log.info("Imported {} items from {} in {} ms", reader.items(), file, (System.nanoTime() - started) / 1_000_000);
+            return describe(name, file, reader.items(), reader.maxId(), reader.checksum());
+        } finally {
+            importLock.unlock();
+        }
+    }
+
+    /**
+     * Deletes the named snapshot. Returns whether there was one.
+     */
+    public boolean delete(String name) throws IOException {
+        return Files.deleteIfExists(file(name));
+    }
+
+    // Plain JDBC rather than a Hibernate query: per-column extraction there costs several
+    // times the read itself at millions of rows.
+    private void exportRows(ItemSnapshotWriter writer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement select = connection.prepareStatement(SELECT);
+            select.setFetchSize(fetchSize);
+            return select;
+        }, (ResultSet row) -> {
+            // wasNull() reports on the last column read, so it has to follow the price.
+            double price = row.getDouble(4);
+            Double nullablePrice = row.wasNull() ? null : price;
+            writer.write(new ItemView(row.getLong(1), row.getString(2), row.getString(3),
+                    nullablePrice, row.getLong(5)));
+        });
+    }
+
+    // Deletes the committed part of a failed import, which leaves the catalogue empty.
+    private ItemSnapshotImportException importFailed(String name, long maxId, long committed, RuntimeException cause) {
+        log.error("Importing snapshot {} failed after {} items were committed; deleting them", name, committed, cause);
+        try {
+            itemShards.forEach(() -> transactionTemplate.executeWithoutResult(status -> {
+                if (jdbcTemplate.update(DELETE_UP_TO, maxId) > 0) {
+                    itemChangeCounter.recordChange();
+                }
+            }));
+            return new ItemSnapshotImportException(name, committed, true, cause);
+        } catch (RuntimeException e) {
+            log.error("Deleting the {} items of the failed import of {} failed", committed, name, e);
+            cause.addSuppressed(e);
+            // The items stay, so the caches built from the table have to learn about them.
+            eventPublisher.publishEvent(new ItemsImportedEvent(committed));
+            return new ItemSnapshotImportException(name, committed, false, cause);
+        }
+    }
+
+    // Inserts the next batch of the current shard's rows in one transaction and adds them
+    // to committed once it has committed; false once the cursor is exhausted.
+    private boolean insertBatch(ItemSnapshotReader.Cursor rows, AtomicLong committed) {
+        Batch batch = transactionTemplate.execute(status -> jdbcTemplate.execute((ConnectionCallback<Batch>) connection -> {
+            int shard = ShardContext.current();
+            int batched = 0;
+            boolean exhausted = false;
+            try (PreparedStatement insert = connection.prepareStatement(INSERT)) {
+                while (batched < importBatchSize) {
+                    if (!rows.next()) {
+                        exhausted = true;
+                        break;
+                    }
+                    if (itemShards.ownerOf(rows.id()) != shard) {
+                        continue;
+                    }
+                    insert.setLong(1, rows.id());
+                    insert.setString(2, rows.name());
+                    insert.setString(3, rows.description());
+                    if (rows.price() == null) {
+                        insert.setNull(4, Types.DOUBLE);
+                    } else {
+                        insert.setDouble(4, rows.price());
+                    }
+                    insert.setLong(5, rows.version());
+                    insert.addBatch();
+                    batched++;
+                }
+                if (batched > 0) {
+                    insert.executeBatch();
+                    itemChangeCounter.recordChange();
+                }
+            }
+            return new Batch(batched, !exhausted);
+        }));
+        if (batch == null) {
+            return false;
+        }
+        committed.addAndGet(batch.rows());
+        return batch.more();
+    }
+
+    private record Batch(int rows, boolean more) {
+    }
+
+    private Path file(String name) {
+        if (name == null || !NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException(
+                    "Snapshot names are up to 100 letters, digits, '.', '_' or '-', starting with a letter or digit");
+        }
+        return directory.resolve(name + FILE_SUFFIX);
+    }
+
+    private static ItemSnapshot describe(String name, Path file, long items, long maxId, int checksum)
+            throws IOException {
+        return new ItemSnapshot(name, items, maxId, Files.size(file), String.format("%08x", checksum),
+                Files.getLastModifiedTime(file).toInstant());
+    }
+}
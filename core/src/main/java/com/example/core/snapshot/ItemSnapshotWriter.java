@@ -0,0 +1,117 @@
+package com.example.core.snapshot;
+
+import com.example.core.dto.ItemView;
+import com.example.core.snapshot.ItemSnapshotFormat.Header;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Writes items to a snapshot file (see {@link ItemSnapshotFormat}) as they are read.
+ * Rows are packed into one direct buffer that is checksummed and written to the file
+ * channel whenever it fills, so memory use does not depend on the number of items. The
+ * header, which needs the final counts, is written last by {@link #finish()}.
+ */
+public final class ItemSnapshotWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final FileChannel channel;
+
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ItemSnapshotFormat.BYTE_ORDER);
+
+    private final CRC32C checksum = new CRC32C();
+
+    private long items;
+
+    private long maxId;
+
+    private long bodyLength;
+
+    private ItemSnapshotWriter(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    public static ItemSnapshotWriter create(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        channel.position(ItemSnapshotFormat.HEADER_SIZE);
+        return new ItemSnapshotWriter(channel);
+    }
+
+    public void write(ItemView item) {
+        byte[] name = encode(item.name());
+        byte[] description = encode(item.description());
+        int rowLength = ItemSnapshotFormat.FIXED_ROW_SIZE + length(name) + length(description);
+        if (buffer.remaining() < Integer.BYTES + rowLength) {
+            flush();
+            if (buffer.remaining() < Integer.BYTES + rowLength) {
+                throw new IllegalArgumentException("Item " + item.id() + " is too large for a snapshot row");
+            }
+        }
+        buffer.putInt(rowLength)
+                .putLong(item.id())
+                .putLong(item.version() == null ? 0 : item.version())
+                .putDouble(item.price() == null ? Double.NaN : item.price());
+        put(name);
+        put(description);
+        items++;
+        maxId = Math.max(maxId, item.id());
+    }
+
+    /**
+     * Writes the remaining rows and the header and forces the file to disk.
+     */
+    public Header finish() throws IOException {
+        flush();
+        Header header = new Header(items, maxId, bodyLength, (int) checksum.getValue());
+        ByteBuffer encoded = header.encode();
+        while (encoded.hasRemaining()) {
+            channel.write(encoded, encoded.position());
+        }
+        channel.force(true);
+        return header;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void flush() {
+        buffer.flip();
+        checksum.update(buffer.duplicate());
+        bodyLength += buffer.remaining();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.clear();
+    }
+
+    private void put(byte[] value) {
+        if (value == null) {
+            buffer.putInt(ItemSnapshotFormat.NULL_LENGTH);
+        } else {
+            buffer.putInt(value.length).put(value);
+        }
+    }
+
+    private static byte[] encode(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int length(byte[] value) {
+        return value == null ? 0 : value.length;
+    }
+}
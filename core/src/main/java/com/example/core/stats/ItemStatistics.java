@@ -0,0 +1,197 @@
+package com.example.core.stats;
+
+import com.example.core.dto.ItemStats;
+import com.example.core.search.ItemPriceIndex;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.example.core.search.ItemPriceIndex.ABSENT;
+
+/**
+ * Optional catalogue statistics for {@code GET /api/items/stats}, kept in memory so a
+ * read costs the same however many items there are. Enabled with
+ * {@code item.stats.enabled=true}.
+ * <p>
+ * Counts, the price sum and a price histogram are striped counters, built from the
+ * prices {@link ItemPriceIndex} loads and adjusted by each change it applies, using the
+ * old price the index already holds. The statistics keep no prices of their own, and
+ * enabling them keeps the price index loaded. The lowest and highest prices are read
+ * from the price index.
+ * <p>
+ * The price index is reloaded from the database every
+ * {@code item.stats.reconcile-interval}, which rebuilds the figures. Until the first load
+ * finishes {@link #snapshot()} is empty.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "item.stats.enabled", havingValue = "true")
+public class ItemStatistics implements ItemPriceIndex.PriceListener {
+
+    private final ItemPriceIndex itemPriceIndex;
+
+    private final double[] bucketBounds;
+
+    private final Duration reconcileInterval;
+
+    private final ScheduledExecutorService reconciler;
+
+    private final AtomicBoolean started = new AtomicBoolean();
+
+    // Replaced on every load and adjusted on every change, both under the price index's lock.
+    private volatile Totals totals;
+
+    private volatile Instant reconciledAt;
+
+    public ItemStatistics(ItemPriceIndex itemPriceIndex,
+            @Value("${item.stats.price-buckets:10,50,100,500,1000}") double[] bucketBounds,
+            @Value("${item.stats.reconcile-interval:10m}") Duration reconcileInterval) {
+        this.itemPriceIndex = itemPriceIndex;
+        this.bucketBounds = Arrays.stream(bucketBounds).filter(Double::isFinite).sorted().distinct().toArray();
+        this.reconcileInterval = reconcileInterval;
+        this.reconciler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "item-stats-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.totals = new Totals(this.bucketBounds.length + 1);
+        itemPriceIndex.setListener(this);
+    }
+
+    public boolean isReady() {
+        return reconciledAt != null;
+    }
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void startReconciling() {
+        if (!started.compareAndSet(false, true)) {
+            return;
+        }
+        // The price index loads itself at startup.
+        long intervalMillis = reconcileInterval.toMillis();
+        reconciler.scheduleWithFixedDelay(this::reconcileQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void close() {
+        reconciler.shutdownNow();
+    }
+
+    /**
+     * Returns the current figures, or nothing until the first load has finished.
+     */
+    public Optional<ItemStats> snapshot() {
+        Instant reconciled = reconciledAt;
+        if (reconciled == null) {
+            return Optional.empty();
+        }
+        Totals totals = this.totals;
+        long priced = totals.priced.sum();
+        double sum = totals.priceSum.sum();
+        List<ItemStats.Bucket> buckets = new ArrayList<>(totals.buckets.length);
+        for (int i = 0; i < totals.buckets.length; i++) {
+            buckets.add(new ItemStats.Bucket(i == 0 ? null : bucketBounds[i - 1],
+                    i == bucketBounds.length ? null : bucketBounds[i], totals.buckets[i].sum()));
+        }
+        return Optional.of(new ItemStats(totals.items.sum(), priced, itemPriceIndex.lowestPrice(),
+                itemPriceIndex.highestPrice(), priced == 0 ? null : sum / priced, buckets, reconciled));
+    }
+
+    /**
+     * Reloads the price index from the database, which rebuilds the figures. Corrects
+     * writes made directly to the database and any rounding drift in the price sum.
+     */
+    public void reconcile() {
+        itemPriceIndex.load();
+    }
+
+    @Override
+    public void loaded(double[] prices) {
+        long started = System.nanoTime();
+        Totals rebuilt = new Totals(bucketBounds.length + 1);
+        for (double price : prices) {
+            rebuilt.add(bucket(price), price);
+        }
+        totals = rebuilt;
+        reconciledAt = Instant.now();
+        log.info("Reconciled statistics of {} items in {} ms", prices.length, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @Override
+    public void changed(double previous, double price) {
+        if (previous == price || (Double.isNaN(previous) && Double.isNaN(price))) {
+            return;
+        }
+        Totals current = totals;
+        current.remove(bucket(previous), previous);
+        current.add(bucket(price), price);
+    }
+
+    private void reconcileQuietly() {
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            // Keep the schedule alive; the next run starts from scratch.
+            log.warn("Reconciling item statistics failed", e);
+        }
+    }
+
+    private int bucket(double price) {
+        int index = Arrays.binarySearch(bucketBounds, price);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    private static final class Totals {
+
+        private final LongAdder items = new LongAdder();
+        private final LongAdder priced = new LongAdder();
+        private final DoubleAdder priceSum = new DoubleAdder();
+        private final LongAdder[] buckets;
+
+        Totals(int bucketCount) {
+            buckets = new LongAdder[bucketCount];
+            Arrays.setAll(buckets, i -> new LongAdder());
+        }
+
+        void add(int bucket, double price) {
+            if (price == ABSENT) {
+                return;
+            }
+            items.increment();
+            if (!Double.isNaN(price)) {
+                priced.increment();
+                priceSum.add(price);
+                buckets[bucket].increment();
+            }
+        }
+
+        void remove(int bucket, double price) {
+            if (price == ABSENT) {
+                return;
+            }
+            items.decrement();
+            if (!Double.isNaN(price)) {
+                priced.decrement();
+                priceSum.add(-price);
+                buckets[bucket].decrement();
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+-- Change counter behind the collection ETags, split over 16 rows so concurrent
+-- transactions bump different rows; readers sum them. Databases that already have the
+-- single-row table from before keep its count in row 1.
+CREATE TABLE IF NOT EXISTS item_change_counter (
+    id int NOT NULL,
+    change_count bigint NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
+
+INSERT IGNORE INTO item_change_counter (id, change_count)
+VALUES (1, 0), (2, 0), (3, 0), (4, 0), (5, 0), (6, 0), (7, 0), (8, 0),
+       (9, 0), (10, 0), (11, 0), (12, 0), (13, 0), (14, 0), (15, 0), (16, 0);
@@ -0,0 +1,12 @@
+-- InnoDB FULLTEXT index over item names with the ngram parser. Databases where it was
+-- created at startup before keep theirs; MySQL has no ADD INDEX IF NOT EXISTS, so the
+-- ALTER is only prepared when the index is missing.
+SET @create_index = (
+    SELECT IF(count(*) = 0, 'ALTER TABLE item ADD FULLTEXT INDEX ft_item_name (name) WITH PARSER ngram', 'DO 0')
+    FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'item' AND index_name = 'ft_item_name'
+);
+
+PREPARE create_index FROM @create_index;
+EXECUTE create_index;
+DEALLOCATE PREPARE create_index;
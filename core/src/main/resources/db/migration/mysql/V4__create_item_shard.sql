@@ -0,0 +1,9 @@
+-- Shard layout record, kept in step with the SQLite schema; MySQL is never sharded.
+CREATE TABLE item_shard (
+    id int NOT NULL,
+    shard_index int NOT NULL,
+    shard_count int NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
+
+INSERT INTO item_shard (id, shard_index, shard_count) VALUES (1, 0, 1);
@@ -0,0 +1,19 @@
+-- Schema previously created by Hibernate's ddl-auto=update; databases that already have
+-- it are baselined at this version instead of running it.
+CREATE TABLE item (
+    id bigint NOT NULL,
+    description varchar(255),
+    name varchar(255),
+    price float,
+    version bigint DEFAULT 0 NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_item_price ON item (price);
+
+-- Table-backed id sequence for Item's pooled generator (SQLite has no sequences).
+CREATE TABLE item_seq (
+    next_val bigint
+);
+
+INSERT INTO item_seq VALUES (1);
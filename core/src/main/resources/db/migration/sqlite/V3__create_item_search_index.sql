@@ -0,0 +1,19 @@
+-- FTS5 index over item names with the trigram tokenizer, an external-content table kept
+-- in step with item by triggers. Databases where it was created at startup before keep
+-- theirs. SQLiteItemSearchIndex drops and restores item_fts_ai around bulk inserts with
+-- the same statement as below.
+CREATE VIRTUAL TABLE IF NOT EXISTS item_fts USING fts5(name, content='item', content_rowid='id', tokenize='trigram');
+
+CREATE TRIGGER IF NOT EXISTS item_fts_ai AFTER INSERT ON item BEGIN INSERT INTO item_fts(rowid, name) VALUES (new.id, new.name); END;
+
+CREATE TRIGGER IF NOT EXISTS item_fts_ad AFTER DELETE ON item BEGIN
+    INSERT INTO item_fts(item_fts, rowid, name) VALUES ('delete', old.id, old.name);
+END;
+
+CREATE TRIGGER IF NOT EXISTS item_fts_au AFTER UPDATE OF name ON item BEGIN
+    INSERT INTO item_fts(item_fts, rowid, name) VALUES ('delete', old.id, old.name);
+    INSERT INTO item_fts(rowid, name) VALUES (new.id, new.name);
+END;
+
+-- Index the rows already in item.
+INSERT INTO item_fts(item_fts) VALUES ('rebuild');
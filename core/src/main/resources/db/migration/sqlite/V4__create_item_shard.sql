@@ -0,0 +1,10 @@
+-- Which shard of how many this file was created as, filled in per file while migrating.
+-- Startup compares it with item.shards.count, so a changed shard count cannot route
+-- items to files that do not hold them.
+CREATE TABLE item_shard (
+    id int PRIMARY KEY CHECK (id = 1),
+    shard_index int NOT NULL,
+    shard_count int NOT NULL
+);
+
+INSERT INTO item_shard (id, shard_index, shard_count) VALUES (1, ${shard-index}, ${shard-count});
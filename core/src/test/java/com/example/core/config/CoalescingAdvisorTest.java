@@ -0,0 +1,241 @@
+package com.example.core.config;
+
+import com.example.core.dto.ItemView;
+import com.example.core.entity.Item;
+import com.example.core.repository.ItemChangeCounter;
+import com.example.core.repository.ItemRepository;
+import com.example.core.search.ItemPriceIndex;
+import com.example.core.search.ItemSearchIndex;
+import com.example.core.service.ItemService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.OngoingStubbing;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Role;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@SpringJUnitConfig(CoalescingAdvisorTest.TestConfig.class)
+public class CoalescingAdvisorTest {
+
+    private static final int CALLERS = 8;
+
+    private static final Set<ItemView.Field> ALL = ItemView.Field.ALL;
+
+    @Configuration
+    @Import({CacheConfig.class, ItemService.class})
+    static class TestConfig {
+
+        @Bean
+        CacheManager cacheManager() {
+            return new CaffeineCacheManager(CacheConfig.ITEMS_CACHE);
+        }
+
+        @Bean
+        ItemShards itemShards() {
+            return new ItemShards(mock(PlatformTransactionManager.class), 1, "");
+        }
+
+        // Infrastructure role so the caching auto-proxy creator picks the advisor up.
+        @Bean
+        @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+        CoalescingAdvisor coalescingAdvisor() {
+            return new CoalescingAdvisor(new MockEnvironment().withProperty("item.coalescing.timeout", "500ms"));
+        }
+    }
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private CoalescingAdvisor coalescingAdvisor;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @MockBean
+    private ItemRepository itemRepository;
+
+    @MockBean
+    private ItemSearchIndex itemSearchIndex;
+
+    @MockBean
+    private ItemPriceIndex itemPriceIndex;
+
+    @MockBean
+    private ItemChangeCounter itemChangeCounter;
+
+    private final ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+
+    private MeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(CacheConfig.ITEMS_CACHE).clear();
+        registry = new SimpleMeterRegistry();
+        coalescingAdvisor.bindTo(registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+        ReadYourWrites.clear();
+    }
+
+    @Test
+    void getItemById_ConcurrentMisses_ShouldShareOneQuery() throws Exception {
+        // Arrange
+        Item item = new Item(1L, "Hot Item", "Description", 10.0);
+        CountDownLatch release = new CountDownLatch(1);
+        blockFirstCall(when(itemRepository.findById(1L)), Optional.of(item), new CountDownLatch(1), release);
+
+        // Act
+        List<Future<Optional<Item>>> results = callConcurrently(() -> itemService.getItemById(1L), release);
+
+        // Assert
+        for (Future<Optional<Item>> result : results) {
+            assertSame(item, result.get(5, TimeUnit.SECONDS).orElseThrow());
+        }
+        verify(itemRepository, times(1)).findById(1L);
+        assertEquals(1, count("leader"));
+        assertEquals(CALLERS - 1, count("coalesced"));
+    }
+
+    @Test
+    void searchItemsByName_WithDifferentArguments_ShouldNotShare() {
+        // Arrange
+        when(itemSearchIndex.search(anyString(), anyBoolean(), anyInt())).thenReturn(List.of());
+
+        // Act
+        itemService.searchItemsByName("Laptop", false, 10, ALL);
+        itemService.searchItemsByName("Laptop", true, 10, ALL);
+
+        // Assert
+        verify(itemSearchIndex, times(1)).search("Laptop", false, 10);
+        verify(itemSearchIndex, times(1)).search("Laptop", true, 10);
+        assertEquals(2, count("leader"));
+    }
+
+    @Test
+    void searchItemsByName_WhenLeaderFails_ShouldShareException() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        blockFirstCall(when(itemSearchIndex.search("Laptop", false, 10)),
+                new IllegalStateException("index unavailable"), new CountDownLatch(1), release);
+
+        // Act
+        List<Future<List<ItemView>>> results =
+                callConcurrently(() -> itemService.searchItemsByName("Laptop", false, 10, ALL), release);
+
+        // Assert
+        for (Future<List<ItemView>> result : results) {
+            Exception e = assertThrows(Exception.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, e.getCause());
+        }
+        verify(itemSearchIndex, times(1)).search("Laptop", false, 10);
+    }
+
+    @Test
+    void getItemById_WhenLeaderOutlivesTimeout_ShouldRunOwnQuery() throws Exception {
+        // Arrange
+        Item item = new Item(1L, "Hot Item", "Description", 10.0);
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        blockFirstCall(when(itemRepository.findById(1L)), Optional.of(item), leaderStarted, release);
+        Future<Optional<Item>> leader = callers.submit(() -> itemService.getItemById(1L));
+        assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+
+        // Act
+        Optional<Item> result = itemService.getItemById(1L);
+        release.countDown();
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertTrue(leader.get(5, TimeUnit.SECONDS).isPresent());
+        verify(itemRepository, times(2)).findById(1L);
+        assertEquals(1, count("timeout"));
+    }
+
+    @Test
+    void getItemById_WhenPinnedToPrimary_ShouldNotWaitForInFlightCall() throws Exception {
+        // Arrange
+        Item item = new Item(1L, "Hot Item", "Description", 10.0);
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        blockFirstCall(when(itemRepository.findById(1L)), Optional.of(item), leaderStarted, release);
+        Future<Optional<Item>> leader = callers.submit(() -> itemService.getItemById(1L));
+        assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+        ReadYourWrites.pinToPrimaryUntil(System.currentTimeMillis() + 60_000);
+
+        // Act
+        Optional<Item> result = itemService.getItemById(1L);
+        release.countDown();
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertTrue(leader.get(5, TimeUnit.SECONDS).isPresent());
+        assertEquals(0, count("timeout"));
+        assertEquals(0, count("coalesced"));
+    }
+
+    // The first call signals started and waits for release; every call then returns the
+    // answer, or throws it if it is an exception.
+    private static void blockFirstCall(OngoingStubbing<?> stubbing, Object answer, CountDownLatch started,
+            CountDownLatch release) {
+        AtomicInteger calls = new AtomicInteger();
+        stubbing.thenAnswer(invocation -> {
+            if (calls.getAndIncrement() == 0) {
+                started.countDown();
+                release.await(5, TimeUnit.SECONDS);
+            }
+            if (answer instanceof RuntimeException e) {
+                throw e;
+            }
+            return answer;
+        });
+    }
+
+    private <T> List<Future<T>> callConcurrently(Callable<T> call, CountDownLatch release)
+            throws InterruptedException {
+        List<Future<T>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(callers.submit(call));
+        }
+        // Give every caller time to find the first call in flight before it completes.
+        Thread.sleep(200);
+        release.countDown();
+        return results;
+    }
+
+    private double count(String result) {
+        return registry.find(CoalescingAdvisor.METRIC_NAME).tag("result", result).counters().stream()
+                .mapToDouble(Counter::count).sum();
+    }
+}
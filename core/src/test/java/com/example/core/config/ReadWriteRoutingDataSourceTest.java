@@ -0,0 +1,154 @@
+package com.example.core.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ReadWriteRoutingDataSourceTest {
+
+    @Mock
+    private DataSource writeDataSource;
+
+    @Mock
+    private DataSource readDataSource;
+
+    @Mock
+    private Connection writeConnection;
+
+    @Mock
+    private Connection readConnection;
+
+    private ReadWriteRoutingDataSource routingDataSource;
+
+    @BeforeEach
+    void setUp() {
+        routingDataSource = new ReadWriteRoutingDataSource(writeDataSource, readDataSource);
+    }
+
+    @TempDir
+    Path tempDir;
+
+    private final List<HikariDataSource> pools = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        ReadYourWrites.clear();
+        pools.forEach(HikariDataSource::close);
+    }
+
+    @Test
+    void getConnection_InReadOnlyTransaction_ShouldUseReadDataSource() throws Exception {
+        // Arrange
+        when(readDataSource.getConnection()).thenReturn(readConnection);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // Act
+        Connection result = routingDataSource.getConnection();
+
+        // Assert
+        assertSame(readConnection, result);
+        verify(writeDataSource, never()).getConnection();
+    }
+
+    @Test
+    void getConnection_OutsideReadOnlyTransaction_ShouldUseWriteDataSource() throws Exception {
+        // Arrange
+        when(writeDataSource.getConnection()).thenReturn(writeConnection);
+
+        // Act
+        Connection result = routingDataSource.getConnection();
+
+        // Assert
+        assertSame(writeConnection, result);
+        verify(readDataSource, never()).getConnection();
+    }
+
+    @Test
+    void read_WithRoundRobin_ShouldAlternateReplicas() {
+        // Arrange
+        DataSource router = router(ReadWriteRoutingDataSource.Balancing.ROUND_ROBIN, false);
+
+        // Act
+        List<String> reads = List.of(readNode(router), readNode(router), readNode(router), readNode(router));
+
+        // Assert
+        assertEquals(2, reads.stream().filter("replica-1"::equals).count());
+        assertEquals(2, reads.stream().filter("replica-2"::equals).count());
+        assertNotEquals(reads.get(0), reads.get(1));
+        assertEquals("primary", writeNode(router));
+    }
+
+    @Test
+    void read_WithLeastConnections_ShouldAvoidBusyReplica() throws Exception {
+        // Arrange
+        DataSource router = router(ReadWriteRoutingDataSource.Balancing.LEAST_CONNECTIONS, false);
+
+        // Act
+        List<String> reads = new ArrayList<>();
+        try (Connection busy = pools.get(1).getConnection()) {
+            for (int i = 0; i < 4; i++) {
+                reads.add(readNode(router));
+            }
+        }
+
+        // Assert
+        assertEquals(List.of("replica-2", "replica-2", "replica-2", "replica-2"), reads);
+    }
+
+    @Test
+    void read_WhenPinnedToPrimary_ShouldUsePrimary() {
+        // Arrange
+        DataSource router = router(ReadWriteRoutingDataSource.Balancing.ROUND_ROBIN, true);
+        ReadYourWrites.pinToPrimaryUntil(System.currentTimeMillis() + 60_000);
+
+        // Act & Assert
+        assertEquals("primary", readNode(router));
+        ReadYourWrites.clear();
+        assertTrue(readNode(router).startsWith("replica-"));
+    }
+
+    // A primary and two replica SQLite files, each knowing its own name.
+    private DataSource router(ReadWriteRoutingDataSource.Balancing balancing, boolean readYourWrites) {
+        for (String node : List.of("primary", "replica-1", "replica-2")) {
+            HikariDataSource pool = new HikariDataSource();
+            pool.setJdbcUrl("jdbc:sqlite:" + tempDir.resolve(node + ".db"));
+            pool.setMaximumPoolSize(2);
+            new JdbcTemplate(pool).execute("CREATE TABLE node AS SELECT '" + node + "' AS name");
+            pools.add(pool);
+        }
+        return new LazyConnectionDataSourceProxy(
+                new ReadWriteRoutingDataSource(pools.get(0), pools.subList(1, 3), balancing, readYourWrites));
+    }
+
+    private static String readNode(DataSource router) {
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(router));
+        transaction.setReadOnly(true);
+        return transaction.execute(status -> new JdbcTemplate(router).queryForObject("SELECT name FROM node", String.class));
+    }
+
+    private static String writeNode(DataSource router) {
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(router));
+        return transaction.execute(status -> new JdbcTemplate(router).queryForObject("SELECT name FROM node", String.class));
+    }
+}
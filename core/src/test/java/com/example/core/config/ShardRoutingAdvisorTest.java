@@ -0,0 +1,167 @@
+package com.example.core.config;
+
+import com.example.core.entity.Item;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static java.util.stream.Collectors.toSet;
+
+public class ShardRoutingAdvisorTest {
+
+    private static final int SHARDS = 3;
+
+    private ShardedTarget target;
+
+    private ShardedTarget unproxied;
+
+    @BeforeEach
+    void setUp() {
+        unproxied = new ShardedTarget();
+        ProxyFactory proxyFactory = new ProxyFactory(unproxied);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvisor(new ShardRoutingAdvisor(SHARDS));
+        target = (ShardedTarget) proxyFactory.getProxy();
+    }
+
+    @Test
+    void byId_ShouldRunOnOwningShardAndRestoreContext() {
+        // Act
+        int shard = target.byId(7L);
+
+        // Assert
+        assertEquals(1, shard);
+        assertEquals(0, ShardContext.current());
+    }
+
+    @Test
+    void byId_WithNewItem_ShouldSpreadOverShards() {
+        // Act
+        Set<Integer> shards = IntStream.range(0, SHARDS).mapToObj(i -> target.byId(null)).collect(toSet());
+
+        // Assert
+        assertEquals(Set.of(0, 1, 2), shards);
+    }
+
+    @Test
+    void create_ShouldSpreadOverShards() {
+        // Act
+        Set<Integer> shards = IntStream.range(0, SHARDS).mapToObj(i -> target.create()).collect(toSet());
+
+        // Assert
+        assertEquals(Set.of(0, 1, 2), shards);
+    }
+
+    @Test
+    void findAll_ShouldSplitIdsByOwnerAndConcatenateResults() {
+        // Act
+        List<Long> result = target.findAll(List.of(1L, 2L, 3L, 4L, 6L));
+
+        // Assert
+        assertEquals(Set.of(1L, 2L, 3L, 4L, 6L), Set.copyOf(result));
+        assertEquals(Map.of(1L, 1, 2L, 2, 3L, 0, 4L, 1, 6L, 0), unproxied.shardsById);
+        assertEquals(3, unproxied.calls);
+    }
+
+    @Test
+    void count_ShouldSumResultsOfEachShard() {
+        // Act
+        int result = target.count(List.of(1L, 2L, 4L));
+
+        // Assert
+        assertEquals(3, result);
+        assertEquals(2, unproxied.calls);
+    }
+
+    @Test
+    void findAll_WithIdsOfOneShard_ShouldCallOnce() {
+        // Act
+        List<Long> result = target.findAll(List.of(3L, 6L));
+
+        // Assert
+        assertEquals(List.of(3L, 6L), result);
+        assertEquals(1, unproxied.calls);
+    }
+
+    @Test
+    void deleteAll_WithIdsOfOneShard_ShouldRunOnThatShard() {
+        // Act
+        int shard = target.deleteAll(List.of(2L, 5L));
+
+        // Assert
+        assertEquals(2, shard);
+        assertEquals(1, unproxied.calls);
+    }
+
+    @Test
+    void updateAll_ShouldPassItemsWithoutIdAlong() {
+        // Arrange
+        List<Item> items = List.of(new Item(4L, "Four", "", 4.0), new Item(null, "New", "", 1.0));
+
+        // Act
+        List<Item> passed = target.updateAll(items);
+
+        // Assert
+        assertEquals(items, passed);
+    }
+
+    @Test
+    void deleteAll_WithIdsOfSeveralShards_ShouldRejectBeforeWriting() {
+        // Act & Assert
+        IllegalArgumentException thrown = assertThrows(IllegalArgumentException.class,
+                () -> target.deleteAll(List.of(1L, 2L, 3L)));
+        assertTrue(thrown.getMessage().contains("[0, 1, 2]"));
+        assertEquals(0, unproxied.calls);
+    }
+
+    static class ShardedTarget {
+
+        final Map<Long, Integer> shardsById = new HashMap<>();
+
+        int calls;
+
+        @Sharded(Sharded.By.ID)
+        public int byId(Long id) {
+            return ShardContext.current();
+        }
+
+        @Sharded(Sharded.By.NEW)
+        public int create() {
+            return ShardContext.current();
+        }
+
+        @Sharded(Sharded.By.IDS)
+        public List<Long> findAll(Collection<Long> ids) {
+            calls++;
+            ids.forEach(id -> shardsById.put(id, ShardContext.current()));
+            return new ArrayList<>(ids);
+        }
+
+        @Sharded(Sharded.By.IDS)
+        public int count(Collection<Long> ids) {
+            calls++;
+            return ids.size();
+        }
+
+        @Sharded(Sharded.By.IDS_OF_ONE_SHARD)
+        public int deleteAll(Collection<Long> ids) {
+            calls++;
+            return ShardContext.current();
+        }
+
+        @Sharded(Sharded.By.IDS_OF_ONE_SHARD)
+        public List<Item> updateAll(List<Item> items) {
+            calls++;
+            return items;
+        }
+    }
+}
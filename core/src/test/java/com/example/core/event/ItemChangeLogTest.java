@@ -0,0 +1,101 @@
+package com.example.core.event;
+
+import com.example.core.dto.ItemChange;
+import com.example.core.dto.ItemChangeBatch;
+import com.example.core.entity.Item;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ItemChangeLogTest {
+
+    private ItemChangeLog changeLog;
+
+    @BeforeEach
+    void setUp() {
+        changeLog = new ItemChangeLog(4);
+    }
+
+    @Test
+    void read_ShouldReturnChangesAfterSinceInOrder() {
+        // Arrange
+        long start = changeLog.latest();
+        ItemChange created = changeLog.append(ItemChangeEvent.created(new Item(1L, "Laptop", null, 10.0)));
+        ItemChange deleted = changeLog.append(ItemChangeEvent.deleted(2L));
+
+        // Act
+        ItemChangeBatch all = changeLog.read(start, 10);
+        ItemChangeBatch afterFirst = changeLog.read(created.seq(), 10);
+
+        // Assert
+        assertFalse(all.resyncRequired());
+        assertEquals(List.of(created, deleted), all.changes());
+        assertEquals(List.of(deleted), afterFirst.changes());
+        assertEquals(deleted.seq(), all.latest());
+        assertEquals(ItemChangeEvent.Type.DELETED, deleted.type());
+        assertEquals(created.seq() + 1, deleted.seq());
+    }
+
+    @Test
+    void read_ShouldStopAtMax() {
+        // Arrange
+        long start = changeLog.latest();
+        changeLog.append(ItemChangeEvent.deleted(1L));
+        changeLog.append(ItemChangeEvent.deleted(2L));
+        changeLog.append(ItemChangeEvent.deleted(3L));
+
+        // Act
+        ItemChangeBatch batch = changeLog.read(start, 2);
+
+        // Assert
+        assertEquals(List.of(1L, 2L), batch.changes().stream().map(ItemChange::id).toList());
+    }
+
+    @Test
+    void read_WhenChangesWereOverwritten_ShouldRequireResync() {
+        // Arrange
+        long start = changeLog.latest();
+        for (long id = 1; id <= changeLog.capacity() + 1; id++) {
+            changeLog.append(ItemChangeEvent.deleted(id));
+        }
+
+        // Act
+        ItemChangeBatch fromStart = changeLog.read(start, 10);
+        ItemChangeBatch fromOldest = changeLog.read(start + 1, 10);
+
+        // Assert
+        assertTrue(fromStart.resyncRequired());
+        assertTrue(fromStart.changes().isEmpty());
+        assertEquals(changeLog.latest(), fromStart.latest());
+        assertFalse(fromOldest.resyncRequired());
+        assertEquals(changeLog.capacity(), fromOldest.changes().size());
+    }
+
+    @Test
+    void read_WithUnknownSequence_ShouldRequireResync() {
+        // Arrange
+        changeLog.append(ItemChangeEvent.deleted(1L));
+
+        // Act & Assert
+        assertTrue(changeLog.read(changeLog.latest() + 1, 10).resyncRequired());
+        assertTrue(changeLog.read(0, 10).resyncRequired());
+        assertFalse(changeLog.read(changeLog.latest(), 10).resyncRequired());
+    }
+
+    @Test
+    void append_ShouldNotifyListeners() {
+        // Arrange
+        AtomicInteger notified = new AtomicInteger();
+        changeLog.addListener(notified::incrementAndGet);
+
+        // Act
+        changeLog.onItemChanged(ItemChangeEvent.deleted(1L));
+
+        // Assert
+        assertEquals(1, notified.get());
+    }
+}
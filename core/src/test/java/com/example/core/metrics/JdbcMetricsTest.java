@@ -0,0 +1,76 @@
+package com.example.core.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.QueryType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JdbcMetricsTest {
+
+    @TempDir
+    Path tempDir;
+
+    private JdbcMetrics jdbcMetrics;
+
+    private SimpleMeterRegistry registry;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcMetrics = new JdbcMetrics();
+        registry = new SimpleMeterRegistry();
+        jdbcMetrics.bindTo(registry);
+        jdbcTemplate = new JdbcTemplate(jdbcMetrics.wrap(
+                new DriverManagerDataSource("jdbc:sqlite:" + tempDir.resolve("test.db"))));
+        jdbcTemplate.execute("CREATE TABLE item (id INTEGER PRIMARY KEY, name VARCHAR(255))");
+        jdbcTemplate.update("INSERT INTO item (id, name) VALUES (1, 'Laptop'), (2, 'Phone'), (3, 'Tablet')");
+    }
+
+    @Test
+    void stopCounting_ShouldReturnStatementsAndRowsSinceStart() {
+        // Arrange
+        jdbcMetrics.startCounting();
+
+        // Act
+        List<String> names = jdbcTemplate.queryForList("SELECT name FROM item ORDER BY id", String.class);
+        jdbcTemplate.update("UPDATE item SET name = 'Notebook' WHERE id = 1");
+        JdbcMetrics.Counts counts = jdbcMetrics.stopCounting();
+
+        // Assert
+        assertEquals(3, names.size());
+        assertEquals(2, counts.statements());
+        assertEquals(3, counts.rows());
+        assertNull(jdbcMetrics.stopCounting());
+    }
+
+    @Test
+    void statements_ShouldBeTimedByType() {
+        // Act
+        jdbcTemplate.queryForList("SELECT name FROM item", String.class);
+        jdbcTemplate.update("DELETE FROM item WHERE id = 3");
+
+        // Assert
+        assertEquals(1, registry.get("jdbc.statements").tag("type", "select").timer().count());
+        assertEquals(1, registry.get("jdbc.statements").tag("type", "insert").timer().count());
+        assertEquals(1, registry.get("jdbc.statements").tag("type", "delete").timer().count());
+        assertEquals(3.0, registry.get("jdbc.rows").counter().count());
+    }
+
+    @Test
+    void queryType_ShouldIgnoreCaseAndLeadingWhitespace() {
+        // Act & Assert
+        assertEquals(QueryType.SELECT, JdbcMetrics.queryType("\n  select * from item"));
+        assertEquals(QueryType.SELECT, JdbcMetrics.queryType("(SELECT 1) UNION (SELECT 2)"));
+        assertEquals(QueryType.UPDATE, JdbcMetrics.queryType("update item_seq set next_val = ?"));
+        assertEquals(QueryType.OTHER, JdbcMetrics.queryType("CREATE TABLE t (id INTEGER)"));
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.core.metrics;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StatementProfilerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger(StatementProfiler.class);
+
+    private final ListAppender<ILoggingEvent> logged = new ListAppender<>();
+
+    @BeforeEach
+    void setUp() {
+        logged.start();
+        logger.addAppender(logged);
+    }
+
+    @AfterEach
+    void tearDown() {
+        logger.detachAppender(logged);
+    }
+
+    @Test
+    void slowest_ShouldTotalStatementsByFingerprint() {
+        // Arrange
+        StatementProfiler profiler = new StatementProfiler(Duration.ofMinutes(1), 0, 100);
+        JdbcTemplate jdbcTemplate = jdbcTemplate(profiler);
+
+        // Act
+        jdbcTemplate.queryForList("SELECT name FROM item WHERE id IN (?, ?)", String.class, 1, 2);
+        jdbcTemplate.queryForList("SELECT name FROM item WHERE id IN (?, ?, ?)", String.class, 1, 2, 3);
+        jdbcTemplate.update("UPDATE item SET name = 'Notebook' WHERE id = 1");
+
+        // Assert
+        List<StatementProfiler.Summary> slowest = profiler.slowest(10, false);
+        assertEquals(2, slowest.size());
+        StatementProfiler.Summary select = find(slowest, "SELECT name FROM item WHERE id IN (?, ...)");
+        assertEquals(2, select.executions());
+        assertEquals(5, select.rows());
+        StatementProfiler.Summary update = find(slowest, "UPDATE item SET name = ? WHERE id = ?");
+        assertEquals(1, update.executions());
+        assertEquals(1, update.rows());
+        assertTrue(logged.list.isEmpty());
+    }
+
+    @Test
+    void slowest_ShouldLimitFingerprints() {
+        // Arrange
+        StatementProfiler profiler = new StatementProfiler(Duration.ofMinutes(1), 0, 1);
+        JdbcTemplate jdbcTemplate = jdbcTemplate(profiler);
+
+        // Act
+        jdbcTemplate.queryForList("SELECT name FROM item", String.class);
+        jdbcTemplate.queryForList("SELECT id FROM item", Long.class);
+
+        // Assert
+        List<StatementProfiler.Summary> slowest = profiler.slowest(10, false);
+        assertEquals(2, slowest.size());
+        assertEquals(1, find(slowest, "SELECT name FROM item").executions());
+        assertEquals(1, find(slowest, StatementProfiler.OTHER_STATEMENTS).executions());
+    }
+
+    @Test
+    void statements_OverThreshold_ShouldBeLoggedWithParameterShapes() {
+        // Arrange
+        StatementProfiler profiler = new StatementProfiler(Duration.ZERO, 0, 100);
+        JdbcTemplate jdbcTemplate = jdbcTemplate(profiler);
+        logged.list.clear();
+
+        // Act
+        jdbcTemplate.queryForList("SELECT name FROM item WHERE name LIKE ? AND id > ?", String.class, "%o%", 0L);
+
+        // Assert
+        assertEquals(1, logged.list.size());
+        String message = logged.list.get(0).getFormattedMessage();
+        assertTrue(message.startsWith("Slow statement: "), message);
+        assertTrue(message.contains("2 rows, parameters [String(3), Long]"), message);
+        assertFalse(message.contains("%o%"), message);
+    }
+
+    @Test
+    void statements_UnderThreshold_ShouldBeSampled() {
+        // Arrange
+        StatementProfiler profiler = new StatementProfiler(Duration.ofMinutes(1), 1, 100);
+        JdbcTemplate jdbcTemplate = jdbcTemplate(profiler);
+        logged.list.clear();
+
+        // Act
+        jdbcTemplate.batchUpdate("UPDATE item SET name = ? WHERE id = ?",
+                List.of(new Object[] { "Laptop", 1 }, new Object[] { null, 2 }));
+
+        // Assert
+        assertEquals(1, logged.list.size());
+        String message = logged.list.get(0).getFormattedMessage();
+        assertTrue(message.startsWith("Sampled statement: "), message);
+        assertTrue(message.contains("2 rows, parameters [String(6), Integer] x2"), message);
+    }
+
+    @Test
+    void fingerprint_ShouldCollapseLiteralsAndParameterLists() {
+        // Act & Assert
+        assertEquals("select * from item i1_0 where i1_0.id in (?, ...) and i1_0.price > ?",
+                StatementProfiler.fingerprint("select *\n    from item i1_0\n    where i1_0.id in (?,?, ?) and i1_0.price > 10.5"));
+        assertEquals("select id from item where id IN (?, ...)",
+                StatementProfiler.fingerprint("select id from item where id IN (?)"));
+        assertEquals("INSERT INTO item (id, name) VALUES (?, ...), ...",
+                StatementProfiler.fingerprint("INSERT INTO item (id, name) VALUES (1, 'it''s'), (2, 'Phone')"));
+    }
+
+    private JdbcTemplate jdbcTemplate(StatementProfiler profiler) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new JdbcMetrics().wrap(
+                new DriverManagerDataSource("jdbc:sqlite:" + tempDir.resolve("test.db")), profiler));
+        jdbcTemplate.execute("CREATE TABLE item (id INTEGER PRIMARY KEY, name VARCHAR(255))");
+        jdbcTemplate.update("INSERT INTO item (id, name) VALUES (1, 'Laptop'), (2, 'Phone'), (3, 'Tablet')");
+        profiler.reset();
+        return jdbcTemplate;
+    }
+
+    private static StatementProfiler.Summary find(List<StatementProfiler.Summary> summaries, String statement) {
+        return summaries.stream().filter(summary -> summary.statement().equals(statement)).findFirst().orElseThrow();
+    }
+}
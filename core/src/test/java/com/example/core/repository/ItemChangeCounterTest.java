@@ -0,0 +1,88 @@
+package com.example.core.repository;
+
+import com.example.core.config.ItemShards;
+import com.example.core.entity.Item;
+import com.example.core.event.ItemChangeEvent;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ItemChangeCounterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ItemChangeCounter changeCounter;
+
+    private TransactionTemplate transactionTemplate;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:sqlite:" + tempDir.resolve("test.db"));
+        Flyway.configure().dataSource(dataSource).locations("classpath:db/migration/sqlite").target("2").load().migrate();
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        changeCounter = new ItemChangeCounter(dataSource, new ItemShards(transactionManager, 1, ""));
+        changeCounter.checkTable();
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Test
+    void checkTable_WithMissingStripe_ShouldFail() {
+        // Arrange
+        jdbcTemplate.update("DELETE FROM item_change_counter WHERE id = 16");
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, changeCounter::checkTable);
+    }
+
+    @Test
+    void current_ShouldSumStripes() {
+        // Act
+        for (int i = 0; i < 50; i++) {
+            changeCounter.onItemChanged(ItemChangeEvent.deleted(1L));
+        }
+
+        // Assert
+        assertEquals(50, changeCounter.current());
+        Integer touched = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM item_change_counter WHERE change_count > 0", Integer.class);
+        assertTrue(touched > 1);
+    }
+
+    @Test
+    void onItemChanged_ShouldIncrementOncePerTransaction() {
+        // Act
+        transactionTemplate.executeWithoutResult(status -> {
+            changeCounter.onItemChanged(ItemChangeEvent.created(new Item(1L, "Laptop", null, 10.0)));
+            changeCounter.onItemChanged(ItemChangeEvent.created(new Item(2L, "Phone", null, 20.0)));
+        });
+        transactionTemplate.executeWithoutResult(status -> changeCounter.onItemChanged(ItemChangeEvent.deleted(1L)));
+
+        // Assert
+        assertEquals(2, changeCounter.current());
+    }
+
+    @Test
+    void onItemChanged_WhenTransactionRollsBack_ShouldNotIncrement() {
+        // Act
+        transactionTemplate.executeWithoutResult(status -> {
+            changeCounter.onItemChanged(ItemChangeEvent.deleted(1L));
+            status.setRollbackOnly();
+        });
+
+        // Assert
+        assertEquals(0, changeCounter.current());
+    }
+}
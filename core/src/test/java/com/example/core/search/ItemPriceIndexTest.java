@@ -0,0 +1,176 @@
+package com.example.core.search;
+
+import com.example.core.config.ItemShards;
+import com.example.core.entity.Item;
+import com.example.core.event.ItemChangeEvent;
+import com.example.core.repository.ItemRepository;
+import com.example.core.repository.ItemRepositoryCustom.PriceConsumer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+
+@ExtendWith(MockitoExtension.class)
+public class ItemPriceIndexTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ItemPriceIndex priceIndex;
+
+    @BeforeEach
+    void setUp() {
+        priceIndex = new ItemPriceIndex(itemRepository, transactionManager,
+                new ItemShards(transactionManager, 1, ""), true, 100);
+    }
+
+    @Test
+    void range_BeforeLoad_ShouldNotBeReady() {
+        // Act & Assert
+        assertFalse(priceIndex.isReady());
+        assertEquals(List.of(), priceIndex.range(0, 100, false, 10));
+    }
+
+    @Test
+    void range_ShouldReturnIdsInPriceOrder() {
+        // Arrange
+        load(new double[][] { { 1, 10.0 }, { 2, 20.0 }, { 3, 20.0 }, { 4, 30.0 } });
+
+        // Act & Assert
+        assertTrue(priceIndex.isReady());
+        assertEquals(List.of(1L, 2L, 3L, 4L), priceIndex.range(-Double.MAX_VALUE, Double.MAX_VALUE, false, 10));
+        assertEquals(List.of(4L, 3L, 2L, 1L), priceIndex.range(-Double.MAX_VALUE, Double.MAX_VALUE, true, 10));
+        assertEquals(List.of(2L, 3L), priceIndex.range(15.0, 25.0, false, 10));
+        assertEquals(List.of(4L, 3L), priceIndex.range(20.0, 30.0, true, 2));
+        assertEquals(List.of(), priceIndex.range(30.0, 20.0, false, 10));
+    }
+
+    @Test
+    void onItemChanged_ShouldOverrideLoadedPrices() {
+        // Arrange
+        load(new double[][] { { 1, 10.0 }, { 2, 20.0 }, { 3, 30.0 } });
+
+        // Act
+        priceIndex.onItemChanged(ItemChangeEvent.updated(new Item(1L, "Moved", null, 25.0)));
+        priceIndex.onItemChanged(ItemChangeEvent.created(new Item(4L, "New", null, 5.0)));
+        priceIndex.onItemChanged(ItemChangeEvent.deleted(2L));
+        priceIndex.onItemChanged(ItemChangeEvent.updated(new Item(3L, "Unpriced", null, null)));
+
+        // Assert
+        assertEquals(List.of(4L, 1L), priceIndex.range(-Double.MAX_VALUE, Double.MAX_VALUE, false, 10));
+        assertEquals(List.of(1L, 4L), priceIndex.range(-Double.MAX_VALUE, Double.MAX_VALUE, true, 10));
+        assertEquals(2, priceIndex.size());
+    }
+
+    @Test
+    void onItemChanged_WithPatchLeavingPrice_ShouldKeepItem() {
+        // Arrange
+        load(new double[][] { { 1, 10.0 }, { 2, 20.0 } });
+
+        // Act
+        priceIndex.onItemChanged(ItemChangeEvent.patched(1L, new Item(1L, "Renamed", null, null)));
+        priceIndex.onItemChanged(ItemChangeEvent.patched(2L, new Item(2L, null, null, 5.0)));
+
+        // Assert
+        assertEquals(List.of(2L, 1L), priceIndex.range(-Double.MAX_VALUE, Double.MAX_VALUE, false, 10));
+    }
+
+    @Test
+    void onItemChanged_BeforeLoad_ShouldSurviveLoad() {
+        // Arrange
+        priceIndex.onItemChanged(ItemChangeEvent.updated(new Item(2L, "Updated during load", null, 1.0)));
+
+        // Act
+        load(new double[][] { { 1, 10.0 }, { 2, 20.0 } });
+
+        // Assert
+        assertEquals(List.of(2L, 1L), priceIndex.range(-Double.MAX_VALUE, Double.MAX_VALUE, false, 10));
+    }
+
+    @Test
+    void onItemChanged_PastCompactionThreshold_ShouldKeepOrder() {
+        // Arrange
+        load(new double[][] { { 1, 10.0 } });
+
+        // Act
+        for (long id = 2; id <= 5000; id++) {
+            priceIndex.onItemChanged(ItemChangeEvent.created(new Item(id, "Item " + id, null, (double) (5001 - id))));
+        }
+
+        // Assert
+        assertEquals(5000, priceIndex.size());
+        assertEquals(List.of(5000L, 4999L, 4998L), priceIndex.range(-Double.MAX_VALUE, Double.MAX_VALUE, false, 3));
+        assertEquals(List.of(2L, 3L), priceIndex.range(-Double.MAX_VALUE, Double.MAX_VALUE, true, 2));
+        assertEquals(List.of(1L, 4991L), priceIndex.range(10.0, 10.0, false, 10));
+    }
+
+    @Test
+    void size_ShouldCountEachChangedItemOnce() {
+        // Arrange
+        load(new double[][] { { 1, 10.0 }, { 2, 20.0 }, { 3, 30.0 } });
+
+        // Act
+        priceIndex.onItemChanged(ItemChangeEvent.updated(new Item(2L, "Moved", null, 25.0)));
+        priceIndex.onItemChanged(ItemChangeEvent.updated(new Item(2L, "Moved again", null, 5.0)));
+        priceIndex.onItemChanged(ItemChangeEvent.deleted(3L));
+        priceIndex.onItemChanged(ItemChangeEvent.deleted(3L));
+        priceIndex.onItemChanged(ItemChangeEvent.deleted(99L));
+
+        // Assert
+        assertEquals(2, priceIndex.size());
+        assertEquals(List.of(2L, 1L), priceIndex.range(-Double.MAX_VALUE, Double.MAX_VALUE, false, 10));
+    }
+
+    @Test
+    void load_WithChangesPending_ShouldKeepThemHidden() {
+        // Arrange
+        load(new double[][] { { 1, 10.0 }, { 2, 20.0 } });
+        priceIndex.onItemChanged(ItemChangeEvent.deleted(1L));
+
+        // Act
+        load(new double[][] { { 1, 10.0 }, { 3, 15.0 }, { 2, 20.0 } });
+
+        // Assert
+        assertEquals(2, priceIndex.size());
+        assertEquals(List.of(3L, 2L), priceIndex.range(-Double.MAX_VALUE, Double.MAX_VALUE, false, 10));
+    }
+
+    @Test
+    void range_ShouldLeaveOutUnpricedItems() {
+        // Arrange
+        load(new double[][] { { 3, Double.NaN }, { 1, 10.0 }, { 2, 20.0 } });
+
+        // Act
+        priceIndex.onItemChanged(ItemChangeEvent.updated(new Item(3L, "Priced", null, 15.0)));
+        priceIndex.onItemChanged(ItemChangeEvent.updated(new Item(2L, "Unpriced", null, null)));
+
+        // Assert
+        assertEquals(2, priceIndex.size());
+        assertEquals(List.of(1L, 3L), priceIndex.range(-Double.MAX_VALUE, Double.MAX_VALUE, false, 10));
+        assertEquals(10.0, priceIndex.lowestPrice());
+        assertEquals(15.0, priceIndex.highestPrice());
+    }
+
+    private void load(double[][] rows) {
+        doAnswer(invocation -> {
+            PriceConsumer consumer = invocation.getArgument(1);
+            for (double[] row : rows) {
+                consumer.accept((long) row[0], row[1]);
+            }
+            return null;
+        }).when(itemRepository).streamPrices(anyInt(), any());
+        priceIndex.load();
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.core.search;
+
+import com.example.core.config.ItemShards;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SQLiteItemSearchIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private DriverManagerDataSource dataSource;
+
+    private SQLiteItemSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource("jdbc:sqlite:" + tempDir.resolve("test.db"));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        migrate("2");
+        // Rows that exist before the index is created must be picked up by the initial rebuild.
+        insert(1L, "Laptop");
+        migrate("3");
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        searchIndex = new SQLiteItemSearchIndex(dataSource, transactionManager, new ItemShards(transactionManager, 1, ""));
+        searchIndex.checkIndex();
+        insert(2L, "Smartphone");
+        insert(3L, "Phone case");
+        insert(4L, "Gaming laptop stand");
+    }
+
+    @Test
+    void search_ShouldMatchSubstringsIgnoringCase() {
+        // Act
+        List<Long> result = searchIndex.search("PHONE", false, 10);
+
+        // Assert
+        assertEquals(2, result.size());
+        assertTrue(result.containsAll(List.of(2L, 3L)));
+    }
+
+    @Test
+    void search_ShouldRankNamesStartingWithQueryFirst() {
+        // Act
+        List<Long> result = searchIndex.search("laptop", false, 10);
+
+        // Assert
+        assertEquals(List.of(1L, 4L), result);
+    }
+
+    @Test
+    void search_WithPrefix_ShouldOnlyMatchNameStart() {
+        // Act
+        List<Long> result = searchIndex.search("phone", true, 10);
+
+        // Assert
+        assertEquals(List.of(3L), result);
+    }
+
+    @Test
+    void search_ShouldRespectLimit() {
+        // Act
+        List<Long> result = searchIndex.search("o", false, 2);
+
+        // Assert
+        assertEquals(2, result.size());
+    }
+
+    @Test
+    void search_ShouldFollowUpdatesAndDeletes() {
+        // Arrange
+        jdbcTemplate.update("UPDATE item SET name = ? WHERE id = ?", "Tablet", 2L);
+        jdbcTemplate.update("DELETE FROM item WHERE id = ?", 3L);
+
+        // Act & Assert
+        assertTrue(searchIndex.search("phone", false, 10).isEmpty());
+        assertEquals(List.of(2L), searchIndex.search("tablet", false, 10));
+    }
+
+    @Test
+    void search_ShouldTreatSpecialCharactersLiterally() {
+        // Arrange
+        insert(5L, "100% \"cotton\" shirt");
+
+        // Act & Assert
+        assertEquals(List.of(5L), searchIndex.search("0% \"cot", false, 10));
+        assertTrue(searchIndex.search("%", true, 10).isEmpty());
+    }
+
+    @Test
+    void bulkInsert_ShouldIndexRowsOnceInsertsFinish() {
+        // Act
+        searchIndex.bulkInsert(() -> {
+            insert(5L, "Desk lamp");
+            insert(6L, "Lamp shade");
+        });
+        insert(7L, "Floor lamp");
+
+        // Assert
+        List<Long> result = searchIndex.search("lamp", false, 10);
+        assertEquals(3, result.size());
+        assertTrue(result.containsAll(List.of(5L, 6L, 7L)));
+    }
+
+    @Test
+    void bulkInsert_WhenInsertsFail_ShouldStillIndexRows() {
+        // Act
+        assertThrows(IllegalStateException.class, () -> searchIndex.bulkInsert(() -> {
+            insert(5L, "Desk lamp");
+            throw new IllegalStateException("Stopped");
+        }));
+        insert(6L, "Lamp shade");
+
+        // Assert
+        assertEquals(List.of(6L, 5L), searchIndex.search("lamp", false, 10));
+    }
+
+    @Test
+    void bulkInsert_ShouldRestoreTriggerAsMigrated() {
+        // Arrange
+        String migrated = insertTriggerSql();
+
+        // Act
+        searchIndex.bulkInsert(() -> insert(5L, "Desk lamp"));
+
+        // Assert
+        assertEquals(migrated, insertTriggerSql());
+    }
+
+    @Test
+    void checkIndex_WithoutIndex_ShouldFail() {
+        // Arrange
+        jdbcTemplate.execute("DROP TABLE item_fts");
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, searchIndex::checkIndex);
+    }
+
+    @Test
+    void checkIndex_AfterInterruptedBulkInsert_ShouldRestoreIndexing() {
+        // Arrange: a bulk insert that never finished leaves the insert trigger dropped.
+        jdbcTemplate.execute("DROP TRIGGER item_fts_ai");
+        insert(5L, "Desk lamp");
+
+        // Act
+        searchIndex.checkIndex();
+        insert(6L, "Lamp shade");
+
+        // Assert
+        assertEquals(List.of(6L, 5L), searchIndex.search("lamp", false, 10));
+    }
+
+    private void migrate(String target) {
+        Flyway.configure().dataSource(dataSource).locations("classpath:db/migration/sqlite").target(target).load().migrate();
+    }
+
+    private String insertTriggerSql() {
+        return jdbcTemplate.queryForObject(
+                "SELECT sql FROM sqlite_master WHERE type = 'trigger' AND name = 'item_fts_ai'", String.class);
+    }
+
+    private void insert(Long id, String name) {
+        jdbcTemplate.update("INSERT INTO item (id, name) VALUES (?, ?)", id, name);
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.core.service;
+
+import com.example.core.config.ItemShards;
+import com.example.core.dto.ItemBatchResult;
+import com.example.core.entity.Item;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ItemBatchServiceTest {
+
+    @Mock
+    private ItemService itemService;
+
+    @Mock
+    private ItemShards itemShards;
+
+    @InjectMocks
+    private ItemBatchService itemBatchService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(itemBatchService, "chunkSize", 2);
+    }
+
+    @Test
+    void createItems_ShouldCommitOneChunkPerChunkSize() {
+        // Arrange
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            items.add(new Item(null, "Item " + i, "Description " + i, (double) i));
+        }
+        long[] nextId = {1};
+        when(itemService.createItems(anyList())).thenAnswer(invocation -> {
+            List<Item> chunk = invocation.getArgument(0);
+            chunk.forEach(item -> item.setId(nextId[0]++));
+            return chunk;
+        });
+
+        // Act
+        List<ItemBatchResult> results = itemBatchService.createItems(items.iterator());
+
+        // Assert
+        assertEquals(3, results.size());
+        assertEquals(List.of(2, 2, 1), results.stream().map(ItemBatchResult::size).toList());
+        assertTrue(results.stream().allMatch(ItemBatchResult::committed));
+        assertEquals(List.of(5L), results.get(2).ids());
+        verify(itemService, times(3)).createItems(anyList());
+    }
+
+    @Test
+    void createItems_WithFailingChunk_ShouldKeepOtherChunks() {
+        // Arrange
+        Iterator<Item> items = LongStream.range(0, 4)
+                .mapToObj(i -> new Item(null, "Item " + i, "Description " + i, (double) i))
+                .iterator();
+        when(itemService.createItems(anyList()))
+                .thenThrow(new IllegalStateException("constraint violation"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        List<ItemBatchResult> results = itemBatchService.createItems(items);
+
+        // Assert
+        assertEquals(2, results.size());
+        assertFalse(results.get(0).committed());
+        assertEquals("constraint violation", results.get(0).error());
+        assertTrue(results.get(1).committed());
+        assertEquals(2, results.get(1).affected());
+    }
+
+    @Test
+    void createItems_WithMalformedInput_ShouldStopAfterCommittedChunks() {
+        // Arrange
+        Iterator<Item> items = new Iterator<>() {
+            private int read;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public Item next() {
+                if (read++ == 3) {
+                    throw new IllegalArgumentException("unexpected token");
+                }
+                return new Item(null, "Item", "Description", 1.0);
+            }
+        };
+        when(itemService.createItems(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        List<ItemBatchResult> results = itemBatchService.createItems(items);
+
+        // Assert
+        assertEquals(2, results.size());
+        assertTrue(results.get(0).committed());
+        assertFalse(results.get(1).committed());
+        assertTrue(results.get(1).error().contains("unexpected token"));
+        verify(itemService, times(1)).createItems(anyList());
+    }
+
+    @Test
+    void updateItems_ShouldReportMissingIds() {
+        // Arrange
+        Item existing = new Item(1L, "Updated Item", "Updated Description", 15.0);
+        Item missing = new Item(9L, "Missing Item", "Missing Description", 5.0);
+        when(itemService.updateItems(List.of(existing, missing))).thenReturn(List.of(existing));
+
+        // Act
+        List<ItemBatchResult> results = itemBatchService.updateItems(List.of(existing, missing).iterator());
+
+        // Assert
+        assertEquals(1, results.size());
+        assertEquals(1, results.get(0).affected());
+        assertEquals(List.of(1L), results.get(0).ids());
+        assertEquals(List.of(9L), results.get(0).missingIds());
+    }
+
+    @Test
+    void deleteItems_ShouldReturnDeletedCountPerChunk() {
+        // Arrange
+        when(itemService.deleteItems(List.of(1L, 2L))).thenReturn(2);
+        when(itemService.deleteItems(List.of(3L))).thenReturn(0);
+
+        // Act
+        List<ItemBatchResult> results = itemBatchService.deleteItems(List.of(1L, 2L, 3L).iterator());
+
+        // Assert
+        assertEquals(2, results.size());
+        assertEquals(2, results.get(0).affected());
+        assertEquals(0, results.get(1).affected());
+    }
+
+    @Test
+    void deleteItems_WhenSharded_ShouldCommitEachShardsShareSeparately() {
+        // Arrange
+        when(itemShards.isSharded()).thenReturn(true);
+        when(itemShards.ownerOf(anyLong())).thenAnswer(invocation -> (int) (invocation.<Long>getArgument(0) % 2));
+        when(itemService.deleteItems(List.of(2L))).thenReturn(1);
+        when(itemService.deleteItems(List.of(1L))).thenThrow(new IllegalStateException("Disk full"));
+
+        // Act
+        List<ItemBatchResult> results = itemBatchService.deleteItems(List.of(1L, 2L).iterator());
+
+        // Assert
+        assertEquals(2, results.size());
+        assertTrue(results.get(0).committed());
+        assertEquals(List.of(2L), results.get(0).ids());
+        assertFalse(results.get(1).committed());
+        assertEquals(1, results.get(1).size());
+    }
+}
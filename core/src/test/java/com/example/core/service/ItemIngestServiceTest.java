@@ -0,0 +1,191 @@
+package com.example.core.service;
+
+import com.example.core.dto.ItemIngestStatus;
+import com.example.core.entity.Item;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ItemIngestServiceTest {
+
+    @Mock
+    private ItemService itemService;
+
+    private ItemIngestService ingestService;
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    private final AtomicLong nextId = new AtomicLong(1);
+
+    @AfterEach
+    void tearDown() {
+        if (ingestService != null && ingestService.isRunning()) {
+            ingestService.stop();
+        }
+    }
+
+    @Test
+    void submit_ShouldCommitQueuedItemsInBatches() {
+        // Arrange
+        ingestService = service(100, 10, Duration.ofMillis(200));
+        List<Integer> batchSizes = new ArrayList<>();
+        when(itemService.createItems(anyList())).thenAnswer(invocation -> {
+            batchSizes.add(invocation.<List<Item>>getArgument(0).size());
+            return assignIds(invocation.getArgument(0));
+        });
+
+        // Act: the flush interval leaves time for all ten to arrive
+        List<ItemIngestStatus> accepted = new ArrayList<>();
+        ingestService.start();
+        for (int i = 0; i < 10; i++) {
+            accepted.add(ingestService.submit(item(i)));
+        }
+        ingestService.stop();
+
+        // Assert
+        assertTrue(accepted.stream().allMatch(status -> status.state() == ItemIngestStatus.State.PENDING));
+        assertEquals(10, batchSizes.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(batchSizes.size() < 10, "batches were " + batchSizes);
+        ItemIngestStatus status = ingestService.status(accepted.get(0).id()).orElseThrow();
+        assertEquals(ItemIngestStatus.State.COMMITTED, status.state());
+        assertNotNull(status.itemId());
+        assertEquals(0, ingestService.queueDepth());
+    }
+
+    @Test
+    void submit_WhenQueueIsFull_ShouldReject() throws Exception {
+        // Arrange: the writer is stuck on the first item, so the queue fills up
+        ingestService = service(2, 1, Duration.ofMillis(10));
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(itemService.createItems(anyList())).thenAnswer(invocation -> {
+            writing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return assignIds(invocation.getArgument(0));
+        });
+        ingestService.start();
+        ingestService.submit(item(0));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        ingestService.submit(item(1));
+        ingestService.submit(item(2));
+
+        // Act & Assert
+        assertThrows(RejectedExecutionException.class, () -> ingestService.submit(item(3)));
+        assertEquals(1.0, registry.get("item.ingest.rejected").counter().count());
+        assertEquals(2.0, registry.get("item.ingest.queue.depth").gauge().value());
+        release.countDown();
+    }
+
+    @Test
+    void stop_ShouldCommitEverythingAccepted() {
+        // Arrange
+        ingestService = service(1000, 50, Duration.ofSeconds(1));
+        when(itemService.createItems(anyList())).thenAnswer(invocation -> assignIds(invocation.getArgument(0)));
+        ingestService.start();
+        List<ItemIngestStatus> accepted = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            accepted.add(ingestService.submit(item(i)));
+        }
+
+        // Act
+        ingestService.stop();
+
+        // Assert
+        for (ItemIngestStatus status : accepted) {
+            assertEquals(ItemIngestStatus.State.COMMITTED, ingestService.status(status.id()).orElseThrow().state());
+        }
+        assertEquals(120.0, registry.get("item.ingest.batch.size").summary().totalAmount());
+        assertThrows(RejectedExecutionException.class, () -> ingestService.submit(item(120)));
+    }
+
+    @Test
+    void flush_WhenBatchFails_ShouldRetryItemsOneAtATime() {
+        // Arrange: any write containing the bad item fails
+        ingestService = service(100, 10, Duration.ofMillis(200));
+        when(itemService.createItems(anyList())).thenAnswer(invocation -> {
+            List<Item> items = invocation.getArgument(0);
+            if (items.stream().anyMatch(item -> item.getName().equals("Item 1"))) {
+                throw new IllegalStateException("constraint violation");
+            }
+            return assignIds(items);
+        });
+        ingestService.start();
+        ItemIngestStatus good = ingestService.submit(item(0));
+        ItemIngestStatus bad = ingestService.submit(item(1));
+
+        // Act
+        ingestService.stop();
+
+        // Assert
+        assertEquals(ItemIngestStatus.State.COMMITTED, ingestService.status(good.id()).orElseThrow().state());
+        ItemIngestStatus failed = ingestService.status(bad.id()).orElseThrow();
+        assertEquals(ItemIngestStatus.State.FAILED, failed.state());
+        assertEquals("constraint violation", failed.error());
+        assertEquals(1.0, registry.get("item.ingest.failed").counter().count());
+    }
+
+    @Test
+    void flush_WhenBatchThrowsError_ShouldFailBatchAndKeepWriting() {
+        // Arrange
+        ingestService = service(100, 10, Duration.ofMillis(200));
+        when(itemService.createItems(anyList()))
+                .thenThrow(new StackOverflowError())
+                .thenAnswer(invocation -> assignIds(invocation.getArgument(0)));
+        ingestService.start();
+        ItemIngestStatus broken = ingestService.submit(item(0));
+        await(broken);
+
+        // Act
+        ItemIngestStatus next = ingestService.submit(item(1));
+        ingestService.stop();
+
+        // Assert
+        ItemIngestStatus failed = ingestService.status(broken.id()).orElseThrow();
+        assertEquals(ItemIngestStatus.State.FAILED, failed.state());
+        assertEquals(StackOverflowError.class.getName(), failed.error());
+        assertEquals(ItemIngestStatus.State.COMMITTED, ingestService.status(next.id()).orElseThrow().state());
+        assertTrue(ingestService.writerFailure().isEmpty());
+        verify(itemService, times(2)).createItems(anyList());
+    }
+
+    private void await(ItemIngestStatus accepted) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (ingestService.status(accepted.id()).orElseThrow().state() == ItemIngestStatus.State.PENDING) {
+            assertTrue(System.nanoTime() < deadline, "still pending");
+            Thread.onSpinWait();
+        }
+    }
+
+    private ItemIngestService service(int queueCapacity, int batchSize, Duration flushInterval) {
+        ItemIngestService service = new ItemIngestService(itemService, queueCapacity, batchSize, flushInterval,
+                Duration.ofMillis(10), Duration.ofSeconds(5), Duration.ofMinutes(5), 1000);
+        service.bindTo(registry);
+        return service;
+    }
+
+    private List<Item> assignIds(List<Item> items) {
+        items.forEach(item -> item.setId(nextId.getAndIncrement()));
+        return items;
+    }
+
+    private static Item item(int i) {
+        return new Item(null, "Item " + i, "Description " + i, (double) i);
+    }
+}
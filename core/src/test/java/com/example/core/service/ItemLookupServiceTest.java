@@ -0,0 +1,104 @@
+package com.example.core.service;
+
+import com.example.core.config.CacheConfig;
+import com.example.core.config.ReadYourWrites;
+import com.example.core.dto.ItemLookup;
+import com.example.core.entity.Item;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ItemLookupServiceTest {
+
+    private static final Map<Long, Item> ITEMS = Map.of(
+            1L, new Item(1L, "Item 1", "Description 1", 10.0),
+            2L, new Item(2L, "Item 2", "Description 2", 20.0),
+            3L, new Item(3L, "Item 3", "Description 3", 30.0));
+
+    @Mock
+    private ItemService itemService;
+
+    private final CacheManager cacheManager = new ConcurrentMapCacheManager(CacheConfig.ITEMS_CACHE);
+
+    private final ConcurrentLinkedQueue<Collection<Long>> queried = new ConcurrentLinkedQueue<>();
+
+    private ItemLookupService lookupService;
+
+    @BeforeEach
+    void setUp() {
+        StaticListableBeanFactory beans = new StaticListableBeanFactory(Map.of("cacheManager", cacheManager));
+        lookupService = new ItemLookupService(itemService, beans.getBeanProvider(CacheManager.class), 2, 3);
+        when(itemService.findItemsById(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            queried.add(List.copyOf(ids));
+            return ids.stream().map(ITEMS::get).filter(Objects::nonNull).toList();
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        lookupService.close();
+        ReadYourWrites.clear();
+    }
+
+    @Test
+    void getItemsById_ShouldDropDuplicatesAndKeepRequestOrder() {
+        // Act
+        ItemLookup lookup = lookupService.getItemsById(List.of(3L, 1L, 3L, 99L, 2L));
+
+        // Assert
+        assertEquals(List.of(3L, 1L, 2L), lookup.items().stream().map(Item::getId).toList());
+        assertEquals(List.of(99L), lookup.missingIds());
+        assertEquals(2, queried.size());
+        assertTrue(queried.stream().allMatch(chunk -> chunk.size() <= 2));
+    }
+
+    @Test
+    void getItemsById_ShouldServeCachedItemsAndCacheLoadedOnes() {
+        // Arrange
+        cacheManager.getCache(CacheConfig.ITEMS_CACHE).put(1L, ITEMS.get(1L));
+
+        // Act
+        ItemLookup lookup = lookupService.getItemsById(List.of(1L, 2L));
+
+        // Assert
+        assertEquals(List.of(1L, 2L), lookup.items().stream().map(Item::getId).toList());
+        verify(itemService, times(1)).findItemsById(List.of(2L));
+        assertSame(ITEMS.get(2L), cacheManager.getCache(CacheConfig.ITEMS_CACHE).get(2L, Item.class));
+    }
+
+    @Test
+    void getItemsById_WhenPinnedToPrimary_ShouldPinEveryChunk() {
+        // Arrange
+        ReadYourWrites.pinToPrimaryUntil(System.currentTimeMillis() + 60_000);
+        ConcurrentLinkedQueue<Boolean> pinned = new ConcurrentLinkedQueue<>();
+        when(itemService.findItemsById(anyCollection())).thenAnswer(invocation -> {
+            pinned.add(ReadYourWrites.isPinnedToPrimary());
+            return List.of();
+        });
+
+        // Act
+        ItemLookup lookup = lookupService.getItemsById(List.of(1L, 2L, 3L, 4L, 5L));
+
+        // Assert
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), lookup.missingIds());
+        assertEquals(List.of(true, true, true), List.copyOf(pinned));
+    }
+}
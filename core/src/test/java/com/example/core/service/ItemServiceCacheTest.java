@@ -0,0 +1,189 @@
+package com.example.core.service;
+
+import com.example.core.config.CacheConfig;
+import com.example.core.config.ItemShards;
+import com.example.core.entity.Item;
+import com.example.core.repository.ItemChangeCounter;
+import com.example.core.repository.ItemRepository;
+import com.example.core.search.ItemPriceIndex;
+import com.example.core.search.ItemSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@SpringJUnitConfig(ItemServiceCacheTest.TestConfig.class)
+public class ItemServiceCacheTest {
+
+    @Configuration
+    @Import({CacheConfig.class, ItemService.class})
+    static class TestConfig {
+
+        @Bean
+        CacheManager cacheManager() {
+            return new CaffeineCacheManager(CacheConfig.ITEMS_CACHE);
+        }
+
+        @Bean
+        ItemShards itemShards() {
+            return new ItemShards(mock(PlatformTransactionManager.class), 1, "");
+        }
+    }
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @MockBean
+    private ItemRepository itemRepository;
+
+    @MockBean
+    private ItemSearchIndex itemSearchIndex;
+
+    @MockBean
+    private ItemPriceIndex itemPriceIndex;
+
+    @MockBean
+    private ItemChangeCounter itemChangeCounter;
+
+    private Item item1;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(CacheConfig.ITEMS_CACHE).clear();
+        item1 = new Item(1L, "Test Item 1", "Description 1", 10.0);
+    }
+
+    @Test
+    void getItemById_CalledTwice_ShouldHitRepositoryOnce() {
+        // Arrange
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item1));
+
+        // Act
+        itemService.getItemById(1L);
+        Optional<Item> result = itemService.getItemById(1L);
+
+        // Assert
+        assertTrue(result.isPresent());
+        assertEquals("Test Item 1", result.get().getName());
+        verify(itemRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void getItemById_WithNonExistingId_ShouldNotCacheMiss() {
+        // Arrange
+        when(itemRepository.findById(99L)).thenReturn(Optional.empty());
+
+        // Act
+        itemService.getItemById(99L);
+        itemService.getItemById(99L);
+
+        // Assert
+        verify(itemRepository, times(2)).findById(99L);
+    }
+
+    @Test
+    void saveItem_ShouldWriteThroughToCache() {
+        // Arrange
+        Item updatedItem = new Item(1L, "Updated Item", "Updated Description", 15.0);
+        when(itemRepository.save(any(Item.class))).thenReturn(updatedItem);
+
+        // Act
+        itemService.saveItem(updatedItem);
+        Optional<Item> result = itemService.getItemById(1L);
+
+        // Assert
+        assertEquals("Updated Item", result.get().getName());
+        verify(itemRepository, never()).findById(1L);
+    }
+
+    @Test
+    void updateItem_ShouldEvictFromCache() {
+        // Arrange
+        Item changes = new Item(null, "Updated Item", "Updated Description", 15.0);
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item1));
+        when(itemRepository.updateById(1L, "Updated Item", "Updated Description", 15.0, null)).thenReturn(1);
+        when(itemRepository.findVersionById(1L)).thenReturn(Optional.of(1L));
+        itemService.getItemById(1L);
+
+        // Act
+        itemService.updateItem(1L, changes, null);
+        itemService.getItemById(1L);
+
+        // Assert
+        verify(itemRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void deleteItem_ShouldEvictFromCache() {
+        // Arrange
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item1)).thenReturn(Optional.empty());
+        itemService.getItemById(1L);
+
+        // Act
+        itemService.deleteItem(1L);
+        Optional<Item> result = itemService.getItemById(1L);
+
+        // Assert
+        assertFalse(result.isPresent());
+        verify(itemRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void updateItems_ShouldEvictOnlyUpdatedItems() {
+        // Arrange
+        Item item2 = new Item(2L, "Test Item 2", "Description 2", 20.0);
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item1));
+        when(itemRepository.findById(2L)).thenReturn(Optional.of(item2));
+        when(itemRepository.findAllById(List.of(1L))).thenReturn(List.of(item1));
+        itemService.getItemById(1L);
+        itemService.getItemById(2L);
+
+        // Act
+        itemService.updateItems(List.of(new Item(1L, "Updated Item", "Updated Description", 15.0)));
+        itemService.getItemById(1L);
+        itemService.getItemById(2L);
+
+        // Assert
+        verify(itemRepository, times(2)).findById(1L);
+        verify(itemRepository, times(1)).findById(2L);
+    }
+
+    @Test
+    void deleteItems_ShouldEvictOnlyDeletedIds() {
+        // Arrange
+        Item item2 = new Item(2L, "Test Item 2", "Description 2", 20.0);
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item1)).thenReturn(Optional.empty());
+        when(itemRepository.findById(2L)).thenReturn(Optional.of(item2));
+        when(itemRepository.lockExistingIds(List.of(1L))).thenReturn(List.of(1L));
+        when(itemRepository.deleteByIdIn(List.of(1L))).thenReturn(1);
+        itemService.getItemById(1L);
+        itemService.getItemById(2L);
+
+        // Act
+        itemService.deleteItems(List.of(1L));
+        Optional<Item> result = itemService.getItemById(1L);
+        itemService.getItemById(2L);
+
+        // Assert
+        assertFalse(result.isPresent());
+        verify(itemRepository, times(2)).findById(1L);
+        verify(itemRepository, times(1)).findById(2L);
+    }
+}
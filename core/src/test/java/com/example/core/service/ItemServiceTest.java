@@ -1,20 +1,43 @@
 package com.example.core.service;
 
+import com.example.core.config.ItemShards;
+import com.example.core.config.ShardContext;
+import com.example.core.dto.ItemPage;
+import com.example.core.dto.ItemPatch;
+import com.example.core.dto.ItemView;
 import com.example.core.entity.Item;
+import com.example.core.event.ItemChangeEvent;
+import com.example.core.repository.ItemChangeCounter;
 import com.example.core.repository.ItemRepository;
+import com.example.core.search.ItemPriceIndex;
+import com.example.core.search.ItemSearchIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -23,31 +46,94 @@ public class ItemServiceTest {
     @Mock
     private ItemRepository itemRepository;
 
+    @Mock
+    private ItemSearchIndex itemSearchIndex;
+
+    @Mock
+    private ItemPriceIndex itemPriceIndex;
+
+    @Mock
+    private ItemChangeCounter itemChangeCounter;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ObjectProvider<CacheManager> cacheManager;
+
+    @Spy
+    private ItemShards itemShards = new ItemShards(mock(PlatformTransactionManager.class), 1, "");
+
     @InjectMocks
     private ItemService itemService;
 
+    private static final Set<ItemView.Field> ALL = ItemView.Field.ALL;
+
     private Item item1;
     private Item item2;
+    private ItemView view1;
+    private ItemView view2;
 
     @BeforeEach
     void setUp() {
         item1 = new Item(1L, "Test Item 1", "Description 1", 10.0);
         item2 = new Item(2L, "Test Item 2", "Description 2", 20.0);
+        view1 = new ItemView(1L, "Test Item 1", "Description 1", 10.0, 0L);
+        view2 = new ItemView(2L, "Test Item 2", "Description 2", 20.0, 0L);
     }
 
     @Test
     void getAllItems_ShouldReturnAllItems() {
         // Arrange
-        when(itemRepository.findAll()).thenReturn(Arrays.asList(item1, item2));
+        when(itemRepository.findViews(ALL)).thenReturn(Arrays.asList(view1, view2));
 
         // Act
-        List<Item> result = itemService.getAllItems();
+        List<ItemView> result = itemService.getAllItems(ALL);
 
         // Assert
         assertEquals(2, result.size());
-        assertEquals("Test Item 1", result.get(0).getName());
-        assertEquals("Test Item 2", result.get(1).getName());
-        verify(itemRepository, times(1)).findAll();
+        assertEquals("Test Item 1", result.get(0).name());
+        assertEquals("Test Item 2", result.get(1).name());
+        verify(itemRepository, times(1)).findViews(ALL);
+        verify(itemRepository, never()).findAll();
+    }
+
+    @Test
+    void getItemPage_WithFullPage_ShouldReturnLastIdAsCursor() {
+        // Arrange
+        when(itemRepository.findViewsAfter(0L, 2, ALL)).thenReturn(Arrays.asList(view1, view2));
+
+        // Act
+        ItemPage result = itemService.getItemPage(null, 2, ALL);
+
+        // Assert
+        assertEquals(2, result.items().size());
+        assertEquals(2L, result.nextCursor());
+    }
+
+    @Test
+    void getItemPage_WithPartialPage_ShouldReturnNoCursor() {
+        // Arrange
+        when(itemRepository.findViewsAfter(1L, 10, ALL)).thenReturn(Arrays.asList(view2));
+
+        // Act
+        ItemPage result = itemService.getItemPage(1L, 10, ALL);
+
+        // Assert
+        assertEquals(1, result.items().size());
+        assertNull(result.nextCursor());
+    }
+
+    @Test
+    void getItemPage_ShouldCapLimit() {
+        // Arrange
+        when(itemRepository.findViewsAfter(0L, ItemService.MAX_PAGE_SIZE, ALL)).thenReturn(List.of());
+
+        // Act
+        itemService.getItemPage(0L, 1_000_000, ALL);
+
+        // Assert
+        verify(itemRepository, times(1)).findViewsAfter(0L, ItemService.MAX_PAGE_SIZE, ALL);
     }
 
     @Test
@@ -77,6 +163,19 @@ public class ItemServiceTest {
         verify(itemRepository, times(1)).findById(3L);
     }
 
+    @Test
+    void getVersion_ShouldReadVersionWithoutLoadingItem() {
+        // Arrange
+        when(itemRepository.findVersionById(1L)).thenReturn(Optional.of(4L));
+
+        // Act
+        Optional<Long> result = itemService.getVersion(1L);
+
+        // Assert
+        assertEquals(Optional.of(4L), result);
+        verify(itemRepository, never()).findById(anyLong());
+    }
+
     @Test
     void saveItem_ShouldReturnSavedItem() {
         // Arrange
@@ -92,44 +191,302 @@ public class ItemServiceTest {
         assertEquals(3L, result.getId());
         assertEquals("New Item", result.getName());
         verify(itemRepository, times(1)).save(newItem);
+        verify(eventPublisher, times(1)).publishEvent(ItemChangeEvent.created(savedItem));
+    }
+
+    @Test
+    void updateItem_WithExistingId_ShouldUpdateInOneStatement() {
+        // Arrange
+        Item changes = new Item(null, "Updated", "Updated Description", 15.0);
+        when(itemRepository.updateById(1L, "Updated", "Updated Description", 15.0, null)).thenReturn(1);
+        when(itemRepository.findVersionById(1L)).thenReturn(Optional.of(7L));
+
+        // Act
+        Optional<Item> result = itemService.updateItem(1L, changes, null);
+
+        // Assert
+        Item written = new Item(1L, "Updated", "Updated Description", 15.0, 7L);
+        assertEquals(Optional.of(written), result);
+        verify(itemRepository, never()).findById(anyLong());
+        verify(eventPublisher, times(1)).publishEvent(ItemChangeEvent.updated(written));
+    }
+
+    @Test
+    void updateItem_WithExpectedVersion_ShouldNotReadVersionBack() {
+        // Arrange
+        Item changes = new Item(null, "Updated", "Updated Description", 15.0);
+        when(itemRepository.updateById(1L, "Updated", "Updated Description", 15.0, 4L)).thenReturn(1);
+
+        // Act
+        Optional<Item> result = itemService.updateItem(1L, changes, 4L);
+
+        // Assert
+        assertEquals(5L, result.orElseThrow().getVersion());
+        verify(itemRepository, never()).findVersionById(anyLong());
+    }
+
+    @Test
+    void updateItem_WithStaleVersion_ShouldThrow() {
+        // Arrange
+        Item changes = new Item(null, "Updated", "Updated Description", 15.0);
+        when(itemRepository.updateById(1L, "Updated", "Updated Description", 15.0, 4L)).thenReturn(0);
+        when(itemRepository.existsById(1L)).thenReturn(true);
+
+        // Act & Assert
+        assertThrows(OptimisticLockingFailureException.class, () -> itemService.updateItem(1L, changes, 4L));
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
-    void deleteItem_ShouldCallRepositoryDeleteById() {
+    void updateItem_WithNonExistingId_ShouldReturnEmpty() {
         // Arrange
-        doNothing().when(itemRepository).deleteById(1L);
+        when(itemRepository.updateById(eq(99L), any(), any(), any(), eq(4L))).thenReturn(0);
+        when(itemRepository.existsById(99L)).thenReturn(false);
 
         // Act
-        itemService.deleteItem(1L);
+        Optional<Item> result = itemService.updateItem(99L, item2, 4L);
 
         // Assert
-        verify(itemRepository, times(1)).deleteById(1L);
+        assertTrue(result.isEmpty());
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
-    void searchItemsByName_ShouldReturnMatchingItems() {
+    void patchItem_ShouldPublishOnlyChangedFields() {
         // Arrange
-        when(itemRepository.findByNameContaining("Test")).thenReturn(Arrays.asList(item1, item2));
+        ItemPatch patch = new ItemPatch(null, null, 12.5);
+        when(itemRepository.patchById(1L, patch, 2L)).thenReturn(1);
 
         // Act
-        List<Item> result = itemService.searchItemsByName("Test");
+        Optional<Long> result = itemService.patchItem(1L, patch, 2L);
+
+        // Assert
+        assertEquals(Optional.of(3L), result);
+        verify(eventPublisher, times(1)).publishEvent(ItemChangeEvent.patched(1L, new Item(1L, null, null, 12.5, 3L)));
+    }
+
+    @Test
+    void patchItem_WithoutExpectedVersion_ShouldPublishVersionReadBack() {
+        // Arrange
+        ItemPatch patch = new ItemPatch("Renamed", null, null);
+        when(itemRepository.patchById(1L, patch, null)).thenReturn(1);
+        when(itemRepository.findVersionById(1L)).thenReturn(Optional.of(9L));
+
+        // Act
+        Optional<Long> result = itemService.patchItem(1L, patch, null);
+
+        // Assert
+        assertEquals(Optional.of(9L), result);
+        verify(eventPublisher, times(1)).publishEvent(ItemChangeEvent.patched(1L, new Item(1L, "Renamed", null, null, 9L)));
+    }
+
+    @Test
+    void deleteItem_ShouldDeleteInOneStatement() {
+        // Arrange
+        when(itemRepository.deleteByIdIn(List.of(1L))).thenReturn(1);
+
+        // Act
+        int result = itemService.deleteItem(1L);
+
+        // Assert
+        assertEquals(1, result);
+        verify(itemRepository, never()).findById(anyLong());
+        verify(eventPublisher, times(1)).publishEvent(ItemChangeEvent.deleted(1L));
+    }
+
+    @Test
+    void deleteItem_WithNonExistingId_ShouldReturnZeroWithoutEvent() {
+        // Arrange
+        when(itemRepository.deleteByIdIn(List.of(99L))).thenReturn(0);
+
+        // Act
+        int result = itemService.deleteItem(99L);
+
+        // Assert
+        assertEquals(0, result);
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void searchItemsByName_ShouldReturnItemsInIndexOrder() {
+        // Arrange
+        when(itemSearchIndex.search("Test", false, 10)).thenReturn(List.of(2L, 1L));
+        when(itemRepository.findViewsById(List.of(2L, 1L), ALL)).thenReturn(Arrays.asList(view1, view2));
+
+        // Act
+        List<ItemView> result = itemService.searchItemsByName("Test", false, 10, ALL);
 
         // Assert
         assertEquals(2, result.size());
-        verify(itemRepository, times(1)).findByNameContaining("Test");
+        assertEquals("Test Item 2", result.get(0).name());
+        assertEquals("Test Item 1", result.get(1).name());
+        verify(itemSearchIndex, times(1)).search("Test", false, 10);
     }
 
     @Test
-    void findItemsUnderPrice_ShouldReturnItemsUnderPrice() {
+    void searchItemsByName_WithNoMatches_ShouldNotLoadItems() {
         // Arrange
-        when(itemRepository.findByPriceLessThanEqual(15.0)).thenReturn(Arrays.asList(item1));
+        when(itemSearchIndex.search("None", true, ItemService.MAX_PAGE_SIZE)).thenReturn(List.of());
 
         // Act
-        List<Item> result = itemService.findItemsUnderPrice(15.0);
+        List<ItemView> result = itemService.searchItemsByName("None", true, 1_000_000, ALL);
+
+        // Assert
+        assertTrue(result.isEmpty());
+        verify(itemRepository, never()).findViewsById(anyList(), any());
+    }
+
+    @Test
+    void findItemsByPrice_BeforeIndexIsReady_ShouldQueryRepository() {
+        // Arrange
+        when(itemRepository.findViewsByPrice(-Double.MAX_VALUE, 15.0, false, 10, ALL)).thenReturn(Arrays.asList(view1));
+
+        // Act
+        List<ItemView> result = itemService.findItemsByPrice(null, 15.0, false, 10, ALL);
 
         // Assert
         assertEquals(1, result.size());
-        assertEquals("Test Item 1", result.get(0).getName());
-        verify(itemRepository, times(1)).findByPriceLessThanEqual(15.0);
+        assertEquals("Test Item 1", result.get(0).name());
+        verify(itemPriceIndex, never()).range(anyDouble(), anyDouble(), anyBoolean(), anyInt());
+    }
+
+    @Test
+    void findItemsByPrice_WithReadyIndex_ShouldLoadIdsInIndexOrder() {
+        // Arrange
+        when(itemPriceIndex.isReady()).thenReturn(true);
+        when(itemPriceIndex.range(5.0, Double.MAX_VALUE, true, 10)).thenReturn(List.of(2L, 1L));
+        when(itemRepository.findViewsById(List.of(2L, 1L), ALL)).thenReturn(Arrays.asList(view1, view2));
+
+        // Act
+        List<ItemView> result = itemService.findItemsByPrice(5.0, null, true, 10, ALL);
+
+        // Assert
+        assertEquals(List.of(view2, view1), result);
+        verify(itemRepository, never()).findViewsByPrice(anyDouble(), anyDouble(), anyBoolean(), anyInt(), any());
+    }
+
+    @Test
+    void getItemPage_WhenSharded_ShouldMergeShardsById() {
+        // Arrange
+        ItemView view3 = new ItemView(3L, "Test Item 3", "Description 3", 30.0, 0L);
+        ItemView view4 = new ItemView(4L, "Test Item 4", "Description 4", 40.0, 0L);
+        when(itemRepository.findViewsAfter(0L, 3, ALL)).thenAnswer(invocation ->
+                ShardContext.current() == 0 ? List.of(view2, view4) : List.of(view1, view3));
+        ItemShards twoShards = new ItemShards(mock(PlatformTransactionManager.class), 2, "jdbc:sqlite:test.db");
+        ItemService shardedService = new ItemService(itemRepository, itemSearchIndex, itemPriceIndex,
+                itemChangeCounter, twoShards, eventPublisher, cacheManager);
+
+        // Act
+        ItemPage result;
+        try {
+            result = shardedService.getItemPage(null, 3, ALL);
+        } finally {
+            twoShards.close();
+        }
+
+        // Assert
+        assertEquals(List.of(view1, view2, view3), result.items());
+        assertEquals(3L, result.nextCursor());
+    }
+
+    @Test
+    void findItemsByPrice_WhenSharded_ShouldMergeByPriceAndDropUnrequestedPrice() {
+        // Arrange
+        Set<ItemView.Field> idAndName = EnumSet.of(ItemView.Field.ID, ItemView.Field.NAME);
+        Set<ItemView.Field> withPrice = EnumSet.of(ItemView.Field.ID, ItemView.Field.NAME, ItemView.Field.PRICE);
+        ItemView view3 = new ItemView(3L, "Test Item 3", null, 15.0, null);
+        when(itemRepository.findViewsByPrice(-Double.MAX_VALUE, Double.MAX_VALUE, false, 2, withPrice))
+                .thenAnswer(invocation -> ShardContext.current() == 0 ? List.of(view2) : List.of(view1, view3));
+        ItemShards twoShards = new ItemShards(mock(PlatformTransactionManager.class), 2, "jdbc:sqlite:test.db");
+        ItemService shardedService = new ItemService(itemRepository, itemSearchIndex, itemPriceIndex,
+                itemChangeCounter, twoShards, eventPublisher, cacheManager);
+
+        // Act
+        List<ItemView> result;
+        try {
+            result = shardedService.findItemsByPrice(null, null, false, 2, idAndName);
+        } finally {
+            twoShards.close();
+        }
+
+        // Assert
+        assertEquals(List.of(1L, 3L), result.stream().map(ItemView::id).toList());
+        assertTrue(result.stream().allMatch(item -> item.price() == null));
+    }
+
+    @Test
+    void createItems_ShouldClearIdsAndSaveAll() {
+        // Arrange
+        Item newItem = new Item(42L, "New Item", "New Description", 30.0);
+        when(itemRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        List<Item> result = itemService.createItems(List.of(newItem));
+
+        // Assert
+        assertEquals(1, result.size());
+        assertNull(newItem.getId());
+        verify(itemRepository, times(1)).saveAll(List.of(newItem));
+    }
+
+    @Test
+    void updateItems_ShouldApplyChangesToExistingItemsOnly() {
+        // Arrange
+        Item change1 = new Item(1L, "Updated Item", "Updated Description", 15.0);
+        Item change3 = new Item(3L, "Missing Item", "Missing Description", 5.0);
+        when(itemRepository.findAllById(List.of(1L, 3L))).thenReturn(List.of(item1));
+
+        // Act
+        List<Item> result = itemService.updateItems(List.of(change1, change3));
+
+        // Assert
+        assertEquals(1, result.size());
+        assertSame(item1, result.get(0));
+        assertEquals("Updated Item", item1.getName());
+        assertEquals(15.0, item1.getPrice());
+        verify(itemRepository, never()).save(any(Item.class));
+    }
+
+    @Test
+    void deleteItems_ShouldDeleteInOneStatement() {
+        // Arrange
+        when(itemRepository.lockExistingIds(List.of(1L, 2L))).thenReturn(List.of(1L, 2L));
+        when(itemRepository.deleteByIdIn(List.of(1L, 2L))).thenReturn(2);
+
+        // Act
+        int result = itemService.deleteItems(List.of(1L, 2L));
+
+        // Assert
+        assertEquals(2, result);
+        verify(itemRepository, times(1)).deleteByIdIn(List.of(1L, 2L));
+    }
+
+    @Test
+    void deleteItems_WithMissingIds_ShouldPublishOnlyDeletedItems() {
+        // Arrange
+        when(itemRepository.lockExistingIds(List.of(1L, 99L))).thenReturn(List.of(1L));
+        when(itemRepository.deleteByIdIn(List.of(1L))).thenReturn(1);
+
+        // Act
+        int result = itemService.deleteItems(List.of(1L, 99L));
+
+        // Assert
+        assertEquals(1, result);
+        verify(eventPublisher).publishEvent(ItemChangeEvent.deleted(1L));
+        verifyNoMoreInteractions(eventPublisher);
+    }
+
+    @Test
+    void deleteItems_WithOnlyMissingIds_ShouldNotDelete() {
+        // Arrange
+        when(itemRepository.lockExistingIds(List.of(99L))).thenReturn(List.of());
+
+        // Act
+        int result = itemService.deleteItems(List.of(99L));
+
+        // Assert
+        assertEquals(0, result);
+        verify(itemRepository, never()).deleteByIdIn(anyList());
+        verifyNoInteractions(eventPublisher);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,139 @@
+package com.example.core.snapshot;
+
+import com.example.core.config.ItemIdSequenceInitializer;
+import com.example.core.config.ItemShards;
+import com.example.core.dto.ItemSnapshot;
+import com.example.core.event.ItemsImportedEvent;
+import com.example.core.repository.ItemChangeCounter;
+import com.example.core.repository.ItemRepository;
+import com.example.core.search.ItemSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ItemSnapshotServiceTest {
+
+    private static final String SELECT_ALL = "SELECT id, name, description, price, version FROM item ORDER BY id";
+
+    @TempDir
+    Path tempDir;
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private ItemChangeCounter itemChangeCounter;
+
+    @Mock
+    private ItemIdSequenceInitializer itemIdSequenceInitializer;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private ItemSnapshotService service;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:sqlite:" + tempDir.resolve("test.db"));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE item (id INTEGER PRIMARY KEY, name VARCHAR(255), "
+                + "description VARCHAR(255), price FLOAT, version BIGINT NOT NULL DEFAULT 0)");
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        ItemSearchIndex searchIndex = (query, prefix, limit) -> List.of();
+        service = new ItemSnapshotService(itemRepository, searchIndex, dataSource, transactionManager,
+                new ItemShards(transactionManager, 1, ""), itemChangeCounter, itemIdSequenceInitializer,
+                eventPublisher, tempDir.resolve("snapshots").toString(), 2, 2);
+    }
+
+    @Test
+    void exportThenImport_ShouldRestoreItemsIncludingNulls() throws IOException {
+        // Arrange
+        jdbcTemplate.update("INSERT INTO item (id, name, description, price, version) VALUES "
+                + "(1, 'Laptop', '14 inch', 999.5, 3), "
+                + "(2, 'Cable', NULL, 4.25, 0), "
+                + "(5, 'Gift card', 'Any amount', NULL, 1), "
+                + "(8, NULL, NULL, NULL, 0), "
+                + "(9, 'Free sample', 'Zero price', 0.0, 2)");
+        List<Map<String, Object>> original = jdbcTemplate.queryForList(SELECT_ALL);
+
+        // Act
+        ItemSnapshot exported = service.export("backup");
+        jdbcTemplate.update("DELETE FROM item");
+        when(itemRepository.count()).thenReturn(0L);
+        ItemSnapshot imported = service.importSnapshot("backup");
+
+        // Assert
+        assertEquals(5, exported.items());
+        assertEquals(9, exported.maxId());
+        assertEquals(exported.checksum(), imported.checksum());
+        assertEquals(original, jdbcTemplate.queryForList(SELECT_ALL));
+        verify(itemIdSequenceInitializer).advancePast(9);
+        verify(eventPublisher).publishEvent(new ItemsImportedEvent(5));
+        assertEquals(List.of("backup"), service.list().stream().map(ItemSnapshot::name).toList());
+    }
+
+    @Test
+    void importSnapshot_WithItemsPresent_ShouldRefuse() throws IOException {
+        // Arrange
+        jdbcTemplate.update("INSERT INTO item (id, name) VALUES (1, 'Laptop')");
+        service.export("backup");
+        when(itemRepository.count()).thenReturn(1L);
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> service.importSnapshot("backup"));
+        verifyNoInteractions(itemIdSequenceInitializer, eventPublisher);
+    }
+
+    @Test
+    void importSnapshot_WhenBatchFails_ShouldDeleteCommittedItemsAndAllowRetry() throws IOException {
+        // Arrange
+        jdbcTemplate.update("INSERT INTO item (id, name, description, price, version) VALUES "
+                + "(1, 'Laptop', '14 inch', 999.5, 3), (2, 'Cable', NULL, 4.25, 0), "
+                + "(5, 'Gift card', 'Any amount', NULL, 1), (9, 'Free sample', 'Zero price', 0.0, 2)");
+        List<Map<String, Object>> original = jdbcTemplate.queryForList(SELECT_ALL);
+        service.export("backup");
+        jdbcTemplate.update("DELETE FROM item");
+        when(itemRepository.count()).thenReturn(0L);
+        // The first batch of two commits, the second fails on item 9.
+        jdbcTemplate.execute("CREATE TRIGGER fail_import BEFORE INSERT ON item WHEN new.id = 9 "
+                + "BEGIN SELECT RAISE(ABORT, 'disk full'); END");
+
+        // Act
+        ItemSnapshotImportException failure = assertThrows(ItemSnapshotImportException.class,
+                () -> service.importSnapshot("backup"));
+
+        // Assert
+        assertEquals(2, failure.committed());
+        assertTrue(failure.rolledBack());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM item", Integer.class));
+        verifyNoInteractions(eventPublisher);
+
+        jdbcTemplate.execute("DROP TRIGGER fail_import");
+        service.importSnapshot("backup");
+        assertEquals(original, jdbcTemplate.queryForList(SELECT_ALL));
+    }
+
+    @Test
+    void export_WithInvalidName_ShouldRefuse() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> service.export("../outside"));
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.core.snapshot;
+
+import com.example.core.dto.ItemView;
+import com.example.core.snapshot.ItemSnapshotFormat.Header;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ItemSnapshotWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void write_ShouldRoundTripThroughReader() throws IOException {
+        // Arrange
+        Path file = tempDir.resolve("items.snapshot");
+        List<ItemView> items = List.of(
+                new ItemView(3L, "Laptop", "14 inch", 999.99, 2L),
+                new ItemView(7L, "Café crème", null, null, 0L),
+                new ItemView(9L, null, "", 0.0, 5L));
+
+        // Act
+        Header header = write(file, items);
+        List<ItemView> read = new ArrayList<>();
+        try (ItemSnapshotReader reader = ItemSnapshotReader.open(file)) {
+            reader.verify();
+            ItemSnapshotReader.Cursor rows = reader.rows();
+            while (rows.next()) {
+                read.add(new ItemView(rows.id(), rows.name(), rows.description(), rows.price(), rows.version()));
+            }
+
+            // Assert
+            assertEquals(3, reader.items());
+            assertEquals(9L, reader.maxId());
+            assertEquals(header.bodyChecksum(), reader.checksum());
+        }
+        assertEquals(items, read);
+        assertEquals(ItemSnapshotFormat.HEADER_SIZE + header.bodyLength(), Files.size(file));
+    }
+
+    @Test
+    void write_WithNoItems_ShouldProduceEmptySnapshot() throws IOException {
+        // Arrange
+        Path file = tempDir.resolve("empty.snapshot");
+
+        // Act
+        write(file, List.of());
+
+        // Assert
+        try (ItemSnapshotReader reader = ItemSnapshotReader.open(file)) {
+            reader.verify();
+            assertEquals(0, reader.items());
+            assertFalse(reader.rows().next());
+        }
+    }
+
+    @Test
+    void verify_WithCorruptedRow_ShouldFail() throws IOException {
+        // Arrange
+        Path file = tempDir.resolve("items.snapshot");
+        write(file, List.of(new ItemView(1L, "Laptop", "14 inch", 999.99, 0L)));
+        try (RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw")) {
+            raw.seek(Files.size(file) - 1);
+            raw.write('X');
+        }
+
+        // Act & Assert
+        try (ItemSnapshotReader reader = ItemSnapshotReader.open(file)) {
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class, reader::verify);
+            assertTrue(e.getMessage().contains("checksum"));
+        }
+    }
+
+    @Test
+    void open_WithCorruptedHeader_ShouldFail() throws IOException {
+        // Arrange
+        Path file = tempDir.resolve("items.snapshot");
+        write(file, List.of(new ItemView(1L, "Laptop", "14 inch", 999.99, 0L)));
+        try (RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw")) {
+            raw.seek(16);
+            raw.write(42);
+        }
+
+        // Act & Assert
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> ItemSnapshotReader.open(file));
+        assertTrue(e.getMessage().contains("header"));
+    }
+
+    @Test
+    void open_WithTruncatedFile_ShouldFail() throws IOException {
+        // Arrange
+        Path file = tempDir.resolve("items.snapshot");
+        write(file, List.of(new ItemView(1L, "Laptop", "14 inch", 999.99, 0L)));
+        try (RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw")) {
+            raw.setLength(raw.length() - 4);
+        }
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> ItemSnapshotReader.open(file));
+    }
+
+    @Test
+    void open_WithOtherFile_ShouldFail() throws IOException {
+        // Arrange
+        Path file = tempDir.resolve("notes.snapshot");
+        Files.writeString(file, "not a snapshot, but long enough to hold a whole header");
+
+        // Act & Assert
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> ItemSnapshotReader.open(file));
+        assertEquals("Not an item snapshot", e.getMessage());
+    }
+
+    private static Header write(Path file, List<ItemView> items) throws IOException {
+        try (ItemSnapshotWriter writer = ItemSnapshotWriter.create(file)) {
+            items.forEach(writer::write);
+            return writer.finish();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.core.stats;
+
+import com.example.core.config.ItemShards;
+import com.example.core.dto.ItemStats;
+import com.example.core.entity.Item;
+import com.example.core.event.ItemChangeEvent;
+import com.example.core.repository.ItemRepository;
+import com.example.core.repository.ItemRepositoryCustom.PriceConsumer;
+import com.example.core.search.ItemPriceIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ItemStatisticsTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ItemPriceIndex priceIndex;
+
+    private ItemStatistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        // Disabled on its own; the statistics keep it loaded.
+        priceIndex = new ItemPriceIndex(itemRepository, transactionManager,
+                new ItemShards(transactionManager, 1, ""), false, 100);
+        statistics = new ItemStatistics(priceIndex, new double[] { 50, 10 }, Duration.ofMinutes(10));
+    }
+
+    @AfterEach
+    void tearDown() {
+        statistics.close();
+    }
+
+    @Test
+    void snapshot_BeforeReconcile_ShouldBeEmpty() {
+        // Act & Assert
+        assertFalse(statistics.isReady());
+        assertTrue(statistics.snapshot().isEmpty());
+    }
+
+    @Test
+    void reconcile_ShouldAggregateLoadedPrices() {
+        // Arrange
+        load(new double[][] { { 4, Double.NaN }, { 1, 5.0 }, { 2, 10.0 }, { 3, 60.0 } });
+
+        // Act
+        ItemStats stats = statistics.snapshot().orElseThrow();
+
+        // Assert
+        assertEquals(4, stats.count());
+        assertEquals(3, stats.pricedCount());
+        assertEquals(5.0, stats.minPrice());
+        assertEquals(60.0, stats.maxPrice());
+        assertEquals(25.0, stats.averagePrice());
+        assertEquals(List.of(new ItemStats.Bucket(null, 10.0, 1), new ItemStats.Bucket(10.0, 50.0, 1),
+                new ItemStats.Bucket(50.0, null, 1)), stats.priceBuckets());
+        assertNotNull(stats.reconciledAt());
+        assertTrue(priceIndex.isReady());
+    }
+
+    @Test
+    void onItemChanged_ShouldAdjustAggregatesWithoutQuerying() {
+        // Arrange
+        load(new double[][] { { 1, 5.0 }, { 2, 20.0 }, { 3, 30.0 } });
+
+        // Act
+        priceIndex.onItemChanged(ItemChangeEvent.created(new Item(4L, "New", "", 100.0)));
+        priceIndex.onItemChanged(ItemChangeEvent.updated(new Item(2L, "Moved", "", 40.0)));
+        priceIndex.onItemChanged(ItemChangeEvent.patched(3L, new Item(null, "Renamed", null, null)));
+        priceIndex.onItemChanged(ItemChangeEvent.created(new Item(5L, "Unpriced", "", null)));
+        priceIndex.onItemChanged(ItemChangeEvent.deleted(99L));
+
+        // Assert
+        ItemStats stats = statistics.snapshot().orElseThrow();
+        assertEquals(5, stats.count());
+        assertEquals(4, stats.pricedCount());
+        assertEquals(175.0 / 4, stats.averagePrice());
+        assertEquals(5.0, stats.minPrice());
+        assertEquals(100.0, stats.maxPrice());
+        assertEquals(List.of(1L, 2L, 1L), stats.priceBuckets().stream().map(ItemStats.Bucket::count).toList());
+        verify(itemRepository, times(1)).streamPrices(anyInt(), any());
+        verifyNoMoreInteractions(itemRepository);
+    }
+
+    @Test
+    void onItemChanged_WhenExtremeRemoved_ShouldReadExtremesFromPriceIndex() {
+        // Arrange
+        load(new double[][] { { 1, 5.0 }, { 2, 20.0 }, { 3, 30.0 } });
+
+        // Act
+        priceIndex.onItemChanged(ItemChangeEvent.deleted(1L));
+        priceIndex.onItemChanged(ItemChangeEvent.updated(new Item(3L, "Unpriced", "", null)));
+
+        // Assert
+        ItemStats stats = statistics.snapshot().orElseThrow();
+        assertEquals(2, stats.count());
+        assertEquals(1, stats.pricedCount());
+        assertEquals(20.0, stats.minPrice());
+        assertEquals(20.0, stats.maxPrice());
+        verify(itemRepository, never()).findMinPrice();
+    }
+
+    @Test
+    void reconcile_ShouldReplayChangesCommittedWhileLoading() {
+        // Arrange
+        doAnswer(invocation -> {
+            PriceConsumer consumer = invocation.getArgument(1);
+            consumer.accept(1, 10.0);
+            // Committed after the cursor passed item 1.
+            priceIndex.onItemChanged(ItemChangeEvent.updated(new Item(1L, "Changed", "", 70.0)));
+            consumer.accept(2, 20.0);
+            return null;
+        }).when(itemRepository).streamPrices(anyInt(), any());
+
+        // Act
+        statistics.reconcile();
+
+        // Assert
+        ItemStats stats = statistics.snapshot().orElseThrow();
+        assertEquals(2, stats.count());
+        assertEquals(45.0, stats.averagePrice());
+        assertEquals(20.0, stats.minPrice());
+        assertEquals(70.0, stats.maxPrice());
+    }
+
+    private void load(double[][] rows) {
+        doAnswer(invocation -> {
+            PriceConsumer consumer = invocation.getArgument(1);
+            for (double[] row : rows) {
+                consumer.accept((long) row[0], row[1]);
+            }
+            return null;
+        }).when(itemRepository).streamPrices(anyInt(), any());
+        statistics.reconcile();
+    }
+}